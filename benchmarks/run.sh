@@ -0,0 +1,10 @@
+#!/bin/sh
+# Собирает бенчмарки и запускает их; результаты в JSON сохраняются в results/<коммит>.json,
+# чтобы сравнивать их между коммитами. Дополнительные аргументы передаются JMH,
+# например: ./run.sh EditorBenchmark -p vertices=999
+set -e
+cd "$(dirname "$0")"
+mvn -B -q package
+mkdir -p results
+rev=$(git rev-parse --short HEAD)
+java -jar target/benchmarks.jar -rf json -rff "results/$rev.json" "$@"
@@ -0,0 +1,92 @@
+package graph;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Операции редактора, выполняемые на каждый клик или событие мыши. Каждый бенчмарк вызывает
+// код программы: поиск - VertexGrid, перенос рёбер - GraphView.moveEdgeEnds, удаление и применение
+// решения - GraphModel и GraphEditor
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xmx2g", "-Dprism.order=sw"})
+public class EditorBenchmark {
+    private static final int POINTS = 1024; // Количество заранее сгенерированных точек и вершин
+
+    @Param({"9", "99", "999", "9999"})
+    public int vertices;
+
+    @Param({"sparse", "dense"})
+    public String density;
+
+    private GraphFixtures graph;
+    private GraphFixtures.Editor editor;
+    private GraphEditor solutionEditor; // Отдельный граф: применение решения удаляет рёбра
+    private final double[] clickX = new double[POINTS];
+    private final double[] clickY = new double[POINTS];
+    private final int[] dragged = new int[POINTS];
+    private int cursor = 0;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        graph = GraphFixtures.generate(vertices, density);
+        editor = graph.editor();
+        solutionEditor = new GraphEditor(graph.editor().model, new EditHistory(Long.MAX_VALUE), new EditorMetrics());
+        Random random = new Random(7);
+        for (int i = 0; i < POINTS; i++) {
+            // Половина кликов попадает в вершину, половина - в пустое место
+            if (i % 2 == 0) {
+                int v = editor.model.vertexAt(random.nextInt(vertices));
+                clickX[i] = editor.model.x(v) + random.nextDouble() * 10 - 5;
+                clickY[i] = editor.model.y(v) + random.nextDouble() * 10 - 5;
+            } else {
+                clickX[i] = random.nextDouble() * editor.side;
+                clickY[i] = random.nextDouble() * editor.side;
+            }
+            dragged[i] = random.nextInt(vertices);
+        }
+    }
+
+    @Benchmark
+    public int findVertexAt() {
+        int i = cursor++ & (POINTS - 1);
+        return editor.grid.findAt(clickX[i], clickY[i]);
+    }
+
+    // Проход по рёбрам вершины из GraphView.updateConnectedEdges для одного события перетаскивания
+    @Benchmark
+    public void updateConnectedEdges() {
+        GraphModel model = editor.model;
+        GraphView.moveEdgeEnds(model, editor.lines, model.vertexAt(dragged[cursor++ & (POINTS - 1)]));
+    }
+
+    // Удаление вершины с рёбрами и его отмена, как в Main.deleteVertex и undo
+    @Benchmark
+    public int deleteAndRestoreVertex() {
+        GraphModel model = editor.model;
+        int vertex = model.vertexAt(dragged[cursor++ & (POINTS - 1)]);
+        int index = model.indexOf(vertex);
+        double x = model.x(vertex), y = model.y(vertex), r = model.radius(vertex);
+        GraphModel.EdgeBatch removed = model.removeVertex(vertex);
+        model.restoreVertex(vertex, index, x, y, r);
+        model.restoreEdges(removed);
+        return removed.size();
+    }
+
+    // Применение найденного разбиения (как по кнопке "Показать решение") и его отмена
+    @Benchmark
+    public void applyAndUndoSolution() {
+        solutionEditor.applyTriangles(graph.planted, true);
+        solutionEditor.undo();
+    }
+
+    // Полный снимок графа, который раньше делался при каждом действии
+    @Benchmark
+    public GraphState graphStateSnapshot() {
+        return new GraphState(editor.model);
+    }
+}
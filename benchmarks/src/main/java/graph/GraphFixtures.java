@@ -0,0 +1,84 @@
+package graph;
+
+import javafx.scene.shape.Line;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Генератор входных данных для бенчмарков: граф с заранее заложенным разбиением на треугольники
+// (planted triangle factor) и случайными дополнительными рёбрами поверх него
+final class GraphFixtures {
+    final int n;
+    final List<int[]> planted = new ArrayList<>(); // Заложенное разбиение
+    final List<int[]> edgeList = new ArrayList<>(); // Все рёбра {i, j}, i < j
+    final BitAdjacencyMatrix matrix;
+
+    private GraphFixtures(int n, int extraEdges, long seed) {
+        this.n = n;
+        this.matrix = new BitAdjacencyMatrix(n);
+        Random random = new Random(seed);
+
+        // Случайная перестановка вершин, тройки подряд идущих образуют треугольники
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) order[i] = i;
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int t = order[i]; order[i] = order[j]; order[j] = t;
+        }
+        for (int i = 0; i + 2 < n; i += 3) {
+            int[] t = {order[i], order[i + 1], order[i + 2]};
+            java.util.Arrays.sort(t);
+            planted.add(t);
+            addEdge(t[0], t[1]);
+            addEdge(t[0], t[2]);
+            addEdge(t[1], t[2]);
+        }
+        for (int e = 0; e < extraEdges; e++) {
+            addEdge(random.nextInt(n), random.nextInt(n));
+        }
+    }
+
+    // sparse - в среднем ещё 2 ребра на вершину, dense - ещё 32
+    static GraphFixtures generate(int n, String density) {
+        int extra = switch (density) {
+            case "sparse" -> n;
+            case "dense" -> n * 16;
+            default -> throw new IllegalArgumentException(density);
+        };
+        return new GraphFixtures(n, extra, 42L * n + density.hashCode());
+    }
+
+    private void addEdge(int i, int j) {
+        if (i == j || matrix.hasEdge(i, j)) return;
+        matrix.addEdge(i, j);
+        edgeList.add(new int[]{Math.min(i, j), Math.max(i, j)});
+    }
+
+    // Объекты редактора: вершины раскладываются случайно по квадрату со стороной ~ 30 пикселей на вершину
+    Editor editor() {
+        return new Editor(this);
+    }
+
+    static final class Editor {
+        final double side;
+        final GraphModel model;
+        final VertexGrid grid; // Та же сетка, что у GraphEditor, подписана на модель
+        final Line[] lines; // Узлы рёбер по номеру, как у GraphView в режиме узлов
+
+        private Editor(GraphFixtures graph) {
+            Random random = new Random(graph.n);
+            side = 30 * Math.sqrt(graph.n);
+            model = new GraphModel(graph.n, graph.edgeList.size());
+            grid = new VertexGrid(model);
+            for (int i = 0; i < graph.n; i++) {
+                model.addVertex(random.nextDouble() * side, random.nextDouble() * side, 10);
+            }
+            lines = new Line[graph.edgeList.size()];
+            for (int[] e : graph.edgeList) {
+                int edge = model.addEdge(e[0], e[1]);
+                lines[edge] = new Line(model.x(e[0]), model.y(e[0]), model.x(e[1]), model.y(e[1]));
+            }
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package graph;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.*;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Этапы решения: построение матрицы смежности, текстовый формат javaOut.txt,
+// двоичный протокол процесса-решателя и перебор треугольников
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xmx2g", "-Dprism.order=sw"})
+public class PipelineBenchmark {
+
+    @Param({"9", "99", "999", "9999"})
+    public int vertices;
+
+    @Param({"sparse", "dense"})
+    public String density;
+
+    private GraphFixtures graph;
+    private String matrixText; // Матрица в формате javaOut.txt
+    private byte[] solverResult; // Ответ процесса-решателя с заложенным разбиением
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        graph = GraphFixtures.generate(vertices, density);
+        StringWriter text = new StringWriter();
+        AdjacencyMatrixText.write(graph.matrix, text);
+        matrixText = text.toString();
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        SolverProtocol.writeResult(new DataOutputStream(bytes), graph.planted, 0);
+        solverResult = bytes.toByteArray();
+    }
+
+    // То же, что Main.createAdjacencyMatrix: матрица из списка рёбер редактора
+    @Benchmark
+    public BitAdjacencyMatrix createAdjacencyMatrix() {
+        BitAdjacencyMatrix matrix = new BitAdjacencyMatrix(graph.n);
+        for (int[] e : graph.edgeList) {
+            matrix.addEdge(e[0], e[1]);
+        }
+        return matrix;
+    }
+
+    // Запись матрицы в текстовом формате (бывший writeMatrixToFile), без учёта диска
+    @Benchmark
+    public void writeMatrixText() throws IOException {
+        AdjacencyMatrixText.write(graph.matrix, Writer.nullWriter());
+    }
+
+    @Benchmark
+    public BitAdjacencyMatrix parseMatrixText() throws IOException {
+        return AdjacencyMatrixText.read(new BufferedReader(new StringReader(matrixText)));
+    }
+
+    // Отправка графа процессу-решателю (замена javaOut.txt)
+    @Benchmark
+    public int writeSolverRequest() throws IOException {
+        buffer.reset();
+        SolverProtocol.writeGraph(new DataOutputStream(buffer), graph.matrix);
+        return buffer.size();
+    }
+
+    // Разбор ответа решателя (бывший разбор вывода в openExeAndFindSolution)
+    @Benchmark
+    public List<int[]> parseSolverOutput() throws IOException {
+        return SolverProtocol.readResult(new DataInputStream(new ByteArrayInputStream(solverResult)), new SearchControl());
+    }
+
+    @Benchmark
+    public void enumerateTriangles(Blackhole blackhole) {
+        blackhole.consume(graph.matrix.triangles());
+    }
+}
@@ -0,0 +1,96 @@
+package graph;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CachingTriangleSolverTest {
+
+    // Решатель, который считает вызовы и при failures > 0 падает, как процесс SolverWorkerClient
+    private static final class FlakySolver implements TrianglePartitionSolver {
+        final AtomicInteger calls = new AtomicInteger();
+        int failures;
+
+        @Override
+        public List<int[]> solve(BitAdjacencyMatrix graph, SearchControl control) {
+            calls.incrementAndGet();
+            if (failures > 0) {
+                failures--;
+                throw new UncheckedIOException(new IOException("процесс-решатель завершился"));
+            }
+            return new DancingLinksSolver().solve(graph, control);
+        }
+    }
+
+    @Test
+    void failureIsNotCached() {
+        FlakySolver base = new FlakySolver();
+        base.failures = 1;
+        CachingTriangleSolver cache = new CachingTriangleSolver(base, 16);
+        BitAdjacencyMatrix graph = TestGraphs.planted(12, 10, new Random(21));
+
+        assertThrows(UncheckedIOException.class, () -> cache.solve(graph));
+        assertEquals(0, cache.size());
+        List<int[]> triangles = cache.solve(graph);
+        assertNotNull(triangles);
+        TestGraphs.assertPartition(graph, triangles);
+        assertEquals(2, base.calls.get());
+    }
+
+    @Test
+    void cancelledSearchIsNotCached() {
+        FlakySolver base = new FlakySolver();
+        CachingTriangleSolver cache = new CachingTriangleSolver(base, 16);
+        BitAdjacencyMatrix graph = TestGraphs.planted(12, 10, new Random(22));
+        SearchControl control = new SearchControl();
+        control.cancel();
+
+        assertNull(cache.solve(graph, control));
+        assertEquals(0, cache.size());
+        assertNotNull(cache.solve(graph));
+    }
+
+    @Test
+    void definitiveAnswersAreCached() {
+        FlakySolver base = new FlakySolver();
+        CachingTriangleSolver cache = new CachingTriangleSolver(base, 16);
+        BitAdjacencyMatrix solvable = TestGraphs.planted(12, 10, new Random(23));
+        BitAdjacencyMatrix infeasible = new BitAdjacencyMatrix(6); // Рёбер нет
+
+        for (int repeat = 0; repeat < 3; repeat++) {
+            assertNotNull(cache.solve(solvable));
+            assertNull(cache.solve(infeasible));
+        }
+        assertEquals(2, base.calls.get());
+        assertEquals(4, cache.getHits());
+    }
+
+    @Test
+    void savedCacheLoadsBack(@TempDir Path directory) {
+        Path file = directory.resolve("cache.bin");
+        BitAdjacencyMatrix solvable = TestGraphs.planted(12, 10, new Random(24));
+        BitAdjacencyMatrix infeasible = new BitAdjacencyMatrix(6);
+        CachingTriangleSolver first = new CachingTriangleSolver(new DancingLinksSolver(), 16);
+        first.solve(solvable);
+        first.solve(infeasible);
+        first.save(file);
+
+        FlakySolver base = new FlakySolver();
+        CachingTriangleSolver second = new CachingTriangleSolver(base, 16);
+        second.load(file);
+        TestGraphs.assertPartition(solvable, second.solve(solvable));
+        assertNull(second.solve(infeasible));
+        assertEquals(0, base.calls.get());
+    }
+}
@@ -0,0 +1,131 @@
+package graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Отмена и возврат действий редактора восстанавливают модель полностью, включая плотный порядок вершин:
+// от него зависят матрица смежности и отпечаток графа, по которому работает кэш решений
+class GraphEditorHistoryTest {
+
+    @Test
+    void undoAndRedoRoundTrip() {
+        Random random = new Random(31);
+        for (int round = 0; round < 20; round++) {
+            GraphModel model = new GraphModel();
+            GraphEditor editor = new GraphEditor(model, new EditHistory(Long.MAX_VALUE), new EditorMetrics());
+            List<String> states = new ArrayList<>();
+            states.add(describe(model));
+            for (int step = 0; step < 200; step++) {
+                if (edit(editor, model, random)) {
+                    states.add(describe(model));
+                }
+            }
+            for (int i = states.size() - 2; i >= 0; i--) {
+                editor.undo();
+                assertEquals(states.get(i), describe(model), "отмена до состояния " + i);
+            }
+            for (int i = 1; i < states.size(); i++) {
+                editor.redo();
+                assertEquals(states.get(i), describe(model), "возврат к состоянию " + i);
+            }
+        }
+    }
+
+    @Test
+    void undoDeleteRestoresFingerprint() {
+        GraphModel model = new GraphModel();
+        GraphEditor editor = new GraphEditor(model, new EditHistory(Long.MAX_VALUE), new EditorMetrics());
+        for (int i = 0; i < 9; i++) {
+            editor.addVertexAt(40 * i, 0);
+        }
+        for (int i = 0; i < 9; i += 3) {
+            connect(editor, 40 * i, 40 * (i + 1));
+            connect(editor, 40 * i, 40 * (i + 2));
+            connect(editor, 40 * (i + 1), 40 * (i + 2));
+        }
+        String fingerprint = model.toAdjacencyMatrix().fingerprint();
+        editor.deleteVertexAt(40, 0); // На её место в плотном порядке встанет последняя вершина
+        editor.undo();
+        assertEquals(fingerprint, model.toAdjacencyMatrix().fingerprint());
+    }
+
+    // У загруженного графа радиусы разные; отмена смены размера возвращает каждой вершине её радиус
+    @Test
+    void undoVertexSizeRestoresEachRadius() {
+        GraphModel loaded = new GraphModel();
+        for (int i = 0; i < 12; i++) {
+            loaded.addVertex(40 * i, 0, 5 + i);
+        }
+        GraphModel model = new GraphModel();
+        GraphEditor editor = new GraphEditor(model, new EditHistory(Long.MAX_VALUE), new EditorMetrics());
+        editor.load(loaded, 10);
+        String original = describe(model);
+
+        editor.setVertexSize(20);
+        for (int i = 0; i < model.vertexCount(); i++) {
+            assertEquals(20, model.radius(model.vertexAt(i)));
+        }
+        String resized = describe(model);
+        editor.undo();
+        assertEquals(original, describe(model));
+        assertEquals(10, editor.getVertexSize());
+        editor.redo();
+        assertEquals(resized, describe(model));
+        assertEquals(20, editor.getVertexSize());
+        editor.undo();
+        assertEquals(original, describe(model));
+    }
+
+    // Случайное действие; true, если оно попало в историю
+    private static boolean edit(GraphEditor editor, GraphModel model, Random random) {
+        int before = describe(model).hashCode();
+        int n = model.vertexCount();
+        switch (n < 3 ? 0 : random.nextInt(5)) {
+            case 0 -> editor.addVertexAt(random.nextInt(20) * 30, random.nextInt(20) * 30);
+            case 1 -> {
+                int v = model.vertexAt(random.nextInt(n));
+                editor.deleteVertexAt(model.x(v), model.y(v));
+            }
+            case 2, 3 -> {
+                int a = model.vertexAt(random.nextInt(n)), b = model.vertexAt(random.nextInt(n));
+                editor.pickVertex(model.x(a), model.y(a));
+                editor.pickVertex(model.x(b), model.y(b));
+            }
+            default -> {
+                int v = model.vertexAt(random.nextInt(n));
+                editor.beginDrag(model.x(v), model.y(v), new int[]{v});
+                editor.dragTo(model.x(v) + 15, model.y(v) - 7);
+                editor.endDrag();
+            }
+        }
+        return describe(model).hashCode() != before;
+    }
+
+    private static void connect(GraphEditor editor, double x1, double x2) {
+        editor.pickVertex(x1, 0);
+        editor.pickVertex(x2, 0);
+    }
+
+    // Вершины в плотном порядке с координатами и множество рёбер по номерам вершин
+    private static String describe(GraphModel model) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < model.vertexCount(); i++) {
+            int v = model.vertexAt(i);
+            text.append(v).append('@').append(model.x(v)).append(',').append(model.y(v))
+                    .append('/').append(model.radius(v)).append(' ');
+        }
+        TreeSet<String> edges = new TreeSet<>();
+        for (int i = 0; i < model.edgeCount(); i++) {
+            int e = model.edgeAt(i);
+            int a = Math.min(model.edgeStart(e), model.edgeEnd(e)), b = Math.max(model.edgeStart(e), model.edgeEnd(e));
+            edges.add(a + "-" + b + ":" + model.edgeColor(e) + "/" + model.edgeWidth(e));
+        }
+        return text.append(edges).toString();
+    }
+}
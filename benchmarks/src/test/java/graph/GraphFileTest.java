@@ -0,0 +1,110 @@
+package graph;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// Сохранение и загрузка двоичного файла графа, чтение файлов версии 1 и отказ на повреждённых файлах
+class GraphFileTest {
+
+    @Test
+    void saveAndLoadRoundTrip(@TempDir Path directory) throws IOException {
+        Random random = new Random(51);
+        GraphModel model = new GraphModel();
+        for (int i = 0; i < 40; i++) {
+            model.addVertex(random.nextDouble() * 500, random.nextDouble() * 500, 5 + random.nextInt(10));
+        }
+        for (int i = 0; i < 120; i++) {
+            int a = model.vertexAt(random.nextInt(40)), b = model.vertexAt(random.nextInt(40));
+            if (a != b && model.findEdge(a, b) < 0) model.addEdge(a, b, random.nextInt(), 1 + random.nextInt(4));
+        }
+        // Удаление перемешивает плотный порядок и оставляет дыры в номерах
+        model.removeVertex(model.vertexAt(3));
+        model.removeEdge(model.edgeAt(0));
+
+        Path file = directory.resolve("graph" + GraphFile.EXTENSION);
+        GraphFile.save(model, file);
+        assertEquals(describe(model), describe(GraphFile.load(file)));
+    }
+
+    @Test
+    void versionOneHasUnitWidth(@TempDir Path directory) throws IOException {
+        ByteBuffer buffer = header(1, 3, 2, 3 * 24 + 2 * 12);
+        buffer.putDouble(0).putDouble(0).putDouble(10);
+        buffer.putDouble(40).putDouble(0).putDouble(10);
+        buffer.putDouble(0).putDouble(40).putDouble(7);
+        buffer.putInt(0).putInt(1).putInt(0xFF112233);
+        buffer.putInt(2).putInt(1).putInt(0xFF445566);
+        GraphModel model = GraphFile.load(write(directory, buffer));
+
+        assertEquals("0@0.0,0.0/10.0 1@40.0,0.0/10.0 2@0.0,40.0/7.0 [0-1:" + 0xFF112233 + "/1.0, 1-2:" + 0xFF445566 + "/1.0]",
+                describe(model));
+    }
+
+    @Test
+    void badFilesAreRejected(@TempDir Path directory) throws IOException {
+        Path tooShort = directory.resolve("short.graph");
+        Files.write(tooShort, new byte[8]);
+        assertThrows(IOException.class, () -> GraphFile.load(tooShort));
+
+        ByteBuffer wrongMagic = ByteBuffer.allocate(16).order(ByteOrder.LITTLE_ENDIAN).putInt(0x12345678).putInt(2);
+        assertThrows(IOException.class, () -> GraphFile.load(write(directory, wrongMagic)));
+
+        assertThrows(IOException.class, () -> GraphFile.load(write(directory, header(3, 0, 0, 0))));
+
+        ByteBuffer truncated = header(2, 2, 1, 48); // Ребро объявлено, но его байтов нет
+        truncated.putDouble(0).putDouble(0).putDouble(10);
+        truncated.putDouble(1).putDouble(1).putDouble(10);
+        assertThrows(IOException.class, () -> GraphFile.load(write(directory, truncated)));
+
+        ByteBuffer badEdge = header(2, 2, 1, 48 + 20);
+        badEdge.putDouble(0).putDouble(0).putDouble(10);
+        badEdge.putDouble(1).putDouble(1).putDouble(10);
+        badEdge.putInt(0).putInt(2).putInt(0).putDouble(1);
+        assertThrows(IOException.class, () -> GraphFile.load(write(directory, badEdge)));
+
+        ByteBuffer loop = header(2, 2, 1, 48 + 20);
+        loop.putDouble(0).putDouble(0).putDouble(10);
+        loop.putDouble(1).putDouble(1).putDouble(10);
+        loop.putInt(1).putInt(1).putInt(0).putDouble(1);
+        assertThrows(IOException.class, () -> GraphFile.load(write(directory, loop)));
+    }
+
+    private static ByteBuffer header(int version, int n, int m, int bodyBytes) {
+        return ByteBuffer.allocate(16 + bodyBytes).order(ByteOrder.LITTLE_ENDIAN)
+                .putInt(0x47545247).putInt(version).putInt(n).putInt(m);
+    }
+
+    private static Path write(Path directory, ByteBuffer buffer) throws IOException {
+        Path file = Files.createTempFile(directory, "test", GraphFile.EXTENSION);
+        Files.write(file, buffer.array());
+        return file;
+    }
+
+    // Вершины в плотном порядке и множество рёбер по плотным номерам концов
+    private static String describe(GraphModel model) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < model.vertexCount(); i++) {
+            int v = model.vertexAt(i);
+            text.append(i).append('@').append(model.x(v)).append(',').append(model.y(v))
+                    .append('/').append(model.radius(v)).append(' ');
+        }
+        TreeSet<String> edges = new TreeSet<>();
+        for (int i = 0; i < model.edgeCount(); i++) {
+            int e = model.edgeAt(i);
+            int a = model.indexOf(model.edgeStart(e)), b = model.indexOf(model.edgeEnd(e));
+            edges.add(Math.min(a, b) + "-" + Math.max(a, b) + ":" + model.edgeColor(e) + "/" + model.edgeWidth(e));
+        }
+        return text.append(edges).toString();
+    }
+}
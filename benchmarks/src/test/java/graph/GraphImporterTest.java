@@ -0,0 +1,88 @@
+package graph;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// Импорт списка рёбер и DIMACS: сжатие номеров вершин, отбрасывание петель и повторов, ошибки формата
+class GraphImporterTest {
+
+    // Номер 2_000_000_000 не должен приводить к массиву на два миллиарда элементов
+    @Test
+    void sparseIdsAreCompacted(@TempDir Path directory) throws IOException {
+        GraphModel model = GraphImporter.readEdgeList(write(directory, """
+                # номера вершин идут с большими пропусками
+                5 2000000000
+                2000000000 7 0.5
+                % петля и повтор отбрасываются
+                5 5
+                2000000000 5
+                7 5
+                """));
+        assertEquals(3, model.vertexCount());
+        assertEquals("[0-1, 0-2, 1-2]", edges(model)); // 5 -> 0, 7 -> 1, 2000000000 -> 2
+    }
+
+    @Test
+    void denseIdsKeepOrder(@TempDir Path directory) throws IOException {
+        GraphModel model = GraphImporter.readEdgeList(write(directory, "0 1\n1 2\n2 0\n4 3\n3 5\n5 4\n"));
+        assertEquals(6, model.vertexCount());
+        assertEquals("[0-1, 0-2, 1-2, 3-4, 3-5, 4-5]", edges(model));
+    }
+
+    @Test
+    void badEdgeListIsRejected(@TempDir Path directory) throws IOException {
+        Path oneColumn = write(directory, "1 2\n3\n");
+        assertThrows(IOException.class, () -> GraphImporter.readEdgeList(oneColumn));
+        Path word = write(directory, "1 x\n");
+        assertThrows(IOException.class, () -> GraphImporter.readEdgeList(word));
+        Path tooLarge = write(directory, "1 2147483648\n");
+        assertThrows(IOException.class, () -> GraphImporter.readEdgeList(tooLarge));
+    }
+
+    @Test
+    void dimacsKeepsIsolatedVertices(@TempDir Path directory) throws IOException {
+        GraphModel model = GraphImporter.readDimacs(write(directory, """
+                c треугольник и отдельная вершина
+                p edge 4 4
+                e 1 2
+                e 2 3
+                e 3 1
+                e 2 1
+                """));
+        assertEquals(4, model.vertexCount());
+        assertEquals("[0-1, 0-2, 1-2]", edges(model));
+    }
+
+    @Test
+    void badDimacsIsRejected(@TempDir Path directory) throws IOException {
+        Path noHeader = write(directory, "c нет заголовка\n");
+        assertThrows(IOException.class, () -> GraphImporter.readDimacs(noHeader));
+        Path edgeFirst = write(directory, "e 1 2\np edge 2 1\n");
+        assertThrows(IOException.class, () -> GraphImporter.readDimacs(edgeFirst));
+        Path outOfRange = write(directory, "p edge 3 1\ne 1 4\n");
+        assertThrows(IOException.class, () -> GraphImporter.readDimacs(outOfRange));
+    }
+
+    private static Path write(Path directory, String text) throws IOException {
+        return Files.writeString(Files.createTempFile(directory, "graph", ".txt"), text);
+    }
+
+    // Рёбра по плотным номерам концов
+    private static String edges(GraphModel model) {
+        TreeSet<String> edges = new TreeSet<>();
+        for (int i = 0; i < model.edgeCount(); i++) {
+            int e = model.edgeAt(i);
+            int a = model.indexOf(model.edgeStart(e)), b = model.indexOf(model.edgeEnd(e));
+            edges.add(Math.min(a, b) + "-" + Math.max(a, b));
+        }
+        return edges.toString();
+    }
+}
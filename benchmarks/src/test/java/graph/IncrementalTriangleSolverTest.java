@@ -0,0 +1,134 @@
+package graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Разбиение, восстановленное после правки графа, сравнивается с полным перебором; номера вершин
+// в сохранённом разбиении меняются так же, как плотный порядок модели при удалении и возврате вершины
+class IncrementalTriangleSolverTest {
+
+    // Базовый решатель, запоминающий размеры графов, которые ему передали
+    private static final class RecordingSolver implements TrianglePartitionSolver {
+        final List<Integer> sizes = new ArrayList<>();
+
+        @Override
+        public List<int[]> solve(BitAdjacencyMatrix graph, SearchControl control) {
+            sizes.add(graph.size());
+            return new DancingLinksSolver().solve(graph, control);
+        }
+    }
+
+    @Test
+    void edgeEditsAgreeWithBruteForce() {
+        Random random = new Random(61);
+        for (int round = 0; round < 40; round++) {
+            IncrementalTriangleSolver solver = new IncrementalTriangleSolver(new DancingLinksSolver());
+            int n = 3 * (2 + random.nextInt(4));
+            BitAdjacencyMatrix graph = TestGraphs.planted(n, n, random);
+            for (int step = 0; step < 30; step++) {
+                check(graph, solver.solve(graph));
+                int a = random.nextInt(n), b = random.nextInt(n);
+                if (a == b) continue;
+                if (graph.hasEdge(a, b)) graph.removeEdge(a, b); else graph.addEdge(a, b);
+            }
+        }
+    }
+
+    @Test
+    void removedAndSwappedVerticesAreRenumbered() {
+        Random random = new Random(62);
+        for (int round = 0; round < 100; round++) {
+            IncrementalTriangleSolver solver = new IncrementalTriangleSolver(new DancingLinksSolver());
+            BitAdjacencyMatrix graph = TestGraphs.planted(15, 20, random);
+            check(graph, solver.solve(graph));
+            for (int k = 0; k < 3; k++) { // Три удаления сохраняют кратность трём
+                int index = random.nextInt(graph.size());
+                graph = withoutVertex(graph, index);
+                solver.vertexRemoved(index, graph.size());
+            }
+            check(graph, solver.solve(graph));
+
+            int index = random.nextInt(graph.size()), last = graph.size() - 1;
+            graph = swapped(graph, index, last);
+            solver.verticesSwapped(index, last);
+            check(graph, solver.solve(graph));
+        }
+    }
+
+    // Удаление ребра внутри найденного разбиения перерешивается на окрестности, а не на всём графе
+    @Test
+    void brokenTriangleIsRepairedLocally() {
+        BitAdjacencyMatrix graph = TestGraphs.planted(90, 60, new Random(63));
+        RecordingSolver base = new RecordingSolver();
+        IncrementalTriangleSolver solver = new IncrementalTriangleSolver(base);
+        List<int[]> first = solver.solve(graph);
+        assertNotNull(first);
+
+        int[] t = first.get(0);
+        graph.removeEdge(t[0], t[1]);
+        base.sizes.clear();
+        check(graph, solver.solve(graph));
+        assertTrue(base.sizes.get(0) < graph.size(), "первый поиск на подграфе из " + base.sizes.get(0) + " вершин");
+    }
+
+    // После удаления всех вершин одного треугольника остальные треугольники, с новыми номерами, остаются разбиением
+    @Test
+    void removingWholeTriangleNeedsNoSearch() {
+        BitAdjacencyMatrix graph = TestGraphs.planted(60, 60, new Random(64));
+        RecordingSolver base = new RecordingSolver();
+        IncrementalTriangleSolver solver = new IncrementalTriangleSolver(base);
+        int[] t = solver.solve(graph).get(0).clone();
+        for (int k = 0; k < 3; k++) {
+            int index = t[k], last = graph.size() - 1;
+            graph = withoutVertex(graph, index);
+            solver.vertexRemoved(index, last);
+            for (int j = k + 1; j < 3; j++) {
+                if (t[j] == last) t[j] = index;
+            }
+        }
+        base.sizes.clear();
+        check(graph, solver.solve(graph));
+        assertEquals(List.of(), base.sizes);
+    }
+
+    // Последняя вершина переезжает на место удалённой, как в плотном порядке GraphModel
+    private static BitAdjacencyMatrix withoutVertex(BitAdjacencyMatrix graph, int index) {
+        int last = graph.size() - 1;
+        BitAdjacencyMatrix result = new BitAdjacencyMatrix(last);
+        for (int i = 0; i <= last; i++) {
+            for (int j = i + 1; j <= last; j++) {
+                if (i == index || j == index || !graph.hasEdge(i, j)) continue;
+                result.addEdge(i == last ? index : i, j == last ? index : j);
+            }
+        }
+        return result;
+    }
+
+    private static BitAdjacencyMatrix swapped(BitAdjacencyMatrix graph, int a, int b) {
+        int n = graph.size();
+        BitAdjacencyMatrix result = new BitAdjacencyMatrix(n);
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                if (graph.hasEdge(i, j)) {
+                    result.addEdge(i == a ? b : i == b ? a : i, j == a ? b : j == b ? a : j);
+                }
+            }
+        }
+        return result;
+    }
+
+    private static void check(BitAdjacencyMatrix graph, List<int[]> triangles) {
+        boolean exists = TestGraphs.countPartitions(graph) > 0;
+        assertEquals(exists, triangles != null, "решение " + (exists ? "есть" : "не существует"));
+        if (triangles != null) {
+            TestGraphs.assertPartition(graph, triangles);
+        }
+    }
+}
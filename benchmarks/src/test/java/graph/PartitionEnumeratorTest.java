@@ -0,0 +1,79 @@
+package graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PartitionEnumeratorTest {
+
+    @Test
+    void countMatchesBruteForce() {
+        Random random = new Random(11);
+        for (int round = 0; round < 300; round++) {
+            BitAdjacencyMatrix graph = TestGraphs.random(3 * (1 + random.nextInt(5)), 0.4 + 0.5 * random.nextDouble(), random);
+            assertEquals(BigInteger.valueOf(TestGraphs.countPartitions(graph)), count(graph));
+        }
+    }
+
+    @Test
+    void countMultipliesOverComponents() {
+        Random random = new Random(12);
+        for (int round = 0; round < 100; round++) {
+            BitAdjacencyMatrix first = TestGraphs.random(3 * (1 + random.nextInt(3)), 0.8, random);
+            BitAdjacencyMatrix second = TestGraphs.random(3 * (1 + random.nextInt(3)), 0.8, random);
+            assertEquals(count(first).multiply(count(second)), count(TestGraphs.union(first, second)));
+        }
+    }
+
+    @Test
+    void completeGraphs() {
+        assertEquals(BigInteger.valueOf(280), count(TestGraphs.complete(9)));
+        assertEquals(BigInteger.valueOf(15400), count(TestGraphs.complete(12)));
+        assertEquals(BigInteger.ZERO, count(TestGraphs.complete(10)));
+    }
+
+    // Цепочка из k полных графов на 6 вершинах, соединённых мостами: одна компонента с 10^k разбиений
+    @Test
+    void countBeyondLongInOneComponent() {
+        int blocks = 20;
+        BitAdjacencyMatrix graph = new BitAdjacencyMatrix(6 * blocks);
+        for (int b = 0; b < blocks; b++) {
+            for (int i = 0; i < 6; i++) {
+                for (int j = i + 1; j < 6; j++) graph.addEdge(6 * b + i, 6 * b + j);
+            }
+            if (b > 0) graph.addEdge(6 * b - 1, 6 * b);
+        }
+        assertEquals(1, graph.components().size());
+        assertEquals(BigInteger.TEN.pow(blocks), count(graph));
+    }
+
+    @Test
+    void iteratorYieldsEachPartitionOnce() {
+        Random random = new Random(13);
+        for (int round = 0; round < 100; round++) {
+            BitAdjacencyMatrix graph = TestGraphs.random(3 * (1 + random.nextInt(4)), 0.7, random);
+            Set<String> seen = new HashSet<>();
+            Iterator<List<int[]>> partitions = new PartitionEnumerator(graph).iterator(new SearchControl());
+            while (partitions.hasNext()) {
+                List<int[]> triangles = partitions.next();
+                TestGraphs.assertPartition(graph, triangles);
+                String key = triangles.stream().map(Arrays::toString).sorted().toList().toString();
+                assertEquals(true, seen.add(key), "разбиение повторилось: " + key);
+            }
+            assertEquals(TestGraphs.countPartitions(graph), seen.size());
+        }
+    }
+
+    private static BigInteger count(BitAdjacencyMatrix graph) {
+        return PartitionEnumerator.count(graph, ForkJoinPool.commonPool(), new SearchControl());
+    }
+}
@@ -0,0 +1,112 @@
+package graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Объединение одинаковых графов в один поиск и сроки запросов
+class SolveServiceTest {
+
+    // Решатель, который ждёт open и только потом ищет; если поиск отменили раньше, отмечает это в cancelled
+    private static final class GateSolver implements TrianglePartitionSolver {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch open = new CountDownLatch(1);
+        final CountDownLatch cancelled = new CountDownLatch(1);
+        final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public List<int[]> solve(BitAdjacencyMatrix graph, SearchControl control) {
+            calls.incrementAndGet();
+            started.countDown();
+            try {
+                while (!open.await(1, TimeUnit.MILLISECONDS)) {
+                    if (control.isCancelled()) {
+                        cancelled.countDown();
+                        return null;
+                    }
+                }
+            } catch (InterruptedException e) {
+                return null;
+            }
+            return new DancingLinksSolver().solve(graph, control);
+        }
+    }
+
+    @Test
+    void identicalGraphsShareOneSearch() throws Exception {
+        GateSolver solver = new GateSolver();
+        try (SolveService service = new SolveService(solver)) {
+            BitAdjacencyMatrix graph = TestGraphs.planted(30, 30, new Random(71));
+            SolveService.Request first = service.submit(graph);
+            BitAdjacencyMatrix copy = TestGraphs.union(graph, new BitAdjacencyMatrix(0)); // Другой объект, тот же граф
+            SolveService.Request second = service.submit(copy);
+            assertFalse(first.isJoined());
+            assertTrue(second.isJoined());
+            assertEquals(1, service.getSolves());
+            assertEquals(1, service.getShared());
+
+            solver.open.countDown();
+            TestGraphs.assertPartition(graph, first.result().get(5, TimeUnit.SECONDS));
+            TestGraphs.assertPartition(graph, second.result().get(5, TimeUnit.SECONDS));
+            assertEquals(1, solver.calls.get());
+        }
+    }
+
+    @Test
+    void deadlineCancelsSearchWithoutWaiters() throws Exception {
+        GateSolver solver = new GateSolver();
+        try (SolveService service = new SolveService(solver)) {
+            SolveService.Request request = service.submit(TestGraphs.planted(30, 30, new Random(72)), Duration.ofMillis(50));
+            ExecutionException failure = assertThrows(ExecutionException.class, () -> request.result().get(5, TimeUnit.SECONDS));
+            assertInstanceOf(TimeoutException.class, failure.getCause());
+            assertTrue(solver.cancelled.await(5, TimeUnit.SECONDS), "поиск без ожидающих запросов отменён");
+            assertEquals(0, service.getInFlight());
+        }
+    }
+
+    // Просрочка одного запроса не отменяет поиск, который ещё ждёт другой запрос
+    @Test
+    void expiredRequestLeavesJoinedOneRunning() throws Exception {
+        GateSolver solver = new GateSolver();
+        try (SolveService service = new SolveService(solver)) {
+            BitAdjacencyMatrix graph = TestGraphs.planted(30, 30, new Random(73));
+            SolveService.Request hurried = service.submit(graph, Duration.ofMillis(50));
+            SolveService.Request patient = service.submit(graph);
+            assertTrue(patient.isJoined());
+            ExecutionException failure = assertThrows(ExecutionException.class, () -> hurried.result().get(5, TimeUnit.SECONDS));
+            assertInstanceOf(TimeoutException.class, failure.getCause());
+
+            solver.open.countDown();
+            TestGraphs.assertPartition(graph, patient.result().get(5, TimeUnit.SECONDS));
+            assertEquals(1, solver.cancelled.getCount());
+        }
+    }
+
+    // Граф, пришедший после завершения поиска, решается заново, а не получает старое будущее
+    @Test
+    void finishedSearchIsNotJoined() throws Exception {
+        GateSolver solver = new GateSolver();
+        solver.open.countDown();
+        try (SolveService service = new SolveService(solver)) {
+            BitAdjacencyMatrix graph = TestGraphs.planted(30, 30, new Random(74));
+            service.submit(graph).result().get(5, TimeUnit.SECONDS);
+            SolveService.Request again = service.submit(graph);
+            assertFalse(again.isJoined());
+            TestGraphs.assertPartition(graph, again.result().get(5, TimeUnit.SECONDS));
+            assertEquals(2, solver.calls.get());
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package graph;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Графы для тестов и ответы полного перебора, с которыми сравниваются решатели
+final class TestGraphs {
+
+    private TestGraphs() { }
+
+    static BitAdjacencyMatrix random(int n, double density, Random random) {
+        BitAdjacencyMatrix graph = new BitAdjacencyMatrix(n);
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                if (random.nextDouble() < density) graph.addEdge(i, j);
+            }
+        }
+        return graph;
+    }
+
+    // Случайные треугольники, покрывающие все вершины, и extra случайных рёбер поверх
+    static BitAdjacencyMatrix planted(int n, int extra, Random random) {
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < n; i++) order.add(i);
+        Collections.shuffle(order, random);
+        BitAdjacencyMatrix graph = new BitAdjacencyMatrix(n);
+        for (int i = 0; i + 2 < n; i += 3) {
+            int a = order.get(i), b = order.get(i + 1), c = order.get(i + 2);
+            graph.addEdge(a, b);
+            graph.addEdge(a, c);
+            graph.addEdge(b, c);
+        }
+        for (int e = 0; e < extra; e++) {
+            int a = random.nextInt(n), b = random.nextInt(n);
+            if (a != b) graph.addEdge(a, b);
+        }
+        return graph;
+    }
+
+    static BitAdjacencyMatrix complete(int n) {
+        BitAdjacencyMatrix graph = new BitAdjacencyMatrix(n);
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) graph.addEdge(i, j);
+        }
+        return graph;
+    }
+
+    // Несвязное объединение графов: номера вершин второго сдвигаются за первым
+    static BitAdjacencyMatrix union(BitAdjacencyMatrix first, BitAdjacencyMatrix second) {
+        int n = first.size();
+        BitAdjacencyMatrix graph = new BitAdjacencyMatrix(n + second.size());
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                if (first.hasEdge(i, j)) graph.addEdge(i, j);
+            }
+        }
+        for (int i = 0; i < second.size(); i++) {
+            for (int j = i + 1; j < second.size(); j++) {
+                if (second.hasEdge(i, j)) graph.addEdge(n + i, n + j);
+            }
+        }
+        return graph;
+    }
+
+    // Число разбиений полным перебором: наименьшая непокрытая вершина выбирает оба соседа
+    static long countPartitions(BitAdjacencyMatrix graph) {
+        if (graph.size() % 3 != 0) return 0;
+        return countFrom(graph, new boolean[graph.size()]);
+    }
+
+    private static long countFrom(BitAdjacencyMatrix graph, boolean[] covered) {
+        int n = graph.size();
+        int v = 0;
+        while (v < n && covered[v]) v++;
+        if (v == n) return 1;
+        long total = 0;
+        covered[v] = true;
+        for (int a = v + 1; a < n; a++) {
+            if (covered[a] || !graph.hasEdge(v, a)) continue;
+            covered[a] = true;
+            for (int b = a + 1; b < n; b++) {
+                if (covered[b] || !graph.hasEdge(v, b) || !graph.hasEdge(a, b)) continue;
+                covered[b] = true;
+                total += countFrom(graph, covered);
+                covered[b] = false;
+            }
+            covered[a] = false;
+        }
+        covered[v] = false;
+        return total;
+    }
+
+    // Треугольники решения покрывают каждую вершину ровно один раз и являются треугольниками графа
+    static void assertPartition(BitAdjacencyMatrix graph, List<int[]> triangles) {
+        boolean[] covered = new boolean[graph.size()];
+        for (int[] t : triangles) {
+            assertEquals(3, t.length);
+            for (int v : t) {
+                assertFalse(covered[v], "вершина " + v + " покрыта дважды");
+                covered[v] = true;
+            }
+            assertTrue(graph.hasEdge(t[0], t[1]) && graph.hasEdge(t[0], t[2]) && graph.hasEdge(t[1], t[2]),
+                    "не треугольник");
+        }
+        assertEquals(graph.size(), 3 * triangles.size());
+    }
+}
@@ -0,0 +1,129 @@
+package graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Счётчики TriangleCoverage, обновляемые по событиям модели, сравниваются с пересчётом с нуля
+class TriangleCoverageTest {
+
+    @Test
+    void incrementalCountsMatchRecount() {
+        Random random = new Random(41);
+        for (int round = 0; round < 30; round++) {
+            GraphModel model = new GraphModel();
+            TriangleCoverage coverage = new TriangleCoverage(model);
+            BitSet changes = new BitSet();
+            for (int step = 0; step < 400; step++) {
+                int n = model.vertexCount();
+                int op = random.nextInt(10);
+                if (op < 2 || n < 2) {
+                    model.addVertex(random.nextDouble(), 0, 1);
+                } else if (op < 6) {
+                    int a = model.vertexAt(random.nextInt(n)), b = model.vertexAt(random.nextInt(n));
+                    if (a != b && model.findEdge(a, b) < 0) model.addEdge(a, b);
+                } else if (op < 8 && model.edgeCount() > 0) {
+                    model.removeEdge(model.edgeAt(random.nextInt(model.edgeCount())));
+                } else if (op == 8) {
+                    int v = model.vertexAt(random.nextInt(n));
+                    GraphModel.EdgeBatch removed = model.removeVertex(v);
+                    if (random.nextBoolean()) { // Отмена удаления, как в редакторе
+                        model.restoreVertex(v, random.nextInt(model.vertexCount() + 1), 0, 0, 1);
+                        model.restoreEdges(removed);
+                    }
+                } else {
+                    model.restore(model.snapshot());
+                }
+                if (random.nextInt(3) == 0) coverage.takeChanges(changes);
+                assertMatchesRecount(model, coverage);
+            }
+        }
+    }
+
+    // Длинный цикл: разрыв ищется дольше предела шагов, и компоненты пересчитываются при следующем запросе
+    @Test
+    void longRingFallsBackToRecount() {
+        int n = 9001;
+        GraphModel model = new GraphModel();
+        TriangleCoverage coverage = new TriangleCoverage(model);
+        for (int i = 0; i < n; i++) model.addVertex(0, 0, 1);
+        for (int i = 0; i < n; i++) model.addEdge(model.vertexAt(i), model.vertexAt((i + 1) % n));
+        assertMatchesRecount(model, coverage);
+        model.removeEdge(model.findEdge(model.vertexAt(0), model.vertexAt(1)));
+        assertMatchesRecount(model, coverage);
+        model.removeEdge(model.findEdge(model.vertexAt(n / 2), model.vertexAt(n / 2 + 1)));
+        assertMatchesRecount(model, coverage);
+    }
+
+    private static void assertMatchesRecount(GraphModel model, TriangleCoverage coverage) {
+        int slots = model.vertexSlots();
+        List<List<Integer>> neighbours = new ArrayList<>();
+        for (int v = 0; v < slots; v++) neighbours.add(new ArrayList<>());
+        for (int i = 0; i < model.edgeCount(); i++) {
+            int e = model.edgeAt(i);
+            neighbours.get(model.edgeStart(e)).add(model.edgeEnd(e));
+            neighbours.get(model.edgeEnd(e)).add(model.edgeStart(e));
+        }
+
+        int[] triangles = new int[slots];
+        long total = 0;
+        for (int i = 0; i < model.edgeCount(); i++) {
+            int e = model.edgeAt(i);
+            int a = model.edgeStart(e), b = model.edgeEnd(e);
+            for (int c : neighbours.get(a)) {
+                // Каждый треугольник считается один раз: от ребра, концы которого меньше третьей вершины
+                if (c > Math.max(a, b) && model.findEdge(b, c) >= 0) {
+                    triangles[a]++;
+                    triangles[b]++;
+                    triangles[c]++;
+                    total++;
+                }
+            }
+        }
+
+        int[] component = new int[slots];
+        Arrays.fill(component, -1);
+        List<Integer> sizes = new ArrayList<>();
+        for (int i = 0; i < model.vertexCount(); i++) {
+            int start = model.vertexAt(i);
+            if (component[start] >= 0) continue;
+            int label = sizes.size(), size = 0;
+            ArrayDeque<Integer> queue = new ArrayDeque<>();
+            queue.add(start);
+            component[start] = label;
+            while (!queue.isEmpty()) {
+                int v = queue.poll();
+                size++;
+                for (int w : neighbours.get(v)) {
+                    if (component[w] < 0) {
+                        component[w] = label;
+                        queue.add(w);
+                    }
+                }
+            }
+            sizes.add(size);
+        }
+
+        assertEquals(total, coverage.getTriangleCount(), "треугольников");
+        int uncovered = 0;
+        for (int i = 0; i < model.vertexCount(); i++) {
+            int v = model.vertexAt(i);
+            int size = sizes.get(component[v]);
+            if (triangles[v] == 0) uncovered++;
+            assertEquals(triangles[v], coverage.trianglesAt(v), "треугольников у вершины " + v);
+            assertEquals(size, coverage.componentSize(v), "размер компоненты вершины " + v);
+            int status = triangles[v] == 0 ? TriangleCoverage.NO_TRIANGLE
+                    : size % 3 != 0 ? TriangleCoverage.BAD_COMPONENT : TriangleCoverage.COVERED;
+            assertEquals(status, coverage.status(v), "состояние вершины " + v);
+        }
+        assertEquals(uncovered, coverage.getUncovered(), "вершин без треугольника");
+        assertEquals(sizes.stream().filter(size -> size % 3 != 0).count(), coverage.getBadComponents(), "плохих компонент");
+    }
+}
@@ -0,0 +1,93 @@
+package graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+// Решатели сравниваются с полным перебором на небольших случайных графах
+class TrianglePartitionSolverTest {
+
+    @Test
+    void dancingLinksAgreesWithBruteForce() {
+        agreesWithBruteForce(new DancingLinksSolver(), 1);
+    }
+
+    @Test
+    void forkJoinAgreesWithBruteForce() {
+        // Малая глубина деления, чтобы и подзадачи, и последовательный перебор работали на малых графах
+        try (ForkJoinTriangleSolver solver = new ForkJoinTriangleSolver(4, 2)) {
+            agreesWithBruteForce(solver, 2);
+        }
+    }
+
+    @Test
+    void kernelizingAgreesWithBruteForce() {
+        agreesWithBruteForce(new KernelizingSolver(new DancingLinksSolver()), 3);
+    }
+
+    @Test
+    void kernelizingSolvesComponentsSeparately() {
+        Random random = new Random(4);
+        KernelizingSolver solver = new KernelizingSolver(new DancingLinksSolver());
+        for (int round = 0; round < 200; round++) {
+            BitAdjacencyMatrix graph = TestGraphs.union(
+                    TestGraphs.random(3 * (1 + random.nextInt(4)), 0.6, random),
+                    TestGraphs.random(3 * (1 + random.nextInt(4)), 0.6, random));
+            check(graph, solver.solve(graph));
+        }
+    }
+
+    @Test
+    void plantedPartitionIsFound() {
+        Random random = new Random(5);
+        try (ForkJoinTriangleSolver forkJoin = new ForkJoinTriangleSolver(4)) {
+            for (TrianglePartitionSolver solver : new TrianglePartitionSolver[]{
+                    new DancingLinksSolver(), forkJoin, new KernelizingSolver(new DancingLinksSolver())}) {
+                for (int n : new int[]{30, 90, 150}) {
+                    BitAdjacencyMatrix graph = TestGraphs.planted(n, 3 * n, random);
+                    List<int[]> triangles = solver.solve(graph);
+                    assertNotNull(triangles, solver.getClass().getSimpleName() + ", n = " + n);
+                    TestGraphs.assertPartition(graph, triangles);
+                }
+            }
+        }
+    }
+
+    @Test
+    void cancelledSearchReturnsNull() {
+        BitAdjacencyMatrix graph = TestGraphs.planted(60, 180, new Random(6));
+        try (ForkJoinTriangleSolver forkJoin = new ForkJoinTriangleSolver(2)) {
+            for (TrianglePartitionSolver solver : new TrianglePartitionSolver[]{
+                    new DancingLinksSolver(), forkJoin, new KernelizingSolver(new DancingLinksSolver())}) {
+                SearchControl control = new SearchControl();
+                control.cancel();
+                assertNull(solver.solve(graph, control), solver.getClass().getSimpleName());
+            }
+        }
+    }
+
+    private static void agreesWithBruteForce(TrianglePartitionSolver solver, long seed) {
+        Random random = new Random(seed);
+        for (int round = 0; round < 500; round++) {
+            int n = 3 * (1 + random.nextInt(5)) + (round % 10 == 0 ? 1 : 0); // Иногда размер не кратен 3
+            check(TestGraphs.random(n, 0.3 + 0.4 * random.nextDouble(), random), solver);
+        }
+    }
+
+    private static void check(BitAdjacencyMatrix graph, TrianglePartitionSolver solver) {
+        check(graph, solver.solve(graph));
+    }
+
+    private static void check(BitAdjacencyMatrix graph, List<int[]> triangles) {
+        boolean exists = TestGraphs.countPartitions(graph) > 0;
+        assertEquals(exists, triangles != null, "решение " + (exists ? "есть" : "не существует"));
+        if (triangles != null) {
+            TestGraphs.assertPartition(graph, triangles);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+
+// Текстовый формат матрицы смежности (как в javaOut.txt): по строке на вершину,
+// значения 0/1 через пробел. Несколько матриц в одном потоке разделяются пустой строкой
+public final class AdjacencyMatrixText {
+
+    private AdjacencyMatrixText() { }
+
+    // Читаем следующую матрицу из потока; null, если поток закончился
+    public static BitAdjacencyMatrix read(BufferedReader reader) throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+            if (line == null) return null;
+        } while (line.isBlank()); // Пропускаем пустые строки между матрицами
+
+        // Размер матрицы определяем по количеству значений в первой строке
+        int n = countValues(line);
+        BitAdjacencyMatrix matrix = new BitAdjacencyMatrix(n);
+        for (int i = 0; i < n; i++) {
+            if (i > 0) {
+                line = reader.readLine();
+                if (line == null || line.isBlank()) {
+                    throw new IOException("Ожидалось " + n + " строк матрицы, прочитано " + i);
+                }
+            }
+            parseRow(line, i, n, matrix);
+        }
+        return matrix;
+    }
+
+    public static void write(BitAdjacencyMatrix matrix, Writer writer) throws IOException {
+        int n = matrix.size();
+        char[] row = new char[2 * n + 1];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                row[2 * j] = matrix.hasEdge(i, j) ? '1' : '0';
+                row[2 * j + 1] = ' ';
+            }
+            row[2 * n] = '\n';
+            writer.write(row);
+        }
+    }
+
+    private static int countValues(String line) {
+        int count = 0;
+        boolean inValue = false;
+        for (int k = 0; k < line.length(); k++) {
+            boolean space = Character.isWhitespace(line.charAt(k));
+            if (!space && !inValue) count++;
+            inValue = !space;
+        }
+        return count;
+    }
+
+    // Разбираем строку посимвольно, без split и Integer.parseInt
+    private static void parseRow(String line, int i, int n, BitAdjacencyMatrix matrix) throws IOException {
+        int j = 0;
+        for (int k = 0; k < line.length(); k++) {
+            char c = line.charAt(k);
+            if (c == '0' || c == '1') {
+                if (j >= n) {
+                    throw new IOException("Строка " + i + ": больше " + n + " значений");
+                }
+                if (c == '1' && j != i) {
+                    matrix.addEdge(i, j);
+                }
+                j++;
+            } else if (!Character.isWhitespace(c)) {
+                throw new IOException("Строка " + i + ": недопустимый символ '" + c + "'");
+            }
+        }
+        if (j != n) {
+            throw new IOException("Строка " + i + ": ожидалось " + n + " значений, прочитано " + j);
+        }
+    }
+}
@@ -0,0 +1,241 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Консольный пакетный решатель без JavaFX. Решает матрицы смежности в формате javaOut.txt
+// из каталога (по одной матрице в файле) или из стандартного ввода (матрицы через пустую строку)
+// через SolveService: каждый граф на виртуальном потоке, не больше N графов одновременно (вместе с упаковками),
+// одинаковые графы решаются один раз. Для каждого графа печатается строка:
+//   имя <TAB> SOLVED|INFEASIBLE|TIMEOUT|ERROR <TAB> время, мс <TAB> треугольники a,b,c;...
+// С параметром --deadline МС граф, не решённый за это время (считая ожидание очереди), получает TIMEOUT.
+// С параметром --pack МС для графов без разбиения за это время ищется наибольший набор
+// непересекающихся треугольников:
+//   имя <TAB> PACKED <TAB> время, мс <TAB> найдено/верхняя граница <TAB> треугольники
+// В конце в stderr выводится сводка: графов в секунду и перцентили времени решения.
+//
+// Использование: java BatchSolver <каталог | -> [--threads N] [--out файл] [--pack МС] [--deadline МС]
+public class BatchSolver {
+    private static final String USAGE =
+            "Использование: java BatchSolver <каталог | -> [--threads N] [--out файл] [--pack МС] [--deadline МС]";
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            usage(null);
+        }
+        String input = args[0];
+        int threads = Runtime.getRuntime().availableProcessors();
+        String outFile = null;
+        long packMillis = 0;
+        Duration deadline = null;
+        for (int k = 1; k < args.length; k += 2) {
+            if (k + 1 == args.length) {
+                usage("Не указано значение параметра " + args[k]);
+            }
+            try {
+                switch (args[k]) {
+                    case "--threads" -> threads = Integer.parseInt(args[k + 1]);
+                    case "--out" -> outFile = args[k + 1];
+                    case "--pack" -> packMillis = Long.parseLong(args[k + 1]);
+                    case "--deadline" -> deadline = Duration.ofMillis(Long.parseLong(args[k + 1]));
+                    default -> usage("Неизвестный параметр: " + args[k]);
+                }
+            } catch (NumberFormatException e) {
+                usage("Неверное значение параметра " + args[k] + ": " + args[k + 1]);
+            }
+        }
+        if (threads < 1) {
+            usage("Число потоков должно быть положительным");
+        }
+
+        Writer out = new BufferedWriter(outFile == null
+                ? new OutputStreamWriter(System.out, StandardCharsets.UTF_8)
+                : Files.newBufferedWriter(Path.of(outFile)));
+        BatchSolver batch = new BatchSolver(threads, out, packMillis, deadline);
+        if (input.equals("-")) {
+            batch.solveStream(new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8)));
+        } else {
+            batch.solveDirectory(Path.of(input));
+        }
+        batch.finish();
+        out.close();
+        System.err.println(batch.summary());
+    }
+
+    private static void usage(String problem) {
+        if (problem != null) System.err.println(problem);
+        System.err.println(USAGE);
+        System.exit(2);
+    }
+
+    private final SolveService service;
+    // Графы и так решаются параллельно, поэтому упаковка ищется в одном потоке - вызывающем, без своего пула -
+    // и занимает одно из разрешений сервиса, как поиск разбиения
+    private final TrianglePackingSolver packer = new TrianglePackingSolver(1);
+    private final long packMillis; // 0 - упаковку не искать
+    private final Duration deadline; // Срок решения одного графа, null - без ограничения
+    private final int maxPending;
+    private final Semaphore pending; // Прочитанные, но ещё не решённые графы
+    private final Writer out;
+    private final List<Long> latencies = new ArrayList<>(); // Время решения каждого графа, нс
+    private final AtomicInteger solved = new AtomicInteger();
+    private final AtomicInteger infeasible = new AtomicInteger();
+    private final AtomicInteger timedOut = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private final long startNanos = System.nanoTime();
+    private long totalNanos;
+
+    public BatchSolver(int threads, Writer out) {
+        this(threads, out, 0, null);
+    }
+
+    public BatchSolver(int threads, Writer out, long packMillis, Duration deadline) {
+        this.out = out;
+        this.packMillis = packMillis;
+        this.deadline = deadline;
+        this.service = new SolveService(new DancingLinksSolver(), threads);
+        // Если решатель не успевает, чтение входа приостанавливается
+        this.maxPending = threads * 4;
+        this.pending = new Semaphore(maxPending);
+    }
+
+    public void solveDirectory(Path directory) throws IOException, InterruptedException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path file : stream) {
+                if (Files.isRegularFile(file)) files.add(file);
+            }
+        }
+        files.sort(null);
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            BitAdjacencyMatrix graph;
+            try (BufferedReader reader = Files.newBufferedReader(file)) {
+                graph = AdjacencyMatrixText.read(reader);
+            } catch (IOException | RuntimeException e) {
+                report(name, "ERROR", 0, e.getMessage());
+                continue;
+            }
+            if (graph == null) {
+                report(name, "ERROR", 0, "Файл не содержит матрицы");
+                continue;
+            }
+            submit(name, graph);
+        }
+    }
+
+    public void solveStream(BufferedReader reader) throws InterruptedException {
+        int index = 0;
+        while (true) {
+            String name = "#" + index++;
+            BitAdjacencyMatrix graph;
+            try {
+                graph = AdjacencyMatrixText.read(reader);
+            } catch (IOException e) {
+                report(name, "ERROR", 0, e.getMessage());
+                break; // После ошибки разбора границы следующих матриц неизвестны
+            }
+            if (graph == null) break;
+            submit(name, graph);
+        }
+    }
+
+    // Отдаём граф сервису; результат обрабатывается на отдельном виртуальном потоке,
+    // потому что просрочка завершает будущее на общем потоке таймеров
+    private void submit(String name, BitAdjacencyMatrix graph) throws InterruptedException {
+        pending.acquire();
+        long start = System.nanoTime();
+        service.submit(graph, deadline).result().whenCompleteAsync((triangles, failure) -> {
+            try {
+                finishOne(name, graph, start, triangles, failure);
+            } finally {
+                pending.release();
+            }
+        }, command -> Thread.ofVirtual().name("batch-result").start(command));
+    }
+
+    private void finishOne(String name, BitAdjacencyMatrix graph, long start, List<int[]> triangles, Throwable failure) {
+        if (failure instanceof TimeoutException) {
+            report(name, "TIMEOUT", System.nanoTime() - start, "");
+            return;
+        }
+        if (failure != null) {
+            report(name, "ERROR", System.nanoTime() - start, String.valueOf(failure.getMessage()));
+            return;
+        }
+        if (triangles == null && packMillis > 0) {
+            TrianglePackingSolver.Packing packing;
+            try {
+                packing = service.runLimited(() -> packer.solve(graph, packMillis, new SearchControl(), null));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                report(name, "ERROR", System.nanoTime() - start, "Упаковка прервана");
+                return;
+            }
+            report(name, "PACKED", System.nanoTime() - start,
+                    packing.size() + "/" + packing.upperBound() + '\t' + format(packing.triangles()));
+            return;
+        }
+        long nanos = System.nanoTime() - start;
+        report(name, triangles != null ? "SOLVED" : "INFEASIBLE", nanos, triangles != null ? format(triangles) : "");
+    }
+
+    private static String format(List<int[]> triangles) {
+        StringBuilder text = new StringBuilder();
+        for (int[] t : triangles) {
+            if (text.length() > 0) text.append(';');
+            text.append(t[0]).append(',').append(t[1]).append(',').append(t[2]);
+        }
+        return text.toString();
+    }
+
+    private synchronized void report(String name, String status, long nanos, String details) {
+        switch (status) {
+            case "SOLVED" -> solved.incrementAndGet();
+            case "INFEASIBLE", "PACKED" -> infeasible.incrementAndGet();
+            case "TIMEOUT" -> timedOut.incrementAndGet();
+            default -> failed.incrementAndGet();
+        }
+        if (!status.equals("ERROR") && !status.equals("TIMEOUT")) latencies.add(nanos);
+        try {
+            out.write(name + '\t' + status + '\t' + String.format(Locale.ROOT, "%.3f", nanos / 1e6) + '\t'
+                    + (details == null ? "" : details) + '\n');
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // Ждём, пока будут обработаны все отданные графы
+    public void finish() throws InterruptedException {
+        pending.acquire(maxPending);
+        pending.release(maxPending);
+        service.close();
+        totalNanos = System.nanoTime() - startNanos;
+    }
+
+    public synchronized String summary() {
+        long[] sorted = latencies.stream().mapToLong(Long::longValue).toArray();
+        Arrays.sort(sorted);
+        int graphs = solved.get() + infeasible.get() + timedOut.get() + failed.get();
+        double seconds = totalNanos / 1e9;
+        return String.format("Графов: %d (решено %d, без решения %d, не успели %d, ошибок %d, повторов %d) за %.3f с, %.1f графов/с%n"
+                        + "Время решения, мс: p50 %.3f, p90 %.3f, p99 %.3f, max %.3f",
+                graphs, solved.get(), infeasible.get(), timedOut.get(), failed.get(), service.getShared(),
+                seconds, seconds > 0 ? graphs / seconds : 0.0,
+                percentile(sorted, 0.50), percentile(sorted, 0.90), percentile(sorted, 0.99), percentile(sorted, 1.0));
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) return 0;
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1e6;
+    }
+}
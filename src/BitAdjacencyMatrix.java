@@ -0,0 +1,221 @@
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+// Матрица смежности неориентированного графа, упакованная в биты:
+// строка каждой вершины хранится в нескольких long, по одному биту на соседа
+public class BitAdjacencyMatrix {
+    private final int size; // Количество вершин
+    private final int words; // Количество long в одной строке
+    private final long[] bits; // Строки матрицы, записанные подряд
+
+    public BitAdjacencyMatrix(int size) {
+        this.size = size;
+        this.words = (size + 63) >>> 6;
+        this.bits = new long[size * words];
+    }
+
+    // Создаём матрицу из списка строк с нулями и единицами (формат javaOut.txt)
+    public static BitAdjacencyMatrix fromRows(List<List<Integer>> rows) {
+        BitAdjacencyMatrix matrix = new BitAdjacencyMatrix(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            List<Integer> row = rows.get(i);
+            for (int j = 0; j < row.size() && j < rows.size(); j++) {
+                if (row.get(j) != 0 && i != j) {
+                    matrix.addEdge(i, j);
+                }
+            }
+        }
+        return matrix;
+    }
+
+    public int size() { return size; }
+    public int wordsPerRow() { return words; }
+
+    public void addEdge(int i, int j) {
+        bits[i * words + (j >>> 6)] |= 1L << j;
+        bits[j * words + (i >>> 6)] |= 1L << i;
+    }
+
+    public void removeEdge(int i, int j) {
+        bits[i * words + (j >>> 6)] &= ~(1L << j);
+        bits[j * words + (i >>> 6)] &= ~(1L << i);
+    }
+
+    public boolean hasEdge(int i, int j) {
+        return (bits[i * words + (j >>> 6)] & (1L << j)) != 0;
+    }
+
+    // Слово w строки вершины i
+    public long word(int i, int w) {
+        return bits[i * words + w];
+    }
+
+    public int degree(int i) {
+        int degree = 0;
+        for (int w = 0, base = i * words; w < words; w++) {
+            degree += Long.bitCount(bits[base + w]);
+        }
+        return degree;
+    }
+
+    // Вызываем action для каждого соседа вершины v в порядке возрастания номеров
+    public void forEachNeighbour(int v, IntConsumer action) {
+        int base = v * words;
+        for (int w = 0; w < words; w++) {
+            for (long word = bits[base + w]; word != 0; word &= word - 1) {
+                action.accept((w << 6) + Long.numberOfTrailingZeros(word));
+            }
+        }
+    }
+
+    // Подграф, порождённый вершинами vertices: вершина vertices[i] получает номер i
+    public BitAdjacencyMatrix induced(int[] vertices) {
+        BitAdjacencyMatrix sub = new BitAdjacencyMatrix(vertices.length);
+        for (int i = 0; i < vertices.length; i++) {
+            for (int j = i + 1; j < vertices.length; j++) {
+                if (hasEdge(vertices[i], vertices[j])) {
+                    sub.addEdge(i, j);
+                }
+            }
+        }
+        return sub;
+    }
+
+    // Компоненты связности графа; вершины каждой компоненты по возрастанию
+    public List<int[]> components() {
+        long[] all = new long[words];
+        for (int v = 0; v < size; v++) all[v >>> 6] |= 1L << v;
+        return components(all);
+    }
+
+    // Компоненты связности подграфа на вершинах из mask (по биту на вершину)
+    public List<int[]> components(long[] mask) {
+        long[] unvisited = mask.clone();
+        List<int[]> components = new ArrayList<>();
+        int[] stack = new int[size];
+        for (int w = 0; w < words; w++) {
+            while (unvisited[w] != 0) {
+                int start = (w << 6) + Long.numberOfTrailingZeros(unvisited[w]);
+                unvisited[w] &= ~(1L << start);
+                long[] member = new long[words];
+                member[start >>> 6] |= 1L << start;
+                int top = 0, size = 1;
+                stack[top++] = start;
+                while (top > 0) {
+                    int v = stack[--top];
+                    // Все непосещённые соседи сразу, пословно
+                    for (int x = 0; x < words; x++) {
+                        long next = bits[v * words + x] & unvisited[x];
+                        if (next == 0) continue;
+                        unvisited[x] &= ~next;
+                        member[x] |= next;
+                        size += Long.bitCount(next);
+                        for (; next != 0; next &= next - 1) {
+                            stack[top++] = (x << 6) + Long.numberOfTrailingZeros(next);
+                        }
+                    }
+                }
+                int[] component = new int[size];
+                int k = 0;
+                for (int x = 0; x < words; x++) {
+                    for (long bits = member[x]; bits != 0; bits &= bits - 1) {
+                        component[k++] = (x << 6) + Long.numberOfTrailingZeros(bits);
+                    }
+                }
+                components.add(component);
+            }
+        }
+        return components;
+    }
+
+    // Количество общих соседей вершин i и j (пересечение строк через AND)
+    public int commonNeighbourCount(int i, int j) {
+        int count = 0;
+        int a = i * words, b = j * words;
+        for (int w = 0; w < words; w++) {
+            count += Long.bitCount(bits[a + w] & bits[b + w]);
+        }
+        return count;
+    }
+
+    // Количество треугольников, в которые входит вершина v
+    public int triangleCount(int v) {
+        int count = 0;
+        int base = v * words;
+        for (int w = 0; w < words; w++) {
+            for (long word = bits[base + w]; word != 0; word &= word - 1) {
+                int u = (w << 6) + Long.numberOfTrailingZeros(word);
+                count += commonNeighbourCount(v, u);
+            }
+        }
+        return count / 2; // Каждый треугольник посчитан через обоих соседей
+    }
+
+    // Проверяем, что вершина v входит хотя бы в один треугольник
+    public boolean inAnyTriangle(int v) {
+        int base = v * words;
+        for (int w = 0; w < words; w++) {
+            for (long word = bits[base + w]; word != 0; word &= word - 1) {
+                int u = (w << 6) + Long.numberOfTrailingZeros(word);
+                if (commonNeighbourCount(v, u) > 0) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // Отпечаток графа: SHA-256 от количества вершин и строк матрицы. Одинаковые наборы рёбер
+    // дают одинаковый отпечаток независимо от порядка, в котором рёбра добавлялись
+    public String fingerprint() {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            ByteBuffer buffer = ByteBuffer.allocate(8 * 1024);
+            buffer.putInt(size);
+            for (long word : bits) {
+                if (!buffer.hasRemaining()) {
+                    buffer.flip();
+                    digest.update(buffer);
+                    buffer.clear();
+                }
+                buffer.putLong(word);
+            }
+            buffer.flip();
+            digest.update(buffer);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // SHA-256 есть в любой JVM
+        }
+    }
+
+    // Перебираем все треугольники графа {i, j, k}, i < j < k.
+    // Третья вершина ищется пересечением строк i и j, начиная с бита j + 1
+    public List<int[]> triangles() {
+        List<int[]> triangles = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            int a = i * words;
+            for (int wj = (i + 1) >>> 6; wj < words; wj++) {
+                long neighbours = bits[a + wj];
+                if (wj == (i + 1) >>> 6) neighbours &= -1L << (i + 1);
+                for (; neighbours != 0; neighbours &= neighbours - 1) {
+                    int j = (wj << 6) + Long.numberOfTrailingZeros(neighbours);
+                    int b = j * words;
+                    for (int wk = (j + 1) >>> 6; wk < words; wk++) {
+                        long common = bits[a + wk] & bits[b + wk];
+                        if (wk == (j + 1) >>> 6) common &= -1L << (j + 1);
+                        for (; common != 0; common &= common - 1) {
+                            int k = (wk << 6) + Long.numberOfTrailingZeros(common);
+                            triangles.add(new int[]{i, j, k});
+                        }
+                    }
+                }
+            }
+        }
+        return triangles;
+    }
+}
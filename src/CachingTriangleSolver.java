@@ -0,0 +1,118 @@
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Кэш решений по отпечатку графа (BitAdjacencyMatrix.fingerprint). Хранит до maxEntries
+// последних использованных результатов, включая ответ "разбиения нет", и может сохраняться в фаил
+// между запусками программы. Повторный поиск на том же графе возвращает готовый ответ сразу
+public class CachingTriangleSolver implements TrianglePartitionSolver {
+    private static final int FILE_MAGIC = 0x47534C43; // "GSLC", не совпадает с записью действий EditTrace
+    private static final List<int[]> NO_SOLUTION = Collections.unmodifiableList(new ArrayList<>()); // Запись для графа без разбиения
+
+    private final TrianglePartitionSolver base;
+    private final Map<String, List<int[]>> cache; // Упорядочен по последнему обращению (LRU)
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public CachingTriangleSolver(TrianglePartitionSolver base, int maxEntries) {
+        this.base = base;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, List<int[]>> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public TrianglePartitionSolver getBase() {
+        return base;
+    }
+
+    @Override
+    public List<int[]> solve(BitAdjacencyMatrix graph, SearchControl control) {
+        String key = graph.fingerprint();
+        List<int[]> cached;
+        synchronized (cache) {
+            cached = cache.get(key);
+        }
+        if (cached != null) {
+            hits.incrementAndGet();
+            return cached == NO_SOLUTION ? null : cached;
+        }
+
+        misses.incrementAndGet();
+        // Сбой решателя (например, процесса SolverWorkerClient) приходит исключением и не кэшируется:
+        // в кэш и в файл попадает только окончательный ответ - разбиение или "разбиения нет"
+        List<int[]> result = base.solve(graph, control);
+        if (!control.isCancelled()) { // Результат отменённого поиска ничего не говорит о графе
+            synchronized (cache) {
+                cache.put(key, result == null ? NO_SOLUTION : result);
+            }
+        }
+        return result;
+    }
+
+    public long getHits() { return hits.get(); }
+    public long getMisses() { return misses.get(); }
+
+    public int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    // Загружаем кэш из файла; отсутствующий или повреждённый фаил просто игнорируется
+    public void load(Path file) {
+        if (!Files.exists(file)) return;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != FILE_MAGIC) return;
+            int entries = in.readInt();
+            synchronized (cache) {
+                for (int e = 0; e < entries; e++) {
+                    String key = in.readUTF();
+                    int count = in.readInt();
+                    List<int[]> triangles = count < 0 ? NO_SOLUTION : new ArrayList<>(count);
+                    for (int t = 0; t < count; t++) {
+                        triangles.add(new int[]{in.readInt(), in.readInt(), in.readInt()});
+                    }
+                    cache.put(key, triangles);
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // Сохраняем кэш в фаил (от самых старых записей к самым свежим)
+    public void save(Path file) {
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+                synchronized (cache) {
+                    out.writeInt(FILE_MAGIC);
+                    out.writeInt(cache.size());
+                    for (Map.Entry<String, List<int[]>> entry : cache.entrySet()) {
+                        out.writeUTF(entry.getKey());
+                        List<int[]> triangles = entry.getValue();
+                        out.writeInt(triangles == NO_SOLUTION ? -1 : triangles.size());
+                        for (int[] t : triangles) {
+                            out.writeInt(t[0]);
+                            out.writeInt(t[1]);
+                            out.writeInt(t[2]);
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,170 @@
+import javafx.animation.AnimationTimer;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+
+import java.util.BitSet;
+
+// Отрисовка большого графа на одном холсте вместо тысяч узлов Circle и Line в сцене.
+// Координаты и цвета берутся прямо из массивов GraphModel. Изменения копятся
+// в "грязном" прямоугольнике и перерисовываются не чаще одного раза за кадр; рисуются
+// только элементы, пересекающие этот прямоугольник и видимую область
+public class CanvasGraphRenderer {
+    private static final Color SELECTION = Color.DODGERBLUE;
+    private static final double SELECTION_WIDTH = 3;
+
+    private final Pane host; // Панель, на которой лежит холст
+    private final Canvas canvas = new Canvas();
+    private final GraphModel model;
+    private final BitSet highlighted; // Выделенные вершины рисуются с обводкой
+    private TriangleCoverage coverage = null; // Заливка вершин по проверке покрытия, если включена
+    private boolean active = false;
+
+    // Границы области, требующей перерисовки
+    private boolean dirty = false;
+    private double dirtyMinX, dirtyMinY, dirtyMaxX, dirtyMaxY;
+
+    private final AnimationTimer timer = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            if (dirty) {
+                redraw();
+            }
+        }
+    };
+
+    public CanvasGraphRenderer(Pane host, GraphModel model, BitSet highlighted) {
+        this.host = host;
+        this.model = model;
+        this.highlighted = highlighted;
+        canvas.setMouseTransparent(true); // События мыши обрабатывает панель
+        canvas.widthProperty().bind(host.widthProperty());
+        canvas.heightProperty().bind(host.heightProperty());
+        canvas.widthProperty().addListener((obs, oldValue, newValue) -> markAllDirty());
+        canvas.heightProperty().addListener((obs, oldValue, newValue) -> markAllDirty());
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    // Включаем режим холста: убираем узлы графа из сцены и рисуем всё сами
+    public void activate() {
+        if (active) return;
+        active = true;
+        host.getChildren().setAll(canvas);
+        timer.start();
+        markAllDirty();
+    }
+
+    // Убираем холст; узлы сцены создаёт GraphView
+    public void deactivate() {
+        if (!active) return;
+        active = false;
+        timer.stop();
+        host.getChildren().remove(canvas);
+    }
+
+    public void setCoverage(TriangleCoverage coverage) {
+        this.coverage = coverage;
+    }
+
+    // Вершина вместе с её рёбрами
+    public void markVertex(int vertex) {
+        markCircle(model.x(vertex), model.y(vertex), model.radius(vertex));
+        for (int h = model.firstIncidence(vertex); h >= 0; h = model.nextIncidence(h)) {
+            markEdge(GraphModel.incidenceEdge(h));
+        }
+    }
+
+    public void markEdge(int edge) {
+        int a = model.edgeStart(edge), b = model.edgeEnd(edge);
+        markSegment(model.x(a), model.y(a), model.x(b), model.y(b), model.edgeWidth(edge));
+    }
+
+    // Круг с учётом обводки выделения
+    public void markCircle(double x, double y, double r) {
+        double outer = r + SELECTION_WIDTH / 2;
+        markDirty(x - outer, y - outer, x + outer, y + outer);
+    }
+
+    public void markSegment(double x1, double y1, double x2, double y2, double lineWidth) {
+        double half = lineWidth / 2;
+        markDirty(Math.min(x1, x2) - half, Math.min(y1, y2) - half, Math.max(x1, x2) + half, Math.max(y1, y2) + half);
+    }
+
+    public void markDirty(double minX, double minY, double maxX, double maxY) {
+        if (!active) return;
+        // Расширяем на пиксель из-за сглаживания краёв
+        minX -= 1; minY -= 1; maxX += 1; maxY += 1;
+        if (!dirty) {
+            dirty = true;
+            dirtyMinX = minX; dirtyMinY = minY; dirtyMaxX = maxX; dirtyMaxY = maxY;
+        } else {
+            dirtyMinX = Math.min(dirtyMinX, minX);
+            dirtyMinY = Math.min(dirtyMinY, minY);
+            dirtyMaxX = Math.max(dirtyMaxX, maxX);
+            dirtyMaxY = Math.max(dirtyMaxY, maxY);
+        }
+    }
+
+    public void markAllDirty() {
+        markDirty(0, 0, canvas.getWidth(), canvas.getHeight());
+    }
+
+    private void redraw() {
+        dirty = false;
+        // Пересекаем грязную область с видимой частью холста
+        double minX = Math.max(dirtyMinX, 0), minY = Math.max(dirtyMinY, 0);
+        double maxX = Math.min(dirtyMaxX, canvas.getWidth()), maxY = Math.min(dirtyMaxY, canvas.getHeight());
+        if (minX >= maxX || minY >= maxY) return;
+
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        gc.save();
+        gc.beginPath();
+        gc.rect(minX, minY, maxX - minX, maxY - minY);
+        gc.clip();
+        gc.clearRect(minX, minY, maxX - minX, maxY - minY);
+
+        for (int i = 0; i < model.edgeCount(); i++) {
+            int e = model.edgeAt(i);
+            int a = model.edgeStart(e), b = model.edgeEnd(e);
+            double half = model.edgeWidth(e) / 2;
+            double x1 = model.x(a), y1 = model.y(a), x2 = model.x(b), y2 = model.y(b);
+            if (Math.max(x1, x2) + half < minX || Math.min(x1, x2) - half > maxX
+                    || Math.max(y1, y2) + half < minY || Math.min(y1, y2) - half > maxY) {
+                continue; // Ребро целиком вне области
+            }
+            gc.setStroke(GraphView.color(model.edgeColor(e)));
+            gc.setLineWidth(model.edgeWidth(e));
+            gc.strokeLine(x1, y1, x2, y2);
+        }
+
+        Color fill = Color.BLACK;
+        gc.setFill(fill);
+        for (int i = 0; i < model.vertexCount(); i++) {
+            int v = model.vertexAt(i);
+            double x = model.x(v), y = model.y(v), r = model.radius(v);
+            boolean selected = highlighted.get(v);
+            double outer = selected ? r + SELECTION_WIDTH / 2 : r;
+            if (x + outer < minX || x - outer > maxX || y + outer < minY || y - outer > maxY) {
+                continue; // Вершина вне области
+            }
+            if (coverage != null) {
+                Color vertexFill = GraphView.coverageFill(coverage, v);
+                if (vertexFill != fill) {
+                    fill = vertexFill;
+                    gc.setFill(fill);
+                }
+            }
+            gc.fillOval(x - r, y - r, 2 * r, 2 * r);
+            if (selected) { // Обводка выделенной вершины
+                gc.setStroke(SELECTION);
+                gc.setLineWidth(SELECTION_WIDTH);
+                gc.strokeOval(x - r, y - r, 2 * r, 2 * r);
+            }
+        }
+        gc.restore();
+    }
+}
@@ -0,0 +1,141 @@
+import java.util.ArrayList;
+import java.util.List;
+
+// Точный решатель внутри JVM: задача сводится к точному покрытию (exact cover),
+// где столбцы - вершины графа, а строки - треугольники графа. Покрытие ищется алгоритмом X
+// Кнута на танцующих ссылках (Dancing Links)
+public class DancingLinksSolver implements TrianglePartitionSolver {
+
+    @Override
+    public List<int[]> solve(BitAdjacencyMatrix graph, SearchControl control) {
+        int n = graph.size();
+        if (n % 3 != 0) {
+            return null; // Разбиение на треугольники невозможно
+        }
+
+        List<int[]> candidates = graph.triangles();
+        Links links = new Links(n, candidates, control);
+        int[] chosen = new int[n / 3];
+        boolean found = links.search(0, chosen);
+        control.addNodes(links.nodes);
+        if (!found || control.isCancelled()) {
+            return null;
+        }
+
+        List<int[]> result = new ArrayList<>(chosen.length);
+        for (int row : chosen) {
+            result.add(candidates.get(row));
+        }
+        return result;
+    }
+
+    // Структура танцующих ссылок: узел 0 - корень, узлы 1..n - заголовки столбцов,
+    // далее по три узла на каждый треугольник
+    private static class Links {
+        private static final int FLUSH_NODES = 1024; // Как часто сбрасываем счётчик узлов и проверяем отмену
+
+        private final int[] left, right, up, down, column, row;
+        private final int[] size; // Количество строк в каждом столбце
+        private final SearchControl control;
+        private long nodes; // Узлы, ещё не переданные в общий счётчик
+
+        Links(int columns, List<int[]> rows, SearchControl control) {
+            this.control = control;
+            int nodes = 1 + columns + rows.size() * 3;
+            left = new int[nodes];
+            right = new int[nodes];
+            up = new int[nodes];
+            down = new int[nodes];
+            column = new int[nodes];
+            row = new int[nodes];
+            size = new int[columns + 1];
+
+            // Заголовки столбцов в кольцевом списке вместе с корнем
+            for (int c = 0; c <= columns; c++) {
+                left[c] = c == 0 ? columns : c - 1;
+                right[c] = c == columns ? 0 : c + 1;
+                up[c] = c;
+                down[c] = c;
+                column[c] = c;
+            }
+
+            int node = columns + 1;
+            for (int r = 0; r < rows.size(); r++) {
+                int first = node;
+                for (int vertex : rows.get(r)) {
+                    int c = vertex + 1;
+                    column[node] = c;
+                    row[node] = r;
+                    // Вставляем узел в конец столбца
+                    up[node] = up[c];
+                    down[node] = c;
+                    down[up[c]] = node;
+                    up[c] = node;
+                    size[c]++;
+                    // Связываем узлы строки в кольцо
+                    left[node] = node == first ? node : node - 1;
+                    right[node] = first;
+                    right[left[node]] = node;
+                    left[first] = node;
+                    node++;
+                }
+            }
+        }
+
+        boolean search(int depth, int[] chosen) {
+            if (right[0] == 0) {
+                return true; // Все вершины покрыты
+            }
+            if (++nodes >= FLUSH_NODES) {
+                control.addNodes(nodes);
+                nodes = 0;
+                if (control.isCancelled()) return true; // Выходим из перебора
+            }
+
+            // Выбираем столбец с наименьшим числом вариантов
+            int best = right[0];
+            for (int c = right[best]; c != 0; c = right[c]) {
+                if (size[c] < size[best]) best = c;
+            }
+            if (size[best] == 0) {
+                return false; // Вершину нечем покрыть
+            }
+
+            cover(best);
+            for (int r = down[best]; r != best; r = down[r]) {
+                chosen[depth] = row[r];
+                for (int j = right[r]; j != r; j = right[j]) cover(column[j]);
+                if (search(depth + 1, chosen)) {
+                    return true;
+                }
+                for (int j = left[r]; j != r; j = left[j]) uncover(column[j]);
+            }
+            uncover(best);
+            return false;
+        }
+
+        private void cover(int c) {
+            right[left[c]] = right[c];
+            left[right[c]] = left[c];
+            for (int i = down[c]; i != c; i = down[i]) {
+                for (int j = right[i]; j != i; j = right[j]) {
+                    down[up[j]] = down[j];
+                    up[down[j]] = up[j];
+                    size[column[j]]--;
+                }
+            }
+        }
+
+        private void uncover(int c) {
+            for (int i = up[c]; i != c; i = up[i]) {
+                for (int j = left[i]; j != i; j = left[j]) {
+                    size[column[j]]++;
+                    down[up[j]] = j;
+                    up[down[j]] = j;
+                }
+            }
+            right[left[c]] = c;
+            left[right[c]] = c;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+// История действий из изменений (GraphEdit). Суммарный объём записей ограничен maxBytes:
+// при превышении забываются самые старые действия
+public class EditHistory {
+    private final Deque<GraphEdit> undoStack = new ArrayDeque<>(); // Стэк для отмены действий
+    private final Deque<GraphEdit> redoStack = new ArrayDeque<>(); // Стэк для возврата отменённых действий
+    private final long maxBytes;
+    private long bytes = 0; // Текущий объём обоих стэков
+
+    public EditHistory(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    // Запоминаем уже выполненное действие
+    public void record(GraphEdit edit) {
+        for (GraphEdit undone : redoStack) {
+            bytes -= undone.estimatedBytes();
+        }
+        redoStack.clear();
+        undoStack.push(edit);
+        bytes += edit.estimatedBytes();
+        while (bytes > maxBytes && undoStack.size() > 1) {
+            bytes -= undoStack.removeLast().estimatedBytes();
+        }
+    }
+
+    public boolean undo() {
+        if (undoStack.isEmpty()) return false;
+        GraphEdit edit = undoStack.pop();
+        edit.undo();
+        redoStack.push(edit);
+        return true;
+    }
+
+    public boolean redo() {
+        if (redoStack.isEmpty()) return false;
+        GraphEdit edit = redoStack.pop();
+        edit.redo();
+        undoStack.push(edit);
+        return true;
+    }
+
+    public void clear() {
+        undoStack.clear();
+        redoStack.clear();
+        bytes = 0;
+    }
+
+    public long getBytes() { return bytes; }
+    public long getMaxBytes() { return maxBytes; }
+    public int getUndoCount() { return undoStack.size(); }
+    public int getRedoCount() { return redoStack.size(); }
+}
@@ -0,0 +1,229 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+// Запись действий редактора в компактный двоичный файл (*.gtrace) и её чтение для TraceReplay.
+// Файл: "GEDT", версия, затем записи: байт действия и его данные (big-endian, DataOutputStream).
+// Первая запись - LOAD со снимком графа, поэтому номера вершин при воспроизведении совпадают с записанными.
+// Пишутся действия пользователя с координатами мыши: поиск вершины под курсором повторяется при воспроизведении
+public final class EditTrace {
+    public static final String EXTENSION = ".gtrace";
+    private static final int MAGIC = 0x47454454; // "GEDT", не совпадает с другими файлами программы (*.graph, кэш решений)
+    private static final int VERSION = 1;
+
+    public enum Op {
+        LOAD, // Граф заменён: размер новых вершин values[0] и точный снимок модели (GraphModel.write)
+        ADD_VERTEX, // Левый клик: x, y
+        DELETE_VERTEX, // Правый клик: x, y
+        PICK_VERTEX, // Средний клик (выбор конца ребра): x, y
+        DRAG_BEGIN, // Нажатие на вершине: x, y, перетаскиваемые вершины
+        DRAG_MOVE, // Положение мыши в очередном кадре: x, y
+        DRAG_END,
+        PLACE, // Вершины расставлены (раскладка): вершины, положения x, y подряд
+        VERTEX_SIZE, // Новый размер вершин: values[0]
+        CLEAR,
+        UNDO,
+        REDO,
+        SOLVE, // Снимок матрицы смежности для поиска решения
+        APPLY_TRIANGLES // Решение применено: тройки плотных номеров, flag - удалить остальные рёбра
+    }
+
+    // Одна запись. Незаполненные поля - 0, null или false
+    public record Entry(Op op, double x, double y, int[] vertices, double[] values, boolean flag, GraphModel graph) {
+    }
+
+    private EditTrace() {
+    }
+
+    // Запись идёт из потока JavaFX; ошибка ввода-вывода не мешает редактированию:
+    // запись прекращается, а ошибку можно узнать при закрытии
+    public static final class Recorder implements Closeable {
+        private final DataOutputStream out;
+        private IOException error = null;
+        private long entries = 0;
+
+        public Recorder(Path path) throws IOException {
+            out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), 1 << 16));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+        }
+
+        public long getEntries() { return entries; }
+
+        public void load(GraphModel model, double vertexSize) {
+            write(Op.LOAD, () -> {
+                out.writeDouble(vertexSize);
+                model.write(out);
+            });
+        }
+
+        public void point(Op op, double x, double y) {
+            write(op, () -> {
+                out.writeDouble(x);
+                out.writeDouble(y);
+            });
+        }
+
+        public void dragBegin(double x, double y, int[] vertices) {
+            write(Op.DRAG_BEGIN, () -> {
+                out.writeDouble(x);
+                out.writeDouble(y);
+                writeInts(vertices);
+            });
+        }
+
+        public void place(int[] vertices, double[] positions) {
+            write(Op.PLACE, () -> {
+                writeInts(vertices);
+                for (double p : positions) out.writeDouble(p);
+            });
+        }
+
+        public void vertexSize(double size) {
+            write(Op.VERTEX_SIZE, () -> out.writeDouble(size));
+        }
+
+        public void applyTriangles(List<int[]> triangles, boolean removeOthers) {
+            write(Op.APPLY_TRIANGLES, () -> {
+                out.writeBoolean(removeOthers);
+                out.writeInt(triangles.size());
+                for (int[] t : triangles) {
+                    out.writeInt(t[0]);
+                    out.writeInt(t[1]);
+                    out.writeInt(t[2]);
+                }
+            });
+        }
+
+        // Действие без данных
+        public void op(Op op) {
+            write(op, () -> { });
+        }
+
+        private void writeInts(int[] values) throws IOException {
+            out.writeInt(values.length);
+            for (int v : values) out.writeInt(v);
+        }
+
+        private interface Payload {
+            void write() throws IOException;
+        }
+
+        private void write(Op op, Payload payload) {
+            if (error != null) return;
+            try {
+                out.writeByte(op.ordinal());
+                payload.write();
+                entries++;
+            } catch (IOException e) {
+                error = e;
+            }
+        }
+
+        // Закрываем файл; бросаем первую ошибку записи, если она была
+        @Override
+        public void close() throws IOException {
+            try {
+                out.close();
+            } catch (IOException e) {
+                if (error == null) error = e;
+            }
+            if (error != null) throw error;
+        }
+    }
+
+    // Читаем все записи файла
+    public static List<Entry> read(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 1 << 16))) {
+            if (in.readInt() != MAGIC) throw new IOException("Это не запись действий редактора: " + path);
+            int version = in.readInt();
+            if (version != VERSION) throw new IOException("Неподдерживаемая версия записи: " + version);
+            List<Entry> entries = new ArrayList<>();
+            while (true) {
+                int code;
+                try {
+                    code = in.readUnsignedByte();
+                } catch (EOFException e) {
+                    return entries;
+                }
+                if (code >= Op.values().length) throw new IOException("Неизвестное действие " + code);
+                Op op = Op.values()[code];
+                if (entries.isEmpty() && op != Op.LOAD) throw new IOException("Запись должна начинаться со снимка графа: " + path);
+                entries.add(readEntry(in, op));
+            }
+        }
+    }
+
+    private static Entry readEntry(DataInputStream in, Op op) throws IOException {
+        return switch (op) {
+            case LOAD -> {
+                double vertexSize = in.readDouble();
+                yield new Entry(op, 0, 0, null, new double[]{vertexSize}, false, GraphModel.read(in));
+            }
+            case ADD_VERTEX, DELETE_VERTEX, PICK_VERTEX, DRAG_MOVE ->
+                    new Entry(op, in.readDouble(), in.readDouble(), null, null, false, null);
+            case DRAG_BEGIN -> {
+                double x = in.readDouble(), y = in.readDouble();
+                yield new Entry(op, x, y, readInts(in), null, false, null);
+            }
+            case PLACE -> {
+                int[] vertices = readInts(in);
+                double[] positions = new double[2 * vertices.length];
+                for (int i = 0; i < positions.length; i++) positions[i] = in.readDouble();
+                yield new Entry(op, 0, 0, vertices, positions, false, null);
+            }
+            case VERTEX_SIZE -> new Entry(op, 0, 0, null, new double[]{in.readDouble()}, false, null);
+            case APPLY_TRIANGLES -> {
+                boolean removeOthers = in.readBoolean();
+                int[] vertices = new int[3 * in.readInt()];
+                for (int i = 0; i < vertices.length; i++) vertices[i] = in.readInt();
+                yield new Entry(op, 0, 0, vertices, null, removeOthers, null);
+            }
+            case DRAG_END, CLEAR, UNDO, REDO, SOLVE -> new Entry(op, 0, 0, null, null, false, null);
+        };
+    }
+
+    private static int[] readInts(DataInputStream in) throws IOException {
+        int[] values = new int[in.readInt()];
+        for (int i = 0; i < values.length; i++) values[i] = in.readInt();
+        return values;
+    }
+
+    // Выполняем запись на редакторе так же, как её выполнил пользователь
+    public static void apply(Entry entry, GraphEditor editor) {
+        switch (entry.op()) {
+            case LOAD -> editor.load(entry.graph(), entry.values()[0]);
+            case ADD_VERTEX -> editor.addVertexAt(entry.x(), entry.y());
+            case DELETE_VERTEX -> editor.deleteVertexAt(entry.x(), entry.y());
+            case PICK_VERTEX -> editor.pickVertex(entry.x(), entry.y());
+            case DRAG_BEGIN -> {
+                editor.findVertexAt(entry.x(), entry.y()); // Нажатие в редакторе сначала ищет вершину под курсором
+                editor.beginDrag(entry.x(), entry.y(), entry.vertices());
+            }
+            case DRAG_MOVE -> editor.dragTo(entry.x(), entry.y());
+            case DRAG_END -> editor.endDrag();
+            case PLACE -> editor.placeVertices(entry.vertices(), editor.positionsOf(entry.vertices()), entry.values());
+            case VERTEX_SIZE -> editor.setVertexSize(entry.values()[0]);
+            case CLEAR -> editor.clear();
+            case UNDO -> editor.undo();
+            case REDO -> editor.redo();
+            case SOLVE -> editor.adjacencyMatrix();
+            case APPLY_TRIANGLES -> {
+                int[] v = entry.vertices();
+                List<int[]> triangles = new ArrayList<>(v.length / 3);
+                for (int i = 0; i < v.length; i += 3) {
+                    triangles.add(new int[]{v[i], v[i + 1], v[i + 2]});
+                }
+                editor.applyTriangles(triangles, entry.flag());
+            }
+        }
+    }
+}
@@ -0,0 +1,102 @@
+import java.util.Locale;
+
+// Накопленные замеры для панели метрик. Обновляется только из потока JavaFX
+public class EditorMetrics {
+    public final Operation findVertex = new Operation("поиск вершины");
+    public final Operation updateEdges = new Operation("обновление рёбер");
+    public final Operation deleteVertex = new Operation("удаление вершины");
+    public final Operation history = new Operation("история");
+
+    // Последний поиск разбиения
+    private long matrixBuildNanos, serializationNanos, solveNanos, solveNodes;
+    private int solveTriangles = -1;
+    private boolean solved = false;
+
+    public void solveFinished(long matrixBuildNanos, long serializationNanos, long solveNanos, long nodes, int triangles) {
+        this.matrixBuildNanos = matrixBuildNanos;
+        this.serializationNanos = serializationNanos;
+        this.solveNanos = solveNanos;
+        this.solveNodes = nodes;
+        this.solveTriangles = triangles;
+        this.solved = true;
+    }
+
+    public String format(int vertexCount, int edgeCount, EditHistory editHistory) {
+        StringBuilder text = new StringBuilder();
+        text.append(String.format(Locale.ROOT, "Вершин: %d, рёбер: %d%n", vertexCount, edgeCount));
+        text.append(String.format(Locale.ROOT, "История: %d/%d действий, %.1f из %.0f МБ%n",
+                editHistory.getUndoCount(), editHistory.getRedoCount(),
+                editHistory.getBytes() / 1048576.0, editHistory.getMaxBytes() / 1048576.0));
+        for (Operation operation : new Operation[]{findVertex, updateEdges, deleteVertex, history}) {
+            text.append(operation).append('\n');
+        }
+        if (solved) {
+            text.append(String.format(Locale.ROOT,
+                    "Поиск: матрица %.2f мс, сериализация %.2f мс, решение %.2f мс, %,d узлов, треугольников %s",
+                    matrixBuildNanos / 1e6, serializationNanos / 1e6, solveNanos / 1e6, solveNodes,
+                    solveTriangles < 0 ? "нет" : String.valueOf(solveTriangles)));
+        } else {
+            text.append("Поиск ещё не запускался");
+        }
+        return text.toString();
+    }
+
+    // Число вызовов, среднее, перцентили и наибольшее время одной операции.
+    // Время копится в логарифмической гистограмме: на каждую степень двойки 8 корзин,
+    // поэтому перцентиль известен с точностью до 1/8 без хранения всех замеров
+    public static class Operation {
+        private static final int SUB_BUCKETS = 8;
+        private final String name;
+        private final long[] buckets = new long[64 * SUB_BUCKETS];
+        private long count, totalNanos, maxNanos;
+
+        Operation(String name) {
+            this.name = name;
+        }
+
+        public void add(long nanos) {
+            nanos = Math.max(nanos, 0);
+            count++;
+            totalNanos += nanos;
+            maxNanos = Math.max(maxNanos, nanos);
+            buckets[bucket(nanos)]++;
+        }
+
+        public String getName() { return name; }
+        public long getCount() { return count; }
+        public long getTotalNanos() { return totalNanos; }
+        public long getMaxNanos() { return maxNanos; }
+
+        // Нижняя граница корзины, в которую попал перцентиль p (от 0 до 1)
+        public long percentile(double p) {
+            if (count == 0) return 0;
+            long rank = Math.max(1, (long) Math.ceil(p * count));
+            long seen = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                seen += buckets[i];
+                if (seen >= rank) return Math.min(lowerBound(i), maxNanos);
+            }
+            return maxNanos;
+        }
+
+        private static int bucket(long nanos) {
+            if (nanos < SUB_BUCKETS) return (int) nanos;
+            int exponent = 63 - Long.numberOfLeadingZeros(nanos); // nanos в [2^exponent, 2^(exponent+1))
+            int sub = (int) (nanos >>> (exponent - 3)) & (SUB_BUCKETS - 1);
+            return (exponent - 2) * SUB_BUCKETS + sub;
+        }
+
+        private static long lowerBound(int bucket) {
+            if (bucket < SUB_BUCKETS) return bucket;
+            int exponent = bucket / SUB_BUCKETS + 2;
+            return (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << (exponent - 3);
+        }
+
+        @Override
+        public String toString() {
+            if (count == 0) return name + ": -";
+            return String.format(Locale.ROOT, "%s: %d раз, среднее %.1f мкс, p99 %.1f мкс, макс. %.1f мкс",
+                    name, count, totalNanos / 1e3 / count, percentile(0.99) / 1e3, maxNanos / 1e3);
+        }
+    }
+}
@@ -0,0 +1,317 @@
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// Силовая раскладка графа (модель Fruchterman-Reingold с адаптивным шагом Yifan Hu).
+// Вершины отталкиваются друг от друга с силой C*K^2/d, рёбра стягивают концы с силой d^2/K,
+// слабое притяжение к центру не даёт компонентам связности разлетаться.
+// Отталкивание считается приближённо по квадродереву Barnes-Hut: далёкая группа вершин действует
+// как одна вершина в её центре масс, поэтому итерация стоит O(n log n), а не O(n^2).
+// Дерево строится последовательно, силы и новые положения считаются параллельно по вершинам.
+// step() выполняет одну итерацию, так что раскладку можно показывать по ходу
+public class ForceLayout {
+    private static final double REPULSION = 0.2; // C в формуле отталкивания
+    private static final double THETA = 1.2; // Группа считается одной вершиной, если size/d < THETA
+    private static final double GRAVITY = 0.02; // Притяжение к центру, в долях силы пружины
+    private static final double COOLING = 0.9; // Множитель шага, когда энергия не убывает
+    private static final int PROGRESS_STEPS = 5; // Итераций с убывающей энергией до увеличения шага
+    private static final double TOLERANCE = 0.01; // Раскладка сошлась, когда шаг меньше TOLERANCE*K
+    private static final int MAX_DEPTH = 48; // Совпадающие точки глубже не делим, а копим в одном листе
+    private static final int CHUNK = 512; // Вершин в одной параллельной задаче
+
+    private static final int EMPTY = -1; // Пустой лист
+    private static final int AGGREGATE = -2; // Лист на предельной глубине с несколькими вершинами
+
+    private final int n;
+    private final double k; // Желаемая длина ребра
+    private final ForkJoinPool pool;
+    private double[] x, y; // Текущие положения
+    private double[] nextX, nextY;
+    private final int[] neighbourStart; // Соседи вершины v: neighbours[neighbourStart[v] .. neighbourStart[v+1])
+    private final int[] neighbours;
+    private final double[] weights; // Сила пружины: 1 для ребра, больше - для пары из одного треугольника
+    private final double centerX, centerY;
+
+    private double step; // Длина шага вершины за итерацию
+    private double energy = Double.MAX_VALUE;
+    private int progress = 0;
+    private int iterations = 0;
+
+    // Квадродерево в плоских массивах; дети узла идут подряд начиная с child[node]
+    private int nodeCount;
+    private double[] nodeX, nodeY, nodeHalf; // Центр и половина стороны квадрата
+    private double[] massX, massY; // Сумма координат вершин узла, затем - центр масс
+    private int[] mass, child, body;
+
+    // x, y - начальные положения (не меняются), рёбра - пары плотных номеров,
+    // triangles - треугольники, вершины которых нужно дополнительно стянуть (может быть пустым)
+    public ForceLayout(double[] x, double[] y, int[] edgeStart, int[] edgeEnd, int[][] triangles,
+                       double triangleWeight, double edgeLength, ForkJoinPool pool) {
+        this.n = x.length;
+        this.k = edgeLength;
+        this.pool = pool;
+        this.x = x.clone();
+        this.y = y.clone();
+        this.nextX = new double[n];
+        this.nextY = new double[n];
+
+        // Списки соседей (CSR); пара треугольника становится пружиной с весом triangleWeight
+        int[] degree = new int[n + 1];
+        for (int e = 0; e < edgeStart.length; e++) {
+            degree[edgeStart[e]]++;
+            degree[edgeEnd[e]]++;
+        }
+        for (int[] t : triangles) {
+            for (int v : t) degree[v] += 2;
+        }
+        neighbourStart = new int[n + 1];
+        for (int v = 0; v < n; v++) neighbourStart[v + 1] = neighbourStart[v] + degree[v];
+        neighbours = new int[neighbourStart[n]];
+        weights = new double[neighbourStart[n]];
+        int[] fill = Arrays.copyOf(neighbourStart, n);
+        for (int e = 0; e < edgeStart.length; e++) {
+            link(fill, edgeStart[e], edgeEnd[e], 1);
+        }
+        for (int[] t : triangles) {
+            link(fill, t[0], t[1], triangleWeight);
+            link(fill, t[0], t[2], triangleWeight);
+            link(fill, t[1], t[2], triangleWeight);
+        }
+
+        double sumX = 0, sumY = 0;
+        for (int v = 0; v < n; v++) {
+            sumX += x[v];
+            sumY += y[v];
+        }
+        centerX = n > 0 ? sumX / n : 0;
+        centerY = n > 0 ? sumY / n : 0;
+        step = k;
+
+        int capacity = Math.max(16, 4 * n);
+        nodeX = new double[capacity];
+        nodeY = new double[capacity];
+        nodeHalf = new double[capacity];
+        massX = new double[capacity];
+        massY = new double[capacity];
+        mass = new int[capacity];
+        child = new int[capacity];
+        body = new int[capacity];
+    }
+
+    private void link(int[] fill, int a, int b, double weight) {
+        neighbours[fill[a]] = b;
+        weights[fill[a]++] = weight;
+        neighbours[fill[b]] = a;
+        weights[fill[b]++] = weight;
+    }
+
+    public int size() { return n; }
+    public int iterations() { return iterations; }
+
+    public boolean isConverged() {
+        return n < 2 || step < TOLERANCE * k;
+    }
+
+    // Положения вершин после последней итерации, x и y подряд
+    public double[] positions() {
+        double[] result = new double[2 * n];
+        for (int v = 0; v < n; v++) {
+            result[2 * v] = x[v];
+            result[2 * v + 1] = y[v];
+        }
+        return result;
+    }
+
+    // Одна итерация; false, если раскладка уже сошлась
+    public boolean step() {
+        if (isConverged()) return false;
+        buildTree();
+        double newEnergy = pool.invoke(new Forces(0, n));
+        double[] swap = x; x = nextX; nextX = swap;
+        swap = y; y = nextY; nextY = swap;
+
+        // Адаптивный шаг: растёт, пока энергия стабильно убывает, и уменьшается в остальных случаях
+        if (newEnergy < energy) {
+            if (++progress >= PROGRESS_STEPS) {
+                progress = 0;
+                step /= COOLING;
+            }
+        } else {
+            progress = 0;
+            step *= COOLING;
+        }
+        energy = newEnergy;
+        iterations++;
+        return true;
+    }
+
+    // Квадродерево
+    // Начало
+
+    private void buildTree() {
+        double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE, maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+        for (int v = 0; v < n; v++) {
+            minX = Math.min(minX, x[v]);
+            maxX = Math.max(maxX, x[v]);
+            minY = Math.min(minY, y[v]);
+            maxY = Math.max(maxY, y[v]);
+        }
+        nodeCount = 0;
+        int root = newNode((minX + maxX) / 2, (minY + maxY) / 2, Math.max(maxX - minX, maxY - minY) / 2 + 1);
+        for (int v = 0; v < n; v++) {
+            insert(root, v);
+        }
+        for (int node = 0; node < nodeCount; node++) {
+            if (mass[node] > 0) {
+                massX[node] /= mass[node];
+                massY[node] /= mass[node];
+            }
+        }
+    }
+
+    // Спускаемся от корня, добавляя вершину в суммы каждого узла на пути
+    private void insert(int node, int v) {
+        for (int depth = 0; ; depth++) {
+            mass[node]++;
+            massX[node] += x[v];
+            massY[node] += y[v];
+            if (child[node] < 0) {
+                if (body[node] == EMPTY) {
+                    body[node] = v;
+                    return;
+                }
+                if (body[node] == AGGREGATE || depth >= MAX_DEPTH) {
+                    body[node] = AGGREGATE;
+                    return;
+                }
+                // В листе уже есть вершина - делим его и переносим её в нужную четверть
+                int old = body[node];
+                body[node] = EMPTY;
+                split(node);
+                int c = child[node] + quadrant(node, x[old], y[old]);
+                mass[c] = 1;
+                massX[c] = x[old];
+                massY[c] = y[old];
+                body[c] = old;
+            }
+            node = child[node] + quadrant(node, x[v], y[v]);
+        }
+    }
+
+    private void split(int node) {
+        double half = nodeHalf[node] / 2;
+        double cx = nodeX[node], cy = nodeY[node];
+        int first = newNode(cx - half, cy - half, half);
+        newNode(cx + half, cy - half, half);
+        newNode(cx - half, cy + half, half);
+        newNode(cx + half, cy + half, half);
+        child[node] = first;
+    }
+
+    private int quadrant(int node, double px, double py) {
+        return (px >= nodeX[node] ? 1 : 0) + (py >= nodeY[node] ? 2 : 0);
+    }
+
+    private int newNode(double cx, double cy, double half) {
+        if (nodeCount == mass.length) {
+            int capacity = 2 * mass.length;
+            nodeX = Arrays.copyOf(nodeX, capacity);
+            nodeY = Arrays.copyOf(nodeY, capacity);
+            nodeHalf = Arrays.copyOf(nodeHalf, capacity);
+            massX = Arrays.copyOf(massX, capacity);
+            massY = Arrays.copyOf(massY, capacity);
+            mass = Arrays.copyOf(mass, capacity);
+            child = Arrays.copyOf(child, capacity);
+            body = Arrays.copyOf(body, capacity);
+        }
+        int node = nodeCount++;
+        nodeX[node] = cx;
+        nodeY[node] = cy;
+        nodeHalf[node] = half;
+        massX[node] = massY[node] = 0;
+        mass[node] = 0;
+        child[node] = -1;
+        body[node] = EMPTY;
+        return node;
+    }
+    // Конец
+
+    // Силы и новые положения для вершин [from, to); возвращает сумму квадратов сил (энергию)
+    private class Forces extends RecursiveTask<Double> {
+        private final int from, to;
+
+        Forces(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Double compute() {
+            if (to - from > CHUNK) {
+                int middle = (from + to) >>> 1;
+                Forces left = new Forces(from, middle);
+                left.fork();
+                double right = new Forces(middle, to).compute();
+                return left.join() + right;
+            }
+            double total = 0;
+            int[] stack = new int[4 * MAX_DEPTH + 4];
+            double repulsion = REPULSION * k * k;
+            for (int v = from; v < to; v++) {
+                double px = x[v], py = y[v];
+                double fx = 0, fy = 0;
+
+                // Отталкивание: обходим дерево, раскрывая только близкие узлы
+                int top = 0;
+                stack[top++] = 0;
+                while (top > 0) {
+                    int node = stack[--top];
+                    if (mass[node] == 0 || body[node] == v) continue;
+                    double dx = px - massX[node], dy = py - massY[node];
+                    double d2 = dx * dx + dy * dy;
+                    double size = 2 * nodeHalf[node];
+                    if (child[node] < 0 || size * size < THETA * THETA * d2) {
+                        if (d2 < 1e-9) continue; // Совпадающие точки разводит притяжение к соседям
+                        double f = repulsion * mass[node] / d2;
+                        fx += dx * f;
+                        fy += dy * f;
+                    } else {
+                        int c = child[node];
+                        stack[top++] = c;
+                        stack[top++] = c + 1;
+                        stack[top++] = c + 2;
+                        stack[top++] = c + 3;
+                    }
+                }
+
+                // Притяжение вдоль рёбер и пар треугольников
+                for (int i = neighbourStart[v]; i < neighbourStart[v + 1]; i++) {
+                    int u = neighbours[i];
+                    double dx = x[u] - px, dy = y[u] - py;
+                    double f = weights[i] * Math.sqrt(dx * dx + dy * dy) / k;
+                    fx += dx * f;
+                    fy += dy * f;
+                }
+
+                // Притяжение к центру
+                double gx = centerX - px, gy = centerY - py;
+                double g = GRAVITY * Math.sqrt(gx * gx + gy * gy) / k;
+                fx += gx * g;
+                fy += gy * g;
+
+                // Вершина сдвигается на step в направлении силы
+                double f2 = fx * fx + fy * fy;
+                total += f2;
+                if (f2 > 0) {
+                    double scale = step / Math.sqrt(f2);
+                    nextX[v] = px + fx * scale;
+                    nextY[v] = py + fy * scale;
+                } else {
+                    nextX[v] = px;
+                    nextY[v] = py;
+                }
+            }
+            return total;
+        }
+    }
+}
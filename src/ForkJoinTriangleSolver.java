@@ -0,0 +1,246 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Параллельный решатель на пуле fork-join. Ветвление то же, что у DancingLinksSolver: выбирается
+// непокрытая вершина с наименьшим числом доступных треугольников (все вершины которых не покрыты),
+// и если у какой-то вершины их не осталось, ветвь отбрасывается сразу. Число доступных треугольников
+// у каждой вершины поддерживается при выборе и отмене треугольника, без пересчёта.
+// Верхние уровни дерева разбиваются на отдельные подзадачи, которые простаивающие потоки забирают себе
+// (work stealing), а глубже поиск идёт последовательно. Первый нашедший решение поток останавливает остальных.
+// Пул свой у каждого решателя и освобождается в close()
+public class ForkJoinTriangleSolver implements TrianglePartitionSolver, AutoCloseable {
+    private static final int FLUSH_NODES = 1024; // Как часто поток сбрасывает счётчик узлов
+
+    private final ForkJoinPool pool;
+    private final int splitDepth; // Глубина, до которой ветви дерева становятся отдельными задачами
+
+    public ForkJoinTriangleSolver() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public ForkJoinTriangleSolver(int parallelism) {
+        this(parallelism, 8);
+    }
+
+    public ForkJoinTriangleSolver(int parallelism, int splitDepth) {
+        this.pool = new ForkJoinPool(parallelism);
+        this.splitDepth = splitDepth;
+    }
+
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    @Override
+    public List<int[]> solve(BitAdjacencyMatrix graph, SearchControl control) {
+        int n = graph.size();
+        if (n % 3 != 0) {
+            return null;
+        }
+        if (n == 0) {
+            return new ArrayList<>();
+        }
+
+        Search search = new Search(graph, control);
+        pool.invoke(search.new Branch(search.initialState(), null, 0));
+
+        Choice last = search.result.get();
+        if (last == null || control.isCancelled()) {
+            return null; // Решения нет, либо поиск отменён
+        }
+        List<int[]> triangles = new ArrayList<>(n / 3);
+        for (Choice c = last; c != null; c = c.parent) {
+            triangles.add(search.triangles.get(c.triangle));
+        }
+        return triangles;
+    }
+
+    // Останавливаем потоки пула; после этого решатель не используется
+    @Override
+    public void close() {
+        pool.shutdownNow();
+    }
+
+    // Выбранный треугольник; цепочка родителей задаёт путь от корня дерева
+    private record Choice(int triangle, Choice parent) { }
+
+    // Состояние поиска: покрытые вершины, число покрытых вершин у каждого треугольника
+    // (треугольник доступен, пока их 0) и число доступных треугольников у каждой вершины
+    private static final class Cover {
+        final long[] covered;
+        final int[] blocked;
+        final int[] available;
+        int uncovered;
+
+        Cover(long[] covered, int[] blocked, int[] available, int uncovered) {
+            this.covered = covered;
+            this.blocked = blocked;
+            this.available = available;
+            this.uncovered = uncovered;
+        }
+
+        Cover copy() {
+            return new Cover(covered.clone(), blocked.clone(), available.clone(), uncovered);
+        }
+    }
+
+    private class Search {
+        final List<int[]> triangles; // Все треугольники графа
+        final int[][] byVertex; // Номера треугольников каждой вершины
+        final int n;
+        final SearchControl control;
+        final AtomicReference<Choice> result = new AtomicReference<>();
+
+        Search(BitAdjacencyMatrix graph, SearchControl control) {
+            this.n = graph.size();
+            this.control = control;
+            this.triangles = graph.triangles();
+            int[] counts = new int[n];
+            for (int[] t : triangles) {
+                for (int v : t) counts[v]++;
+            }
+            byVertex = new int[n][];
+            for (int v = 0; v < n; v++) byVertex[v] = new int[counts[v]];
+            for (int t = triangles.size() - 1; t >= 0; t--) {
+                for (int v : triangles.get(t)) byVertex[v][--counts[v]] = t;
+            }
+        }
+
+        Cover initialState() {
+            int[] available = new int[n];
+            for (int v = 0; v < n; v++) available[v] = byVertex[v].length;
+            return new Cover(new long[(n + 63) >>> 6], new int[triangles.size()], available, n);
+        }
+
+        // Непокрытая вершина с наименьшим числом доступных треугольников (0 - ветвь тупиковая),
+        // или -1, если покрыты все
+        int mostConstrained(Cover s) {
+            int best = -1;
+            for (int w = 0; w < s.covered.length; w++) {
+                for (long free = ~s.covered[w]; free != 0; free &= free - 1) {
+                    int v = (w << 6) + Long.numberOfTrailingZeros(free);
+                    if (v >= n) break;
+                    if (best < 0 || s.available[v] < s.available[best]) {
+                        best = v;
+                        if (s.available[v] <= 1) return best; // Меньше уже не будет, кроме тупика
+                    }
+                }
+            }
+            return best;
+        }
+
+        // Покрываем вершины треугольника: треугольники, задевающие их, становятся недоступны
+        void cover(Cover s, int[] tri) {
+            for (int v : tri) {
+                s.covered[v >>> 6] |= 1L << v;
+                for (int t : byVertex[v]) {
+                    if (s.blocked[t]++ == 0) {
+                        for (int u : triangles.get(t)) s.available[u]--;
+                    }
+                }
+            }
+            s.uncovered -= 3;
+        }
+
+        void uncover(Cover s, int[] tri) {
+            for (int i = tri.length - 1; i >= 0; i--) {
+                int v = tri[i];
+                s.covered[v >>> 6] &= ~(1L << v);
+                for (int t : byVertex[v]) {
+                    if (--s.blocked[t] == 0) {
+                        for (int u : triangles.get(t)) s.available[u]++;
+                    }
+                }
+            }
+            s.uncovered += 3;
+        }
+
+        void found(Choice path) {
+            if (control.stop()) {
+                result.set(path);
+            }
+        }
+
+        // Подзадача: поддерево перебора из заданного состояния
+        class Branch extends RecursiveAction {
+            private final Cover state;
+            private final Choice path;
+            private final int depth;
+            private long nodes; // Узлы, ещё не переданные в общий счётчик
+
+            Branch(Cover state, Choice path, int depth) {
+                this.state = state;
+                this.path = path;
+                this.depth = depth;
+            }
+
+            @Override
+            protected void compute() {
+                if (control.isStopped()) return;
+                int v = mostConstrained(state);
+                if (v == -1) {
+                    found(path);
+                    return;
+                }
+                if (state.available[v] == 0) {
+                    control.addNodes(1);
+                    return; // Вершину нечем покрыть
+                }
+
+                if (depth < splitDepth && getSurplusQueuedTaskCount() <= 2) {
+                    // Каждый доступный треугольник вершины v - отдельная подзадача
+                    List<Branch> children = new ArrayList<>();
+                    for (int t : byVertex[v]) {
+                        if (state.blocked[t] != 0) continue;
+                        Cover next = state.copy();
+                        cover(next, triangles.get(t));
+                        children.add(new Branch(next, new Choice(t, path), depth + 1));
+                    }
+                    control.addNodes(1);
+                    invokeAll(children);
+                } else {
+                    dfs(v, 0, new int[state.uncovered / 3]);
+                    control.addNodes(nodes);
+                }
+            }
+
+            // Последовательный перебор с изменением состояния на месте;
+            // chosen хранит треугольники, выбранные ниже этой подзадачи
+            private boolean dfs(int v, int level, int[] chosen) {
+                if (++nodes >= FLUSH_NODES) {
+                    control.addNodes(nodes);
+                    nodes = 0;
+                    if (control.isStopped()) return true;
+                }
+                for (int t : byVertex[v]) {
+                    if (state.blocked[t] != 0) continue;
+                    int[] tri = triangles.get(t);
+                    chosen[level] = t;
+                    cover(state, tri);
+                    boolean done;
+                    int next = mostConstrained(state);
+                    if (next == -1) {
+                        done = finish(chosen, level);
+                    } else {
+                        done = state.available[next] > 0 && dfs(next, level + 1, chosen);
+                    }
+                    uncover(state, tri);
+                    if (done) return true;
+                }
+                return false;
+            }
+
+            private boolean finish(int[] chosen, int level) {
+                Choice full = path;
+                for (int i = 0; i <= level; i++) {
+                    full = new Choice(chosen[i], full);
+                }
+                found(full);
+                return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,27 @@
+// Одно изменение графа в истории действий. Хранит только то, что изменилось,
+// и при отмене/возврате применяет обратное или прямое изменение к модели графа
+public interface GraphEdit {
+    long VERTEX_BYTES = 64; // Примерный объём записи о вершине (номер, координаты, радиус)
+    long EDGE_BYTES = 32; // Примерный объём записи о ребре (номер, концы, цвет, толщина)
+    long BASE_BYTES = 64; // Сама запись истории
+
+    void undo();
+
+    void redo();
+
+    // Примерный объём памяти, удерживаемой записью; нужен для ограничения размера истории
+    long estimatedBytes();
+
+    static GraphEdit of(Runnable undo, Runnable redo, long estimatedBytes) {
+        return new GraphEdit() {
+            @Override
+            public void undo() { undo.run(); }
+
+            @Override
+            public void redo() { redo.run(); }
+
+            @Override
+            public long estimatedBytes() { return estimatedBytes; }
+        };
+    }
+}
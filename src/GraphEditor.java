@@ -0,0 +1,455 @@
+import java.util.Arrays;
+import java.util.List;
+
+// Действия пользователя над графом без JavaFX: поиск вершины под курсором, создание и удаление вершин,
+// рёбра, перетаскивание, размер вершин, очистка, история и применение решения.
+// Main вызывает эти методы из обработчиков мыши и кнопок, TraceReplay - из записи действий,
+// поэтому замеры при воспроизведении записи относятся к тому же коду, что работает в редакторе.
+// Если задан Recorder, каждое действие пишется в запись до того, как выполняется
+public class GraphEditor {
+    private final GraphModel model;
+    private final VertexGrid grid;
+    private final EditHistory history;
+    private final EditorMetrics metrics;
+    private EditTrace.Recorder recorder = null;
+    private Runnable beforeEdit = () -> { }; // Перед любым действием (Main останавливает раскладку)
+    private Runnable afterEdit = () -> { }; // После изменения графа, попавшего в историю
+    private double vertexSize = 10; // Размер новых вершин
+    private int pickedVertex = -1; // Первая вершина будущего ребра (-1 - не выбрана)
+    private static final int[] PALETTE = palette(64); // Цвета треугольников решения (ARGB)
+    private static final double TRIANGLE_WIDTH = 2; // Рёбра треугольников толще для наглядности
+    private int[] scratchTriangleOf = new int[0]; // Переиспользуемые массивы применения решения
+    private int[] scratchEdges = new int[0];
+
+    // Перетаскивание
+    private int[] dragVertices = null; // null - перетаскивания нет
+    private double[] dragStart; // Положение вершин до начала перетаскивания (x, y подряд)
+    private double dragPressX, dragPressY; // Точка, где нажали мышь
+    private double dragX, dragY; // Последнее применённое положение мыши
+
+    public GraphEditor(GraphModel model, EditHistory history, EditorMetrics metrics) {
+        this.model = model;
+        this.history = history;
+        this.metrics = metrics;
+        this.grid = new VertexGrid(model);
+        model.addListener(new GraphModel.Listener() {
+            @Override
+            public void vertexRemoved(int vertex, int index, int lastIndex) {
+                if (pickedVertex == vertex) pickedVertex = -1;
+            }
+
+            @Override
+            public void reset() {
+                pickedVertex = -1;
+            }
+        });
+    }
+
+    public double getVertexSize() { return vertexSize; }
+    public boolean isDragging() { return dragVertices != null; }
+
+    public void setBeforeEdit(Runnable beforeEdit) { this.beforeEdit = beforeEdit; }
+    public void setAfterEdit(Runnable afterEdit) { this.afterEdit = afterEdit; }
+
+    public EditTrace.Recorder getRecorder() { return recorder; }
+
+    // Начинаем запись со снимка текущего графа; null прекращает запись (файл закрывает вызывающий).
+    // История очищается: действия, сделанные до записи, нельзя было бы отменить при воспроизведении
+    public void setRecorder(EditTrace.Recorder recorder) {
+        this.recorder = recorder;
+        if (recorder != null) {
+            history.clear();
+            recorder.load(model, vertexSize);
+        }
+    }
+
+    // Поиск вершин
+    // Начало
+
+    // Смотрим только ячейки сетки рядом с точкой, поэтому время не зависит от количества вершин
+    public int findVertexAt(double x, double y) {
+        GraphEvents.FindVertex event = new GraphEvents.FindVertex();
+        event.begin();
+        long start = System.nanoTime();
+        int vertex = grid.findAt(x, y); // -1, если вершина не найдена
+        metrics.findVertex.add(System.nanoTime() - start);
+        event.end();
+        if (event.shouldCommit()) {
+            event.found = vertex >= 0;
+            event.commit();
+        }
+        return vertex;
+    }
+
+    // Вершины, центры которых лежат в прямоугольнике
+    public int[] verticesIn(double minX, double minY, double maxX, double maxY) {
+        return grid.query(minX, minY, maxX, maxY);
+    }
+    // Конец
+
+    // Действия мышью
+    // Начало
+
+    // Левый клик: на пустом месте создаём вершину
+    public void addVertexAt(double x, double y) {
+        beforeEdit.run();
+        if (recorder != null) recorder.point(EditTrace.Op.ADD_VERTEX, x, y);
+        if (findVertexAt(x, y) >= 0) return;
+        double r = vertexSize;
+        int vertex = model.addVertex(x, y, r); // Вид выведет вершину на экран
+        int index = model.indexOf(vertex);
+        record(GraphEdit.of(() -> model.removeVertex(vertex), () -> model.restoreVertex(vertex, index, x, y, r),
+                GraphEdit.VERTEX_BYTES));
+    }
+
+    // Правый клик: удаляем вершину под курсором вместе с её рёбрами
+    public void deleteVertexAt(double x, double y) {
+        beforeEdit.run();
+        if (recorder != null) recorder.point(EditTrace.Op.DELETE_VERTEX, x, y);
+        int vertex = findVertexAt(x, y);
+        if (vertex >= 0) {
+            deleteVertex(vertex);
+        }
+    }
+
+    private void deleteVertex(int vertex) {
+        GraphEvents.DeleteVertex event = new GraphEvents.DeleteVertex();
+        event.begin();
+        long start = System.nanoTime();
+        int vertexIndex = model.indexOf(vertex);
+        double x = model.x(vertex), y = model.y(vertex), r = model.radius(vertex);
+        // Модель переносит на место вершины последнюю и снимает только её рёбра - без прохода по всем рёбрам
+        GraphModel.EdgeBatch removedEdges = model.removeVertex(vertex);
+        // Для отмены достаточно вернуть вершину под её номером на прежнее место и восстановить её рёбра
+        record(GraphEdit.of(() -> {
+            model.restoreVertex(vertex, vertexIndex, x, y, r);
+            model.restoreEdges(removedEdges);
+        }, () -> model.removeVertex(vertex), GraphEdit.VERTEX_BYTES + removedEdges.size() * GraphEdit.EDGE_BYTES));
+        metrics.deleteVertex.add(System.nanoTime() - start);
+        event.end();
+        if (event.shouldCommit()) {
+            event.index = vertexIndex;
+            event.removedEdges = removedEdges.size();
+            event.commit();
+        }
+    }
+
+    // Средний клик: первый выбирает вершину, второй соединяет её ребром с вершиной под курсором
+    public void pickVertex(double x, double y) {
+        beforeEdit.run();
+        if (recorder != null) recorder.point(EditTrace.Op.PICK_VERTEX, x, y);
+        int vertex = findVertexAt(x, y);
+        if (pickedVertex < 0) {
+            pickedVertex = vertex;
+            return;
+        }
+        int start = pickedVertex;
+        pickedVertex = -1;
+        if (vertex >= 0 && start != vertex && model.findEdge(start, vertex) < 0) {
+            int edge = model.addEdge(start, vertex); // Вид выведет ребро на экран
+            record(GraphEdit.of(() -> model.removeEdge(edge),
+                    () -> model.restoreEdge(edge, start, vertex, GraphModel.BLACK, 1), GraphEdit.EDGE_BYTES));
+        }
+    }
+
+    // Начинаем перетаскивание вершин из точки нажатия
+    public void beginDrag(double x, double y, int[] vertices) {
+        beforeEdit.run();
+        if (recorder != null) recorder.dragBegin(x, y, vertices);
+        dragVertices = vertices.clone();
+        dragStart = positionsOf(dragVertices);
+        dragPressX = dragX = x;
+        dragPressY = dragY = y;
+    }
+
+    // Передвигаем вершины вслед за мышью; Main вызывает это не чаще раза за кадр
+    public void dragTo(double x, double y) {
+        if (dragVertices == null) return;
+        if (recorder != null) recorder.point(EditTrace.Op.DRAG_MOVE, x, y);
+        dragX = x;
+        dragY = y;
+        double dx = x - dragPressX, dy = y - dragPressY;
+        for (int i = 0; i < dragVertices.length; i++) {
+            model.moveVertex(dragVertices[i], dragStart[2 * i] + dx, dragStart[2 * i + 1] + dy);
+        }
+    }
+
+    // Заканчиваем перетаскивание; всё перемещение записывается в историю одним действием
+    public void endDrag() {
+        if (dragVertices == null) return;
+        if (recorder != null) recorder.op(EditTrace.Op.DRAG_END);
+        int[] moved = dragVertices;
+        double[] from = dragStart;
+        dragVertices = null;
+        double dx = dragX - dragPressX, dy = dragY - dragPressY;
+        if (dx == 0 && dy == 0) return;
+
+        double[] to = new double[from.length];
+        for (int i = 0; i < to.length; i += 2) {
+            to[i] = from[i] + dx;
+            to[i + 1] = from[i + 1] + dy;
+        }
+        recordPlacement(moved, from, to);
+    }
+    // Конец
+
+    // Ставим вершины в положения to одним действием истории (раскладка). from - положения до начала,
+    // вершины к этому моменту могут уже стоять в to
+    public void placeVertices(int[] vertices, double[] from, double[] to) {
+        beforeEdit.run();
+        if (recorder != null) recorder.place(vertices, to);
+        setPositions(vertices, to);
+        recordPlacement(vertices, from, to);
+    }
+
+    private void recordPlacement(int[] vertices, double[] from, double[] to) {
+        record(GraphEdit.of(() -> setPositions(vertices, from), () -> setPositions(vertices, to),
+                GraphEdit.BASE_BYTES + vertices.length * (Integer.BYTES + 4L * Double.BYTES)));
+    }
+
+    // Текущие положения вершин, x и y подряд
+    public double[] positionsOf(int[] vertices) {
+        double[] positions = new double[2 * vertices.length];
+        for (int i = 0; i < vertices.length; i++) {
+            positions[2 * i] = model.x(vertices[i]);
+            positions[2 * i + 1] = model.y(vertices[i]);
+        }
+        return positions;
+    }
+
+    // Передвигаем вершины без записи в историю (кадры раскладки, отмена и возврат)
+    public void setPositions(int[] vertices, double[] positions) {
+        for (int i = 0; i < vertices.length; i++) {
+            model.moveVertex(vertices[i], positions[2 * i], positions[2 * i + 1]);
+        }
+    }
+
+    // Новый размер всех вершин. Для отмены запоминаем прежний радиус каждой вершины:
+    // у загруженных и импортированных графов радиусы бывают разными, а не равными старому размеру
+    public void setVertexSize(double size) {
+        beforeEdit.run();
+        if (recorder != null) recorder.vertexSize(size);
+        double oldSize = vertexSize;
+        int[] vertices = new int[model.vertexCount()];
+        double[] oldRadii = new double[vertices.length];
+        for (int i = 0; i < vertices.length; i++) {
+            vertices[i] = model.vertexAt(i);
+            oldRadii[i] = model.radius(vertices[i]);
+        }
+        applyVertexSize(size);
+        record(GraphEdit.of(() -> {
+            vertexSize = oldSize;
+            for (int i = 0; i < vertices.length; i++) {
+                model.setRadius(vertices[i], oldRadii[i]);
+            }
+        }, () -> applyVertexSize(size), GraphEdit.BASE_BYTES + vertices.length * (long) (Integer.BYTES + Double.BYTES)));
+    }
+
+    private void applyVertexSize(double size) {
+        vertexSize = size;
+        for (int i = 0; i < model.vertexCount(); i++) {
+            model.setRadius(model.vertexAt(i), size);
+        }
+    }
+
+    // Очищаем граф с сохранением в истории: для отмены запоминаем копию модели
+    public void clear() {
+        beforeEdit.run();
+        if (recorder != null) recorder.op(EditTrace.Op.CLEAR);
+        GraphModel old = model.snapshot();
+        model.clear();
+        record(GraphEdit.of(() -> model.restore(old), model::clear, GraphEdit.BASE_BYTES
+                + old.vertexCount() * GraphEdit.VERTEX_BYTES + old.edgeCount() * GraphEdit.EDGE_BYTES));
+    }
+
+    // Заменяем граф копией loaded, размер новых вершин - newVertexSize.
+    // История очищается: отменять загрузку по шагам бессмысленно
+    public void load(GraphModel loaded, double newVertexSize) {
+        beforeEdit.run();
+        dragVertices = null;
+        history.clear();
+        vertexSize = newVertexSize;
+        // Модель подменяется одним вызовом: вид перестроится один раз, а большой граф сразу покажет на холсте
+        model.restore(loaded);
+        if (recorder != null) recorder.load(model, vertexSize);
+        afterEdit.run();
+    }
+
+    // История
+    // Начало
+
+    // Запоминаем выполненное изменение графа
+    private void record(GraphEdit edit) {
+        GraphEvents.HistoryOperation event = new GraphEvents.HistoryOperation();
+        event.begin();
+        long start = System.nanoTime();
+        history.record(edit);
+        afterEdit.run();
+        finishHistoryOperation(event, "record", start);
+    }
+
+    public void undo() {
+        beforeEdit.run();
+        if (recorder != null) recorder.op(EditTrace.Op.UNDO);
+        GraphEvents.HistoryOperation event = new GraphEvents.HistoryOperation();
+        event.begin();
+        long start = System.nanoTime();
+        if (history.undo()) {
+            afterEdit.run();
+        }
+        finishHistoryOperation(event, "undo", start);
+    }
+
+    public void redo() {
+        beforeEdit.run();
+        if (recorder != null) recorder.op(EditTrace.Op.REDO);
+        GraphEvents.HistoryOperation event = new GraphEvents.HistoryOperation();
+        event.begin();
+        long start = System.nanoTime();
+        if (history.redo()) {
+            afterEdit.run();
+        }
+        finishHistoryOperation(event, "redo", start);
+    }
+
+    private void finishHistoryOperation(GraphEvents.HistoryOperation event, String operation, long start) {
+        metrics.history.add(System.nanoTime() - start);
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.historyBytes = history.getBytes();
+            event.commit();
+        }
+    }
+    // Конец
+
+    // Решение
+    // Начало
+
+    // Матрица смежности для кнопки "Показать решение"
+    public BitAdjacencyMatrix adjacencyMatrix() {
+        if (recorder != null) recorder.op(EditTrace.Op.SOLVE);
+        return model.toAdjacencyMatrix();
+    }
+
+    // Окрашиваем треугольники одним действием истории; если removeOthers, остальные рёбра удаляются.
+    // Треугольники заданы плотными номерами вершин. Всё делается за один проход по рёбрам:
+    // ребро внутри треугольника получает его цвет из палитры, остальные отбираются на удаление.
+    // Временные массивы переиспользуются, а в историю попадают только удалённые рёбра и рёбра, сменившие вид
+    public void applyTriangles(List<int[]> triangles, boolean removeOthers) {
+        beforeEdit.run();
+        if (recorder != null) recorder.applyTriangles(triangles, removeOthers);
+        int[] triangleOf = markTriangles(triangles);
+
+        // Удаляемые рёбра копим с начала scratchEdges, перекрашиваемые - с конца
+        int edgeCount = model.edgeCount();
+        if (scratchEdges.length < edgeCount) scratchEdges = new int[Math.max(edgeCount, 2 * scratchEdges.length)];
+        int[] edges = scratchEdges;
+        int removeCount = 0, changeStart = edgeCount;
+        for (int i = 0; i < edgeCount; i++) {
+            int e = model.edgeAt(i);
+            int t = triangleOf[model.indexOf(model.edgeStart(e))];
+            if (t >= 0 && t == triangleOf[model.indexOf(model.edgeEnd(e))]) {
+                if (model.edgeColor(e) != triangleColor(t) || model.edgeWidth(e) != TRIANGLE_WIDTH) {
+                    edges[--changeStart] = e;
+                }
+            } else if (removeOthers) {
+                edges[removeCount++] = e;
+            }
+        }
+
+        // Прежний и новый вид перекрашиваемых рёбер
+        int[] changed = Arrays.copyOfRange(edges, changeStart, edgeCount);
+        int[] oldColor = new int[changed.length], newColor = new int[changed.length];
+        double[] oldWidth = new double[changed.length];
+        for (int i = 0; i < changed.length; i++) {
+            int e = changed[i];
+            oldColor[i] = model.edgeColor(e);
+            oldWidth[i] = model.edgeWidth(e);
+            newColor[i] = triangleColor(triangleOf[model.indexOf(model.edgeStart(e))]);
+        }
+
+        GraphModel.EdgeBatch removed = model.removeEdges(edges, removeCount);
+        for (int i = 0; i < changed.length; i++) {
+            model.setEdgeStyle(changed[i], newColor[i], TRIANGLE_WIDTH);
+        }
+
+        record(GraphEdit.of(() -> {
+            for (int i = 0; i < changed.length; i++) {
+                model.setEdgeStyle(changed[i], oldColor[i], oldWidth[i]);
+            }
+            model.restoreEdges(removed);
+        }, () -> {
+            model.removeEdges(removed);
+            for (int i = 0; i < changed.length; i++) {
+                model.setEdgeStyle(changed[i], newColor[i], TRIANGLE_WIDTH);
+            }
+        }, GraphEdit.BASE_BYTES + removed.size() * GraphEdit.EDGE_BYTES + changed.length * 20L));
+    }
+
+    // Окрашиваем треугольники (вершины - плотные номера) без записи в историю
+    public void colorTriangles(List<int[]> triangles) {
+        int[] triangleOf = markTriangles(triangles);
+        for (int i = 0; i < model.edgeCount(); i++) {
+            int e = model.edgeAt(i);
+            int t = triangleOf[model.indexOf(model.edgeStart(e))];
+            if (t >= 0 && t == triangleOf[model.indexOf(model.edgeEnd(e))]) {
+                model.setEdgeStyle(e, triangleColor(t), TRIANGLE_WIDTH);
+            }
+        }
+    }
+
+    // Возвращаем всем рёбрам обычный вид без записи в историю
+    public void resetEdgeStyles() {
+        for (int i = 0; i < model.edgeCount(); i++) {
+            model.setEdgeStyle(model.edgeAt(i), GraphModel.BLACK, 1);
+        }
+    }
+
+    // Номер треугольника каждой вершины (-1 - ни в какой) в переиспользуемом массиве
+    private int[] markTriangles(List<int[]> triangles) {
+        int n = model.vertexCount();
+        if (scratchTriangleOf.length < n) scratchTriangleOf = new int[Math.max(n, 2 * scratchTriangleOf.length)];
+        int[] triangleOf = scratchTriangleOf;
+        Arrays.fill(triangleOf, 0, n, -1);
+        for (int t = 0; t < triangles.size(); t++) {
+            int[] triangle = triangles.get(t);
+            triangleOf[triangle[0]] = t;
+            triangleOf[triangle[1]] = t;
+            triangleOf[triangle[2]] = t;
+        }
+        return triangleOf;
+    }
+
+    private static int triangleColor(int triangle) {
+        return PALETTE[triangle % PALETTE.length];
+    }
+
+    // Оттенки идут с шагом золотого угла, а яркость чередуется: соседние треугольники
+    // получают далёкие друг от друга цвета, а JavaFX обходится несколькими десятками объектов Color
+    private static int[] palette(int size) {
+        int[] colors = new int[size];
+        for (int i = 0; i < size; i++) {
+            double hue = i * 0.618033988749895 % 1.0 * 6;
+            double value = i % 2 == 0 ? 0.9 : 0.65;
+            double saturation = 0.85;
+            int sector = (int) hue;
+            double f = hue - sector;
+            double p = value * (1 - saturation);
+            double q = value * (1 - saturation * f);
+            double t = value * (1 - saturation * (1 - f));
+            double[] rgb = switch (sector) {
+                case 0 -> new double[]{value, t, p};
+                case 1 -> new double[]{q, value, p};
+                case 2 -> new double[]{p, value, t};
+                case 3 -> new double[]{p, q, value};
+                case 4 -> new double[]{t, p, value};
+                default -> new double[]{value, p, q};
+            };
+            colors[i] = GraphModel.BLACK | (int) Math.round(rgb[0] * 255) << 16
+                    | (int) Math.round(rgb[1] * 255) << 8 | (int) Math.round(rgb[2] * 255);
+        }
+        return colors;
+    }
+    // Конец
+}
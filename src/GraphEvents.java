@@ -0,0 +1,81 @@
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+// События JDK Flight Recorder для горячих мест редактора и решателя.
+// Пока запись не идёт, commit() почти ничего не стоит, поэтому события создаются всегда.
+// Запись: java -XX:StartFlightRecording=filename=graph.jfr ... , просмотр - JDK Mission Control
+public final class GraphEvents {
+
+    private GraphEvents() { }
+
+    @Name("graph.Solve")
+    @Label("Поиск разбиения")
+    @Category({"Graph Triangulation", "Solver"})
+    @StackTrace(false)
+    public static class Solve extends Event {
+        @Label("Вершин")
+        public int vertices;
+        @Label("Построение матрицы")
+        @Timespan
+        public long matrixBuildNanos;
+        @Label("Сериализация")
+        @Description("Обмен данными с внешним решателем; 0 для решателя внутри JVM")
+        @Timespan
+        public long serializationNanos;
+        @Label("Узлов перебора")
+        public long nodes;
+        @Label("Треугольников")
+        @Description("-1, если разбиения нет или поиск отменён")
+        public int triangles;
+        @Label("Отменён")
+        public boolean cancelled;
+    }
+
+    @Name("graph.HistoryOperation")
+    @Label("Операция истории")
+    @Category({"Graph Triangulation", "Editor"})
+    @StackTrace(false)
+    public static class HistoryOperation extends Event {
+        @Label("Операция")
+        @Description("record, undo или redo")
+        public String operation;
+        @Label("Память истории")
+        @DataAmount
+        public long historyBytes;
+    }
+
+    @Name("graph.FindVertex")
+    @Label("Поиск вершины по координатам")
+    @Category({"Graph Triangulation", "Editor"})
+    @StackTrace(false)
+    public static class FindVertex extends Event {
+        @Label("Найдена")
+        public boolean found;
+    }
+
+    @Name("graph.UpdateConnectedEdges")
+    @Label("Обновление рёбер вершины")
+    @Category({"Graph Triangulation", "Editor"})
+    @StackTrace(false)
+    public static class UpdateConnectedEdges extends Event {
+        @Label("Рёбер")
+        public int edges;
+    }
+
+    @Name("graph.DeleteVertex")
+    @Label("Удаление вершины")
+    @Category({"Graph Triangulation", "Editor"})
+    @StackTrace(false)
+    public static class DeleteVertex extends Event {
+        @Label("Номер вершины")
+        public int index;
+        @Label("Удалено рёбер")
+        public int removedEdges;
+    }
+}
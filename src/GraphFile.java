@@ -0,0 +1,91 @@
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Двоичный формат графа редактора (*.graph):
+//   int magic "GTRG", int версия, int n, int m
+//   n раз: double x, double y, double радиус
+//   m раз: int начало, int конец, int цвет ARGB, double толщина (толщины нет в версии 1, там она 1)
+// Файл читается и пишется через отображение в память, числа в порядке little-endian.
+// Запись идёт прямо из массивов модели, чтение собирает модель без промежуточных объектов
+public final class GraphFile {
+    public static final String EXTENSION = ".graph";
+    private static final int MAGIC = 0x47545247; // "GTRG"
+    private static final int VERSION = 2;
+    private static final int HEADER_BYTES = 16;
+    private static final int VERTEX_BYTES = 24;
+    private static final int EDGE_BYTES_V1 = 12;
+    private static final int EDGE_BYTES = 20;
+
+    private GraphFile() { }
+
+    // Вершины пишутся в плотной нумерации, концы рёбер - плотные номера вершин
+    public static void save(GraphModel model, Path file) throws IOException {
+        int n = model.vertexCount();
+        int m = model.edgeCount();
+        long size = HEADER_BYTES + (long) n * VERTEX_BYTES + (long) m * EDGE_BYTES;
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Граф слишком большой для файла: " + size + " байт");
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(n).putInt(m);
+            for (int i = 0; i < n; i++) {
+                int v = model.vertexAt(i);
+                buffer.putDouble(model.x(v)).putDouble(model.y(v)).putDouble(model.radius(v));
+            }
+            for (int i = 0; i < m; i++) {
+                int e = model.edgeAt(i);
+                buffer.putInt(model.indexOf(model.edgeStart(e))).putInt(model.indexOf(model.edgeEnd(e)))
+                        .putInt(model.edgeColor(e)).putDouble(model.edgeWidth(e));
+            }
+            buffer.force();
+        }
+    }
+
+    // Модель без подписчиков; вершины получают номера 0..n-1 в порядке файла
+    public static GraphModel load(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES || size > Integer.MAX_VALUE) {
+                throw new IOException("Неверный размер файла графа: " + size);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Файл не является файлом графа: " + file);
+            }
+            int version = buffer.getInt();
+            if (version != 1 && version != VERSION) {
+                throw new IOException("Неподдерживаемая версия файла графа: " + version);
+            }
+            int edgeBytes = version == 1 ? EDGE_BYTES_V1 : EDGE_BYTES;
+            int n = buffer.getInt();
+            int m = buffer.getInt();
+            if (n < 0 || m < 0 || size != HEADER_BYTES + (long) n * VERTEX_BYTES + (long) m * edgeBytes) {
+                throw new IOException("Файл графа повреждён: " + file);
+            }
+
+            GraphModel model = new GraphModel(n, m);
+            for (int i = 0; i < n; i++) {
+                model.addVertex(buffer.getDouble(), buffer.getDouble(), buffer.getDouble());
+            }
+            for (int i = 0; i < m; i++) {
+                int start = buffer.getInt();
+                int end = buffer.getInt();
+                int argb = buffer.getInt();
+                double width = version == 1 ? 1 : buffer.getDouble();
+                if (start < 0 || start >= n || end < 0 || end >= n || start == end) {
+                    throw new IOException("Ребро " + i + " ссылается на несуществующую вершину");
+                }
+                model.addEdge(start, end, argb, width);
+            }
+            return model;
+        }
+    }
+}
@@ -0,0 +1,221 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+// Потоковый импорт графов из текстовых форматов:
+//  - список рёбер: по ребру "u v" на строку, номера вершин - любые неотрицательные числа,
+//    строки с '#' или '%' - комментарии;
+//  - DIMACS: "c ..." - комментарий, "p edge n m" - заголовок, "e u v" - ребро (вершины с 1).
+// Файл читается побайтно через буфер, без разбиения строк. Петли и повторные рёбра отбрасываются,
+// вершины раскладываются по квадратной сетке. Результат - модель без подписчиков, собранная сразу
+// из массивов рёбер, без объекта на вершину или ребро
+public final class GraphImporter {
+    private static final double RADIUS = 10;
+    private static final double SPACING = 40; // Расстояние между соседними вершинами сетки
+
+    private GraphImporter() { }
+
+    public static GraphModel readEdgeList(Path file) throws IOException {
+        try (Tokenizer in = new Tokenizer(Files.newInputStream(file))) {
+            EdgeBuffer edges = new EdgeBuffer();
+            int maxId = -1;
+            while (in.skipToToken()) {
+                int c = in.peek();
+                if (c == '#' || c == '%') {
+                    in.skipLine();
+                    continue;
+                }
+                int u = in.readInt();
+                int v = in.readInt();
+                in.skipLine(); // Остальные столбцы (например, вес) не нужны
+                edges.add(u, v);
+                maxId = Math.max(maxId, Math.max(u, v));
+            }
+            // Сжимаем номера: вершинами становятся только встретившиеся номера, по возрастанию
+            int n = maxId < 2L * edges.size + 1024 ? remapDense(edges, maxId) : remapSparse(edges);
+            return build(n, edges);
+        }
+    }
+
+    public static GraphModel readDimacs(Path file) throws IOException {
+        try (Tokenizer in = new Tokenizer(Files.newInputStream(file))) {
+            EdgeBuffer edges = new EdgeBuffer();
+            int n = -1;
+            while (in.skipToToken()) {
+                int c = in.read();
+                if (c == 'p') {
+                    in.readWord(); // Формат задачи: edge, col и т.п.
+                    n = in.readInt();
+                    in.skipLine();
+                } else if (c == 'e') {
+                    if (n < 0) throw new IOException("Строка ребра до строки заголовка 'p'");
+                    int u = in.readInt() - 1;
+                    int v = in.readInt() - 1;
+                    if (u < 0 || u >= n || v < 0 || v >= n) {
+                        throw new IOException("Ребро " + (u + 1) + " " + (v + 1) + " вне диапазона 1.." + n);
+                    }
+                    edges.add(u, v);
+                    in.skipLine();
+                } else {
+                    in.skipLine(); // Комментарии и прочие строки
+                }
+            }
+            if (n < 0) throw new IOException("Нет строки заголовка 'p'");
+            return build(n, edges);
+        }
+    }
+
+    // Номера плотные (не больше удвоенного числа рёбер): перенумеровываем через массив по номеру
+    private static int remapDense(EdgeBuffer edges, int maxId) {
+        int[] remap = new int[maxId + 1];
+        for (int k = 0; k < edges.size; k++) {
+            remap[edges.from[k]] = 1;
+            remap[edges.to[k]] = 1;
+        }
+        int n = 0;
+        for (int id = 0; id <= maxId; id++) {
+            remap[id] = remap[id] != 0 ? n++ : -1;
+        }
+        for (int k = 0; k < edges.size; k++) {
+            edges.from[k] = remap[edges.from[k]];
+            edges.to[k] = remap[edges.to[k]];
+        }
+        return n;
+    }
+
+    // Номера разрежены (например, до Integer.MAX_VALUE): массив по номеру не заводим,
+    // а сортируем встретившиеся номера и ищем каждый двоичным поиском
+    private static int remapSparse(EdgeBuffer edges) {
+        int[] ids = new int[2 * edges.size];
+        System.arraycopy(edges.from, 0, ids, 0, edges.size);
+        System.arraycopy(edges.to, 0, ids, edges.size, edges.size);
+        Arrays.sort(ids);
+        int n = 0;
+        for (int i = 0; i < ids.length; i++) {
+            if (n == 0 || ids[i] != ids[n - 1]) ids[n++] = ids[i];
+        }
+        for (int k = 0; k < edges.size; k++) {
+            edges.from[k] = Arrays.binarySearch(ids, 0, n, edges.from[k]);
+            edges.to[k] = Arrays.binarySearch(ids, 0, n, edges.to[k]);
+        }
+        return n;
+    }
+
+    // Вершины получают номера 0..n-1 в порядке номеров файла
+    private static GraphModel build(int n, EdgeBuffer edges) {
+        long[] keys = edges.uniqueKeys();
+        GraphModel model = new GraphModel(n, keys.length);
+        int columns = Math.max((int) Math.ceil(Math.sqrt(n)), 1);
+        for (int i = 0; i < n; i++) {
+            model.addVertex(SPACING * (i % columns + 1), SPACING * (i / columns + 1), RADIUS);
+        }
+        for (long key : keys) {
+            model.addEdge((int) (key >>> 32), (int) key);
+        }
+        return model;
+    }
+
+    // Рёбра в двух массивах int, без объекта на ребро
+    private static final class EdgeBuffer {
+        int[] from = new int[1024];
+        int[] to = new int[1024];
+        int size = 0;
+
+        void add(int u, int v) {
+            if (size == from.length) {
+                from = Arrays.copyOf(from, size * 2);
+                to = Arrays.copyOf(to, size * 2);
+            }
+            from[size] = u;
+            to[size] = v;
+            size++;
+        }
+
+        // Упорядоченные пары (меньший, больший) в одном long, без петель и повторов
+        long[] uniqueKeys() {
+            long[] keys = new long[size];
+            int k = 0;
+            for (int i = 0; i < size; i++) {
+                int u = from[i], v = to[i];
+                if (u == v) continue;
+                keys[k++] = (long) Math.min(u, v) << 32 | Math.max(u, v);
+            }
+            Arrays.sort(keys, 0, k);
+            int unique = 0;
+            for (int i = 0; i < k; i++) {
+                if (unique == 0 || keys[i] != keys[unique - 1]) keys[unique++] = keys[i];
+            }
+            return Arrays.copyOf(keys, unique);
+        }
+    }
+
+    // Чтение чисел и слов прямо из байтов потока
+    private static final class Tokenizer implements AutoCloseable {
+        private final InputStream in;
+        private final byte[] buffer = new byte[1 << 16]; // Свой буфер: read() у BufferedInputStream берёт блокировку
+        private int position = 0, limit = 0;
+        private int next; // Следующий непрочитанный байт, -1 в конце потока
+
+        Tokenizer(InputStream in) throws IOException {
+            this.in = in;
+            this.next = fetch();
+        }
+
+        private int fetch() throws IOException {
+            if (position == limit) {
+                limit = in.read(buffer);
+                position = 0;
+                if (limit <= 0) {
+                    limit = 0;
+                    return -1;
+                }
+            }
+            return buffer[position++] & 0xFF;
+        }
+
+        int peek() {
+            return next;
+        }
+
+        int read() throws IOException {
+            int c = next;
+            next = fetch();
+            return c;
+        }
+
+        // Пропускаем пробелы и пустые строки; false, если поток закончился
+        boolean skipToToken() throws IOException {
+            while (next == ' ' || next == '\t' || next == '\r' || next == '\n') read();
+            return next != -1;
+        }
+
+        void skipLine() throws IOException {
+            while (next != -1 && next != '\n') read();
+        }
+
+        void readWord() throws IOException {
+            while (next == ' ' || next == '\t') read();
+            while (next != -1 && next > ' ') read();
+        }
+
+        int readInt() throws IOException {
+            while (next == ' ' || next == '\t' || next == ',') read();
+            if (next < '0' || next > '9') {
+                throw new IOException("Ожидалось число, найдено " + (next == -1 ? "конец файла" : "'" + (char) next + "'"));
+            }
+            long value = 0;
+            while (next >= '0' && next <= '9') {
+                value = value * 10 + (read() - '0');
+                if (value > Integer.MAX_VALUE) throw new IOException("Слишком большой номер вершины");
+            }
+            return (int) value;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
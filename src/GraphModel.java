@@ -0,0 +1,589 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Модель графа без JavaFX. Координаты и радиусы вершин хранятся в массивах double[], концы рёбер - в int[].
+// У каждой вершины и ребра есть постоянный номер (id): он не меняется, пока элемент существует.
+// Номер удалённого элемента попадает в список свободных и выдаётся следующему добавленному.
+// Кроме того, живые элементы плотно пронумерованы от 0 до count-1 (index). При удалении
+// на место удалённого переезжает последний, поэтому удаление ребра - O(1), а вершины - O(степени).
+// Плотные номера вершин совпадают с номерами в матрице смежности для решателей.
+// Рёбра вершины лежат в двусвязном списке "полурёбер": полуребро 2e принадлежит началу ребра e, 2e+1 - концу
+public class GraphModel {
+    public static final int BLACK = 0xFF000000; // Цвет ребра по умолчанию (ARGB)
+
+    // Подписчик на изменения модели. Вызывается после изменения; данные удалённого элемента
+    // (координаты, концы, цвет) в обработчике ещё доступны
+    public interface Listener {
+        default void vertexAdded(int vertex) { }
+
+        // Вершина с плотным номером lastIndex переехала на место удалённой (index)
+        default void vertexRemoved(int vertex, int index, int lastIndex) { }
+
+        // Вершины с плотными номерами index и lastIndex поменялись местами (возврат удалённой вершины)
+        default void verticesSwapped(int index, int lastIndex) { }
+
+        // Изменились положение или радиус; передаются прежние значения
+        default void vertexChanged(int vertex, double oldX, double oldY, double oldRadius) { }
+
+        default void edgeAdded(int edge) { }
+
+        default void edgeRemoved(int edge) { }
+
+        // Изменились цвет или толщина
+        default void edgeChanged(int edge) { }
+
+        // Граф заменён целиком
+        default void reset() { }
+    }
+
+    // Снятые с графа рёбра вместе со всем, что нужно для их восстановления
+    public static final class EdgeBatch {
+        private final int[] ids, starts, ends, colors;
+        private final double[] widths;
+
+        private EdgeBatch(int size) {
+            ids = new int[size];
+            starts = new int[size];
+            ends = new int[size];
+            colors = new int[size];
+            widths = new double[size];
+        }
+
+        public int size() {
+            return ids.length;
+        }
+    }
+
+    // Вершины
+    private double[] x, y, radius;
+    private int[] vertexIndex; // id -> плотный номер, -1 для свободного номера
+    private int[] vertexOrder; // Плотный номер -> id
+    private int[] firstHalf; // Первое полуребро вершины или -1
+    private int[] degree;
+    private int vertexCount = 0;
+    private int vertexSlots = 0; // Выданных номеров, включая свободные
+    private int[] freeVertices; // Стек свободных номеров
+    private int[] freeVertexPos; // Позиция номера в стеке, чтобы восстановить конкретный номер за O(1)
+    private int freeVertexCount = 0;
+
+    // Рёбра
+    private int[] start, end, color;
+    private double[] width;
+    private int[] edgeIndex, edgeOrder;
+    private int[] nextHalf, prevHalf; // Соседние полурёбра в списке вершины
+    private int edgeCount = 0;
+    private int edgeSlots = 0;
+    private int[] freeEdges, freeEdgePos;
+    private int freeEdgeCount = 0;
+
+    private final List<Listener> listeners = new ArrayList<>();
+
+    public GraphModel() {
+        this(16, 16);
+    }
+
+    public GraphModel(int vertexCapacity, int edgeCapacity) {
+        allocateVertices(Math.max(vertexCapacity, 1));
+        allocateEdges(Math.max(edgeCapacity, 1));
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    // Чтение
+    // Начало
+
+    public int vertexCount() { return vertexCount; }
+    public int edgeCount() { return edgeCount; }
+
+    // Верхняя граница номеров: все id меньше этого числа
+    public int vertexSlots() { return vertexSlots; }
+    public int edgeSlots() { return edgeSlots; }
+
+    public int vertexAt(int index) { return vertexOrder[index]; }
+    public int edgeAt(int index) { return edgeOrder[index]; }
+
+    // Плотный номер вершины или -1, если такой вершины нет
+    public int indexOf(int vertex) {
+        return vertex >= 0 && vertex < vertexSlots ? vertexIndex[vertex] : -1;
+    }
+
+    public boolean containsVertex(int vertex) { return indexOf(vertex) >= 0; }
+
+    public double x(int vertex) { return x[vertex]; }
+    public double y(int vertex) { return y[vertex]; }
+    public double radius(int vertex) { return radius[vertex]; }
+    public int degree(int vertex) { return degree[vertex]; }
+
+    public int edgeStart(int edge) { return start[edge]; }
+    public int edgeEnd(int edge) { return end[edge]; }
+    public int edgeColor(int edge) { return color[edge]; }
+    public double edgeWidth(int edge) { return width[edge]; }
+
+    // Второй конец ребра
+    public int opposite(int edge, int vertex) {
+        return start[edge] == vertex ? end[edge] : start[edge];
+    }
+
+    // Обход рёбер вершины без выделения памяти:
+    // for (int h = firstIncidence(v); h >= 0; h = nextIncidence(h)) { int e = incidenceEdge(h); ... }
+    public int firstIncidence(int vertex) { return firstHalf[vertex]; }
+    public int nextIncidence(int half) { return nextHalf[half]; }
+    public static int incidenceEdge(int half) { return half >>> 1; }
+
+    public int[] incidentEdges(int vertex) {
+        int[] result = new int[degree[vertex]];
+        int k = 0;
+        for (int h = firstHalf[vertex]; h >= 0; h = nextHalf[h]) {
+            result[k++] = h >>> 1;
+        }
+        return result;
+    }
+
+    // Ребро между a и b в любом направлении или -1; просматриваем список вершины с меньшей степенью
+    public int findEdge(int a, int b) {
+        int from = degree[a] <= degree[b] ? a : b;
+        int to = from == a ? b : a;
+        for (int h = firstHalf[from]; h >= 0; h = nextHalf[h]) {
+            int e = h >>> 1;
+            if (opposite(e, from) == to) return e;
+        }
+        return -1;
+    }
+
+    // Матрица смежности в плотной нумерации вершин
+    public BitAdjacencyMatrix toAdjacencyMatrix() {
+        BitAdjacencyMatrix matrix = new BitAdjacencyMatrix(vertexCount);
+        for (int i = 0; i < edgeCount; i++) {
+            int e = edgeOrder[i];
+            matrix.addEdge(vertexIndex[start[e]], vertexIndex[end[e]]);
+        }
+        return matrix;
+    }
+    // Конец
+
+    // Вершины
+    // Начало
+
+    public int addVertex(double vx, double vy, double r) {
+        int id;
+        if (freeVertexCount > 0) {
+            id = freeVertices[--freeVertexCount];
+        } else {
+            if (vertexSlots == x.length) growVertices();
+            id = vertexSlots++;
+        }
+        placeVertex(id, vx, vy, r);
+        return id;
+    }
+
+    // Возвращаем удалённую вершину под прежним номером и на прежнее место index в плотном порядке
+    // (для отмены удаления): вершина, переехавшая туда при удалении, возвращается в конец.
+    // Так матрица смежности после отмены совпадает с прежней, а с ней и отпечаток для кэша решений
+    public void restoreVertex(int id, int index, double vx, double vy, double r) {
+        while (id >= x.length) growVertices();
+        if (id >= vertexSlots) {
+            // Номера между старой границей и id становятся свободными
+            for (int k = vertexSlots; k < id; k++) {
+                vertexIndex[k] = -1;
+                pushFreeVertex(k);
+            }
+            vertexSlots = id + 1;
+        } else {
+            if (vertexIndex[id] >= 0) throw new IllegalStateException("Вершина " + id + " уже существует");
+            takeFreeVertex(id);
+        }
+        placeVertex(id, vx, vy, r);
+        int lastIndex = vertexCount - 1;
+        if (index < lastIndex) {
+            int moved = vertexOrder[index];
+            vertexOrder[index] = id;
+            vertexIndex[id] = index;
+            vertexOrder[lastIndex] = moved;
+            vertexIndex[moved] = lastIndex;
+            for (Listener listener : listeners) listener.verticesSwapped(index, lastIndex);
+        }
+    }
+
+    // Удаляем вершину вместе с рёбрами; возвращаем рёбра, чтобы удаление можно было отменить
+    public EdgeBatch removeVertex(int id) {
+        EdgeBatch removed = removeEdges(incidentEdges(id));
+        int index = vertexIndex[id];
+        int lastIndex = --vertexCount;
+        int moved = vertexOrder[lastIndex];
+        vertexOrder[index] = moved;
+        vertexIndex[moved] = index;
+        vertexIndex[id] = -1;
+        pushFreeVertex(id);
+        for (Listener listener : listeners) listener.vertexRemoved(id, index, lastIndex);
+        return removed;
+    }
+
+    public void moveVertex(int id, double vx, double vy) {
+        double oldX = x[id], oldY = y[id];
+        x[id] = vx;
+        y[id] = vy;
+        for (Listener listener : listeners) listener.vertexChanged(id, oldX, oldY, radius[id]);
+    }
+
+    public void setRadius(int id, double r) {
+        double oldRadius = radius[id];
+        radius[id] = r;
+        for (Listener listener : listeners) listener.vertexChanged(id, x[id], y[id], oldRadius);
+    }
+
+    private void placeVertex(int id, double vx, double vy, double r) {
+        x[id] = vx;
+        y[id] = vy;
+        radius[id] = r;
+        firstHalf[id] = -1;
+        degree[id] = 0;
+        vertexIndex[id] = vertexCount;
+        vertexOrder[vertexCount++] = id;
+        for (Listener listener : listeners) listener.vertexAdded(id);
+    }
+
+    private void pushFreeVertex(int id) {
+        freeVertexPos[id] = freeVertexCount;
+        freeVertices[freeVertexCount++] = id;
+    }
+
+    private void takeFreeVertex(int id) {
+        int pos = freeVertexPos[id];
+        int top = freeVertices[--freeVertexCount];
+        freeVertices[pos] = top;
+        freeVertexPos[top] = pos;
+    }
+    // Конец
+
+    // Рёбра
+    // Начало
+
+    public int addEdge(int a, int b) {
+        return addEdge(a, b, BLACK, 1);
+    }
+
+    public int addEdge(int a, int b, int argb, double lineWidth) {
+        int id;
+        if (freeEdgeCount > 0) {
+            id = freeEdges[--freeEdgeCount];
+        } else {
+            if (edgeSlots == start.length) growEdges();
+            id = edgeSlots++;
+        }
+        placeEdge(id, a, b, argb, lineWidth);
+        return id;
+    }
+
+    // Возвращаем удалённое ребро под прежним номером
+    public void restoreEdge(int id, int a, int b, int argb, double lineWidth) {
+        while (id >= start.length) growEdges();
+        if (id >= edgeSlots) {
+            for (int k = edgeSlots; k < id; k++) {
+                edgeIndex[k] = -1;
+                pushFreeEdge(k);
+            }
+            edgeSlots = id + 1;
+        } else {
+            if (edgeIndex[id] >= 0) throw new IllegalStateException("Ребро " + id + " уже существует");
+            takeFreeEdge(id);
+        }
+        placeEdge(id, a, b, argb, lineWidth);
+    }
+
+    public void removeEdge(int id) {
+        unlink(2 * id, start[id]);
+        unlink(2 * id + 1, end[id]);
+        int index = edgeIndex[id];
+        int moved = edgeOrder[--edgeCount];
+        edgeOrder[index] = moved;
+        edgeIndex[moved] = index;
+        edgeIndex[id] = -1;
+        pushFreeEdge(id);
+        for (Listener listener : listeners) listener.edgeRemoved(id);
+    }
+
+    public EdgeBatch removeEdges(int[] ids) {
+        return removeEdges(ids, ids.length);
+    }
+
+    // Удаляем первые count рёбер из ids; сам массив можно использовать повторно
+    public EdgeBatch removeEdges(int[] ids, int count) {
+        EdgeBatch batch = new EdgeBatch(count);
+        for (int i = 0; i < count; i++) {
+            int e = ids[i];
+            batch.ids[i] = e;
+            batch.starts[i] = start[e];
+            batch.ends[i] = end[e];
+            batch.colors[i] = color[e];
+            batch.widths[i] = width[e];
+            removeEdge(e);
+        }
+        return batch;
+    }
+
+    public void restoreEdges(EdgeBatch batch) {
+        for (int i = 0; i < batch.ids.length; i++) {
+            restoreEdge(batch.ids[i], batch.starts[i], batch.ends[i], batch.colors[i], batch.widths[i]);
+        }
+    }
+
+    // Снова удаляем рёбра пакета после restoreEdges (возврат отменённого удаления)
+    public void removeEdges(EdgeBatch batch) {
+        for (int e : batch.ids) {
+            removeEdge(e);
+        }
+    }
+
+    public void setEdgeStyle(int id, int argb, double lineWidth) {
+        if (color[id] == argb && width[id] == lineWidth) return;
+        color[id] = argb;
+        width[id] = lineWidth;
+        for (Listener listener : listeners) listener.edgeChanged(id);
+    }
+
+    private void placeEdge(int id, int a, int b, int argb, double lineWidth) {
+        start[id] = a;
+        end[id] = b;
+        color[id] = argb;
+        width[id] = lineWidth;
+        link(2 * id, a);
+        link(2 * id + 1, b);
+        edgeIndex[id] = edgeCount;
+        edgeOrder[edgeCount++] = id;
+        for (Listener listener : listeners) listener.edgeAdded(id);
+    }
+
+    // Вставляем полуребро в начало списка вершины
+    private void link(int half, int vertex) {
+        int first = firstHalf[vertex];
+        nextHalf[half] = first;
+        prevHalf[half] = -1;
+        if (first >= 0) prevHalf[first] = half;
+        firstHalf[vertex] = half;
+        degree[vertex]++;
+    }
+
+    private void unlink(int half, int vertex) {
+        int prev = prevHalf[half], next = nextHalf[half];
+        if (prev >= 0) nextHalf[prev] = next; else firstHalf[vertex] = next;
+        if (next >= 0) prevHalf[next] = prev;
+        degree[vertex]--;
+    }
+
+    private void pushFreeEdge(int id) {
+        freeEdgePos[id] = freeEdgeCount;
+        freeEdges[freeEdgeCount++] = id;
+    }
+
+    private void takeFreeEdge(int id) {
+        int pos = freeEdgePos[id];
+        int top = freeEdges[--freeEdgeCount];
+        freeEdges[pos] = top;
+        freeEdgePos[top] = pos;
+    }
+    // Конец
+
+    // Граф целиком
+    // Начало
+
+    // Удаляем всё; номера снова выдаются с нуля
+    public void clear() {
+        vertexCount = vertexSlots = freeVertexCount = 0;
+        edgeCount = edgeSlots = freeEdgeCount = 0;
+        for (Listener listener : listeners) listener.reset();
+    }
+
+    // Копия данных без подписчиков
+    public GraphModel snapshot() {
+        GraphModel copy = new GraphModel(1, 1);
+        copy.copyFrom(this);
+        return copy;
+    }
+
+    // Заменяем содержимое копией source; номера вершин и рёбер сохраняются
+    public void restore(GraphModel source) {
+        copyFrom(source);
+        for (Listener listener : listeners) listener.reset();
+    }
+
+    private void copyFrom(GraphModel s) {
+        int v = Math.max(s.vertexSlots, 1), e = Math.max(s.edgeSlots, 1);
+        x = Arrays.copyOf(s.x, v);
+        y = Arrays.copyOf(s.y, v);
+        radius = Arrays.copyOf(s.radius, v);
+        vertexIndex = Arrays.copyOf(s.vertexIndex, v);
+        vertexOrder = Arrays.copyOf(s.vertexOrder, v);
+        firstHalf = Arrays.copyOf(s.firstHalf, v);
+        degree = Arrays.copyOf(s.degree, v);
+        freeVertices = Arrays.copyOf(s.freeVertices, v);
+        freeVertexPos = Arrays.copyOf(s.freeVertexPos, v);
+        vertexCount = s.vertexCount;
+        vertexSlots = s.vertexSlots;
+        freeVertexCount = s.freeVertexCount;
+
+        start = Arrays.copyOf(s.start, e);
+        end = Arrays.copyOf(s.end, e);
+        color = Arrays.copyOf(s.color, e);
+        width = Arrays.copyOf(s.width, e);
+        edgeIndex = Arrays.copyOf(s.edgeIndex, e);
+        edgeOrder = Arrays.copyOf(s.edgeOrder, e);
+        nextHalf = Arrays.copyOf(s.nextHalf, 2 * e);
+        prevHalf = Arrays.copyOf(s.prevHalf, 2 * e);
+        freeEdges = Arrays.copyOf(s.freeEdges, e);
+        freeEdgePos = Arrays.copyOf(s.freeEdgePos, e);
+        edgeCount = s.edgeCount;
+        edgeSlots = s.edgeSlots;
+        freeEdgeCount = s.freeEdgeCount;
+    }
+
+    // Точная копия в поток вместе со свободными номерами и порядком списков:
+    // после read новые вершины и рёбра получат те же номера, что получили бы здесь
+    public void write(DataOutput out) throws IOException {
+        out.writeInt(vertexSlots);
+        out.writeInt(vertexCount);
+        out.writeInt(freeVertexCount);
+        writeDoubles(out, x, vertexSlots);
+        writeDoubles(out, y, vertexSlots);
+        writeDoubles(out, radius, vertexSlots);
+        writeInts(out, vertexIndex, vertexSlots);
+        writeInts(out, vertexOrder, vertexCount);
+        writeInts(out, firstHalf, vertexSlots);
+        writeInts(out, degree, vertexSlots);
+        writeInts(out, freeVertices, freeVertexCount);
+        writeInts(out, freeVertexPos, vertexSlots);
+
+        out.writeInt(edgeSlots);
+        out.writeInt(edgeCount);
+        out.writeInt(freeEdgeCount);
+        writeInts(out, start, edgeSlots);
+        writeInts(out, end, edgeSlots);
+        writeInts(out, color, edgeSlots);
+        writeDoubles(out, width, edgeSlots);
+        writeInts(out, edgeIndex, edgeSlots);
+        writeInts(out, edgeOrder, edgeCount);
+        writeInts(out, nextHalf, 2 * edgeSlots);
+        writeInts(out, prevHalf, 2 * edgeSlots);
+        writeInts(out, freeEdges, freeEdgeCount);
+        writeInts(out, freeEdgePos, edgeSlots);
+    }
+
+    public static GraphModel read(DataInput in) throws IOException {
+        int vSlots = in.readInt(), vCount = in.readInt(), vFree = in.readInt();
+        if (vSlots < 0 || vCount < 0 || vFree < 0 || vCount + vFree != vSlots) {
+            throw new IOException("Повреждённые данные графа");
+        }
+        GraphModel m = new GraphModel(1, 1);
+        m.allocateVertices(Math.max(vSlots, 1));
+        readDoubles(in, m.x, vSlots);
+        readDoubles(in, m.y, vSlots);
+        readDoubles(in, m.radius, vSlots);
+        readInts(in, m.vertexIndex, vSlots);
+        readInts(in, m.vertexOrder, vCount);
+        readInts(in, m.firstHalf, vSlots);
+        readInts(in, m.degree, vSlots);
+        readInts(in, m.freeVertices, vFree);
+        readInts(in, m.freeVertexPos, vSlots);
+        m.vertexSlots = vSlots;
+        m.vertexCount = vCount;
+        m.freeVertexCount = vFree;
+
+        int eSlots = in.readInt(), eCount = in.readInt(), eFree = in.readInt();
+        if (eSlots < 0 || eCount < 0 || eFree < 0 || eCount + eFree != eSlots) {
+            throw new IOException("Повреждённые данные графа");
+        }
+        m.allocateEdges(Math.max(eSlots, 1));
+        readInts(in, m.start, eSlots);
+        readInts(in, m.end, eSlots);
+        readInts(in, m.color, eSlots);
+        readDoubles(in, m.width, eSlots);
+        readInts(in, m.edgeIndex, eSlots);
+        readInts(in, m.edgeOrder, eCount);
+        readInts(in, m.nextHalf, 2 * eSlots);
+        readInts(in, m.prevHalf, 2 * eSlots);
+        readInts(in, m.freeEdges, eFree);
+        readInts(in, m.freeEdgePos, eSlots);
+        m.edgeSlots = eSlots;
+        m.edgeCount = eCount;
+        m.freeEdgeCount = eFree;
+        return m;
+    }
+
+    private static void writeInts(DataOutput out, int[] values, int n) throws IOException {
+        for (int i = 0; i < n; i++) out.writeInt(values[i]);
+    }
+
+    private static void writeDoubles(DataOutput out, double[] values, int n) throws IOException {
+        for (int i = 0; i < n; i++) out.writeDouble(values[i]);
+    }
+
+    private static void readInts(DataInput in, int[] values, int n) throws IOException {
+        for (int i = 0; i < n; i++) values[i] = in.readInt();
+    }
+
+    private static void readDoubles(DataInput in, double[] values, int n) throws IOException {
+        for (int i = 0; i < n; i++) values[i] = in.readDouble();
+    }
+    // Конец
+
+    private void allocateVertices(int capacity) {
+        x = new double[capacity];
+        y = new double[capacity];
+        radius = new double[capacity];
+        vertexIndex = new int[capacity];
+        vertexOrder = new int[capacity];
+        firstHalf = new int[capacity];
+        degree = new int[capacity];
+        freeVertices = new int[capacity];
+        freeVertexPos = new int[capacity];
+    }
+
+    private void allocateEdges(int capacity) {
+        start = new int[capacity];
+        end = new int[capacity];
+        color = new int[capacity];
+        width = new double[capacity];
+        edgeIndex = new int[capacity];
+        edgeOrder = new int[capacity];
+        nextHalf = new int[2 * capacity];
+        prevHalf = new int[2 * capacity];
+        freeEdges = new int[capacity];
+        freeEdgePos = new int[capacity];
+    }
+
+    private void growVertices() {
+        int capacity = x.length * 2;
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        radius = Arrays.copyOf(radius, capacity);
+        vertexIndex = Arrays.copyOf(vertexIndex, capacity);
+        vertexOrder = Arrays.copyOf(vertexOrder, capacity);
+        firstHalf = Arrays.copyOf(firstHalf, capacity);
+        degree = Arrays.copyOf(degree, capacity);
+        freeVertices = Arrays.copyOf(freeVertices, capacity);
+        freeVertexPos = Arrays.copyOf(freeVertexPos, capacity);
+    }
+
+    private void growEdges() {
+        int capacity = start.length * 2;
+        start = Arrays.copyOf(start, capacity);
+        end = Arrays.copyOf(end, capacity);
+        color = Arrays.copyOf(color, capacity);
+        width = Arrays.copyOf(width, capacity);
+        edgeIndex = Arrays.copyOf(edgeIndex, capacity);
+        edgeOrder = Arrays.copyOf(edgeOrder, capacity);
+        nextHalf = Arrays.copyOf(nextHalf, 2 * capacity);
+        prevHalf = Arrays.copyOf(prevHalf, 2 * capacity);
+        freeEdges = Arrays.copyOf(freeEdges, capacity);
+        freeEdgePos = Arrays.copyOf(freeEdgePos, capacity);
+    }
+}
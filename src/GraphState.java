@@ -1,5 +1,4 @@
 import javafx.scene.paint.Color;
-import javafx.scene.shape.Circle;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -7,25 +6,30 @@ public class GraphState {
     public final List<VertexData> verticesData;
     public final List<EdgeData> edgesData;
 
-    public GraphState(List<Circle> vertices, List<EdgeInfo> edges) {
-        this.verticesData = new ArrayList<>();
-        for (Circle vertex : vertices) {
-            verticesData.add(new VertexData(
-                    vertex.getCenterX(),
-                    vertex.getCenterY(),
-                    vertex.getRadius()
-            ));
+    // Снимок модели: вершины в плотной нумерации, концы рёбер - плотные номера вершин
+    public GraphState(GraphModel model) {
+        this.verticesData = new ArrayList<>(model.vertexCount());
+        for (int i = 0; i < model.vertexCount(); i++) {
+            int v = model.vertexAt(i);
+            verticesData.add(new VertexData(model.x(v), model.y(v), model.radius(v)));
         }
-        this.edgesData = new ArrayList<>();
-        for (EdgeInfo edge : edges) {
+        this.edgesData = new ArrayList<>(model.edgeCount());
+        for (int i = 0; i < model.edgeCount(); i++) {
+            int e = model.edgeAt(i);
             edgesData.add(new EdgeData(
-                    edge.getStartIndex(),
-                    edge.getEndIndex(),
-                    (Color) edge.getLine().getStroke() // сохраняем цвет ребра
+                    model.indexOf(model.edgeStart(e)),
+                    model.indexOf(model.edgeEnd(e)),
+                    GraphView.color(model.edgeColor(e)) // сохраняем цвет ребра
             ));
         }
     }
 
+    // Состояние, прочитанное из файла
+    public GraphState(List<VertexData> verticesData, List<EdgeData> edgesData) {
+        this.verticesData = verticesData;
+        this.edgesData = edgesData;
+    }
+
     public static class VertexData {
         public double x, y, radius;
         public VertexData(double x, double y, double radius) {
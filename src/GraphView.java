@@ -0,0 +1,330 @@
+import javafx.scene.Node;
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.Circle;
+import javafx.scene.shape.Line;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+// Отображение GraphModel на экране. Подписано на изменения модели и само решает, как показать граф:
+// небольшой граф - узлами Circle и Line в сцене (по одному на номер вершины и ребра),
+// большой - на холсте CanvasGraphRenderer, тогда узлов сцены нет вовсе.
+// Здесь же подсветка выделенных вершин и заливка вершин по проверке TriangleCoverage;
+// поиск вершин по координатам - в VertexGrid
+public class GraphView implements GraphModel.Listener {
+    private static final Color SELECTION = Color.DODGERBLUE;
+    private static final double SELECTION_WIDTH = 3;
+    private static final Color NO_TRIANGLE = Color.CRIMSON; // Вершина не входит ни в один треугольник
+    private static final Color BAD_COMPONENT = Color.DARKORANGE; // Размер компоненты вершины не кратен 3
+    private static final int COLOR_CACHE_BITS = 12;
+    // Объекты Color по ARGB без упаковки ключей (только поток JavaFX): ячейка выбирается по хэшу цвета,
+    // новый цвет вытесняет прежний из своей ячейки
+    private static final int[] colorKeys = new int[1 << COLOR_CACHE_BITS];
+    private static final Color[] colorValues = new Color[1 << COLOR_CACHE_BITS];
+
+    private final GraphModel model;
+    private final Pane host;
+    private final EditorMetrics metrics;
+    private final int canvasThreshold; // Число элементов, с которого включается холст
+    private final CanvasGraphRenderer renderer;
+    private final BitSet highlighted = new BitSet(); // Номера выделенных вершин
+    private Circle[] circles = new Circle[0]; // Узлы вершин по номеру; пусто в режиме холста
+    private Line[] lines = new Line[0]; // Узлы рёбер по номеру
+    private TriangleCoverage coverage = null; // Проверка покрытия треугольниками, если включена
+    private final BitSet coverageChanges = new BitSet(); // Вершины, которые надо перекрасить
+
+    public GraphView(GraphModel model, Pane host, EditorMetrics metrics, int canvasThreshold) {
+        this.model = model;
+        this.host = host;
+        this.metrics = metrics;
+        this.canvasThreshold = canvasThreshold;
+        this.renderer = new CanvasGraphRenderer(host, model, highlighted);
+        model.addListener(this);
+    }
+
+    public boolean isCanvasActive() {
+        return renderer.isActive();
+    }
+
+    // Переключаемся на холст, когда элементов больше порога, и обратно, когда их стало вдвое меньше
+    public void updateRenderMode() {
+        int elements = model.vertexCount() + model.edgeCount();
+        if (!renderer.isActive() && elements > canvasThreshold) {
+            dropNodes();
+            renderer.activate();
+        } else if (renderer.isActive() && elements < canvasThreshold / 2) {
+            renderer.deactivate();
+            buildNodes();
+            paintCoverage();
+        }
+    }
+
+    // Включаем (или выключаем при null) заливку вершин по проверке покрытия
+    public void setCoverage(TriangleCoverage coverage) {
+        this.coverage = coverage;
+        coverageChanges.clear();
+        if (coverage != null) {
+            coverage.takeChanges(coverageChanges); // Накопленное не нужно: ниже перекрашиваются все вершины
+            coverageChanges.clear();
+        }
+        renderer.setCoverage(coverage);
+        if (renderer.isActive()) {
+            renderer.markAllDirty();
+        } else {
+            paintCoverage();
+        }
+    }
+
+    // Перекрашиваем вершины, у которых сменился статус покрытия; Main вызывает это раз за кадр.
+    // Новые вершины создаются чёрными (проверка узнаёт о них позже вида) и получают цвет здесь же, до отрисовки кадра
+    public void refreshCoverage() {
+        if (coverage == null) return;
+        if (coverage.takeChanges(coverageChanges)) {
+            coverageChanges.clear();
+            if (renderer.isActive()) {
+                renderer.markAllDirty();
+            } else {
+                paintCoverage();
+            }
+            return;
+        }
+        for (int v = coverageChanges.nextSetBit(0); v >= 0; v = coverageChanges.nextSetBit(v + 1)) {
+            if (!model.containsVertex(v)) continue;
+            if (renderer.isActive()) {
+                renderer.markCircle(model.x(v), model.y(v), model.radius(v));
+            } else {
+                circles[v].setFill(coverageFill(coverage, v));
+            }
+        }
+        coverageChanges.clear();
+    }
+
+    // Заливка всех узлов вершин
+    private void paintCoverage() {
+        if (renderer.isActive()) return;
+        for (int i = 0; i < model.vertexCount(); i++) {
+            int v = model.vertexAt(i);
+            circles[v].setFill(coverageFill(coverage, v));
+        }
+    }
+
+    // Цвет вершины: чёрный, если проверка выключена или условия выполнены
+    public static Color coverageFill(TriangleCoverage coverage, int vertex) {
+        if (coverage == null) return Color.BLACK;
+        return switch (coverage.status(vertex)) {
+            case TriangleCoverage.NO_TRIANGLE -> NO_TRIANGLE;
+            case TriangleCoverage.BAD_COMPONENT -> BAD_COMPONENT;
+            default -> Color.BLACK;
+        };
+    }
+
+    public void setHighlighted(int vertex, boolean on) {
+        if (highlighted.get(vertex) == on) return;
+        highlighted.set(vertex, on);
+        if (renderer.isActive()) {
+            renderer.markVertex(vertex);
+        } else if (vertex < circles.length && circles[vertex] != null) {
+            circles[vertex].setStroke(on ? SELECTION : null);
+            circles[vertex].setStrokeWidth(SELECTION_WIDTH);
+        }
+    }
+
+    public boolean isHighlighted(int vertex) {
+        return highlighted.get(vertex);
+    }
+
+    // Изменения модели
+    // Начало
+
+    @Override
+    public void vertexAdded(int vertex) {
+        if (renderer.isActive()) {
+            renderer.markVertex(vertex);
+        } else {
+            Circle circle = createCircle(vertex);
+            host.getChildren().add(circle);
+        }
+    }
+
+    @Override
+    public void vertexRemoved(int vertex, int index, int lastIndex) {
+        highlighted.clear(vertex);
+        if (renderer.isActive()) {
+            renderer.markCircle(model.x(vertex), model.y(vertex), model.radius(vertex));
+        } else {
+            host.getChildren().remove(circles[vertex]);
+            circles[vertex] = null;
+        }
+    }
+
+    @Override
+    public void vertexChanged(int vertex, double oldX, double oldY, double oldRadius) {
+        double x = model.x(vertex), y = model.y(vertex), r = model.radius(vertex);
+        if (renderer.isActive()) {
+            // Старое положение вершины и её рёбер
+            renderer.markCircle(oldX, oldY, oldRadius);
+            for (int h = model.firstIncidence(vertex); h >= 0; h = model.nextIncidence(h)) {
+                int e = GraphModel.incidenceEdge(h);
+                int other = model.opposite(e, vertex);
+                renderer.markSegment(oldX, oldY, model.x(other), model.y(other), model.edgeWidth(e));
+            }
+            renderer.markVertex(vertex);
+        } else {
+            Circle circle = circles[vertex];
+            circle.setCenterX(x);
+            circle.setCenterY(y);
+            circle.setRadius(r);
+        }
+        if (x != oldX || y != oldY) {
+            updateConnectedEdges(vertex);
+        }
+    }
+
+    @Override
+    public void edgeAdded(int edge) {
+        if (renderer.isActive()) {
+            renderer.markEdge(edge);
+        } else {
+            host.getChildren().add(createLine(edge));
+        }
+    }
+
+    @Override
+    public void edgeRemoved(int edge) {
+        if (renderer.isActive()) {
+            renderer.markEdge(edge);
+        } else {
+            host.getChildren().remove(lines[edge]);
+            lines[edge] = null;
+        }
+    }
+
+    @Override
+    public void edgeChanged(int edge) {
+        if (renderer.isActive()) {
+            renderer.markEdge(edge);
+        } else {
+            lines[edge].setStroke(color(model.edgeColor(edge)));
+            lines[edge].setStrokeWidth(model.edgeWidth(edge));
+        }
+    }
+
+    // Граф заменён: перестраиваем узлы; большой граф сразу показываем на холсте
+    @Override
+    public void reset() {
+        highlighted.clear();
+        if (model.vertexCount() + model.edgeCount() > canvasThreshold) {
+            if (renderer.isActive()) {
+                renderer.markAllDirty();
+            } else {
+                dropNodes();
+                renderer.activate();
+            }
+        } else {
+            if (renderer.isActive()) {
+                renderer.deactivate();
+            }
+            buildNodes();
+        }
+    }
+    // Конец
+
+    // Двигаем концы линий вслед за вершиной (в режиме холста линий нет, рёбра перерисовывает холст)
+    private void updateConnectedEdges(int vertex) {
+        if (renderer.isActive()) return;
+        GraphEvents.UpdateConnectedEdges event = new GraphEvents.UpdateConnectedEdges();
+        event.begin();
+        long start = System.nanoTime();
+        moveEdgeEnds(model, lines, vertex);
+        metrics.updateEdges.add(System.nanoTime() - start);
+        event.end();
+        if (event.shouldCommit()) {
+            event.edges = model.degree(vertex);
+            event.commit();
+        }
+    }
+
+    // Переносим концы линий рёбер вершины в её текущее положение, проходя только её инцидентные рёбра.
+    // Видна в пакете, чтобы бенчмарки и воспроизведение записи вызывали тот же код, что и вид
+    static void moveEdgeEnds(GraphModel model, Line[] lines, int vertex) {
+        double x = model.x(vertex), y = model.y(vertex);
+        for (int h = model.firstIncidence(vertex); h >= 0; h = model.nextIncidence(h)) {
+            int e = GraphModel.incidenceEdge(h);
+            Line line = lines[e];
+            if (model.edgeStart(e) == vertex) {
+                line.setStartX(x);
+                line.setStartY(y);
+            } else {
+                line.setEndX(x);
+                line.setEndY(y);
+            }
+        }
+    }
+
+    // Создаём узлы для всего графа и добавляем их в сцену одним вызовом: рёбра под вершинами
+    private void buildNodes() {
+        circles = new Circle[Math.max(model.vertexSlots(), 16)];
+        lines = new Line[Math.max(model.edgeSlots(), 16)];
+        List<Node> nodes = new ArrayList<>(model.vertexCount() + model.edgeCount());
+        for (int i = 0; i < model.edgeCount(); i++) {
+            nodes.add(createLine(model.edgeAt(i)));
+        }
+        for (int i = 0; i < model.vertexCount(); i++) {
+            nodes.add(createCircle(model.vertexAt(i)));
+        }
+        host.getChildren().setAll(nodes);
+    }
+
+    // В режиме холста узлы не нужны - освобождаем память
+    private void dropNodes() {
+        circles = new Circle[0];
+        lines = new Line[0];
+    }
+
+    private Circle createCircle(int vertex) {
+        if (vertex >= circles.length) {
+            circles = Arrays.copyOf(circles, Math.max(2 * circles.length, vertex + 1));
+        }
+        Circle circle = new Circle(model.x(vertex), model.y(vertex), model.radius(vertex));
+        if (highlighted.get(vertex)) {
+            circle.setStroke(SELECTION);
+            circle.setStrokeWidth(SELECTION_WIDTH);
+        }
+        circles[vertex] = circle;
+        return circle;
+    }
+
+    private Line createLine(int edge) {
+        if (edge >= lines.length) {
+            lines = Arrays.copyOf(lines, Math.max(2 * lines.length, edge + 1));
+        }
+        int a = model.edgeStart(edge), b = model.edgeEnd(edge);
+        Line line = new Line(model.x(a), model.y(a), model.x(b), model.y(b));
+        line.setStroke(color(model.edgeColor(edge)));
+        line.setStrokeWidth(model.edgeWidth(edge));
+        lines[edge] = line;
+        return line;
+    }
+
+    // Цвет по ARGB; цветов обычно немного (палитра решения), поэтому объекты Color переиспользуются
+    public static Color color(int argb) {
+        int slot = (argb * 0x9E3779B9) >>> (32 - COLOR_CACHE_BITS);
+        Color color = colorValues[slot];
+        if (color == null || colorKeys[slot] != argb) {
+            color = Color.rgb(argb >>> 16 & 0xFF, argb >>> 8 & 0xFF, argb & 0xFF, (argb >>> 24) / 255.0);
+            colorKeys[slot] = argb;
+            colorValues[slot] = color;
+        }
+        return color;
+    }
+
+    public static int argb(Color color) {
+        return (int) Math.round(color.getOpacity() * 255) << 24
+                | (int) Math.round(color.getRed() * 255) << 16
+                | (int) Math.round(color.getGreen() * 255) << 8
+                | (int) Math.round(color.getBlue() * 255);
+    }
+}
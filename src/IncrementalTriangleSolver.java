@@ -0,0 +1,179 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Решатель, запоминающий последнее найденное разбиение. После небольшой правки графа
+// треугольники, оставшиеся целыми, сохраняются, а поиск запускается заново только на вершинах
+// разрушенных треугольников и их окрестности радиуса 1, затем 2. Если локально разбиение
+// восстановить не удалось, выполняется полный поиск
+public class IncrementalTriangleSolver implements TrianglePartitionSolver {
+    private static final int MAX_RADIUS = 2; // Наибольший радиус окрестности для локального поиска
+
+    private final TrianglePartitionSolver base; // Решатель для локального и полного поиска
+    private final Object lock = new Object(); // Защищает last и generation
+    private List<int[]> last = null; // Последнее найденное разбиение
+    private int generation = 0; // Увеличивается при каждом изменении набора вершин
+
+    public IncrementalTriangleSolver(TrianglePartitionSolver base) {
+        this.base = base;
+    }
+
+    public TrianglePartitionSolver getBase() {
+        return base;
+    }
+
+    // Граф заменён целиком, прошлое разбиение больше не подходит
+    public void reset() {
+        synchronized (lock) {
+            generation++;
+            last = null;
+        }
+    }
+
+    // Вершина с номером index удалена, на её место переехала последняя вершина (lastIndex)
+    public void vertexRemoved(int index, int lastIndex) {
+        synchronized (lock) {
+            generation++;
+            if (last == null) return;
+            List<int[]> renamed = new ArrayList<>(last.size());
+            for (int[] t : last) {
+                if (t[0] == index || t[1] == index || t[2] == index) continue;
+                int[] s = new int[3];
+                for (int k = 0; k < 3; k++) {
+                    s[k] = t[k] == lastIndex ? index : t[k];
+                }
+                Arrays.sort(s); // repair() рассчитывает на возрастающий порядок вершин
+                renamed.add(s);
+            }
+            last = renamed;
+        }
+    }
+
+    // Вершина добавлена в конец нумерации; номера остальных вершин не изменились
+    public void vertexAdded() {
+        synchronized (lock) {
+            generation++;
+        }
+    }
+
+    // Вершины с плотными номерами index и lastIndex поменялись местами
+    public void verticesSwapped(int index, int lastIndex) {
+        synchronized (lock) {
+            generation++;
+            if (last == null) return;
+            List<int[]> renamed = new ArrayList<>(last.size());
+            for (int[] t : last) {
+                int[] s = new int[3];
+                for (int k = 0; k < 3; k++) {
+                    s[k] = t[k] == index ? lastIndex : t[k] == lastIndex ? index : t[k];
+                }
+                Arrays.sort(s); // repair() рассчитывает на возрастающий порядок вершин
+                renamed.add(s);
+            }
+            last = renamed;
+        }
+    }
+
+    @Override
+    public List<int[]> solve(BitAdjacencyMatrix graph, SearchControl control) {
+        List<int[]> previous;
+        int startGeneration;
+        synchronized (lock) {
+            previous = last;
+            startGeneration = generation;
+        }
+
+        List<int[]> result = null;
+        if (previous != null && graph.size() % 3 == 0) {
+            result = repair(graph, previous, control);
+        }
+        if (result == null && !control.isCancelled()) {
+            result = base.solve(graph, control); // Локально восстановить не удалось
+        }
+
+        if (result != null) {
+            synchronized (lock) {
+                if (generation == startGeneration) {
+                    last = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    // Пытаемся восстановить разбиение, перерешивая только окрестность разрушенных треугольников
+    private List<int[]> repair(BitAdjacencyMatrix graph, List<int[]> previous, SearchControl control) {
+        int n = graph.size();
+        int[] owner = new int[n]; // Номер сохранённого треугольника, покрывающего вершину, или -1
+        Arrays.fill(owner, -1);
+        List<int[]> kept = new ArrayList<>();
+        for (int[] t : previous) {
+            if (t[2] < n && graph.hasEdge(t[0], t[1]) && graph.hasEdge(t[0], t[2]) && graph.hasEdge(t[1], t[2])) {
+                for (int v : t) owner[v] = kept.size();
+                kept.add(t);
+            }
+        }
+
+        boolean[] free = new boolean[n]; // Вершины, которые нужно покрыть заново
+        int freeCount = 0;
+        for (int v = 0; v < n; v++) {
+            if (owner[v] == -1) {
+                free[v] = true;
+                freeCount++;
+            }
+        }
+        if (freeCount == 0) {
+            return kept;
+        }
+
+        for (int radius = 1; radius <= MAX_RADIUS; radius++) {
+            // Освобождаем треугольники, задетые окрестностью радиуса radius
+            boolean[] region = free.clone();
+            List<Integer> frontier = new ArrayList<>();
+            for (int v = 0; v < n; v++) if (free[v]) frontier.add(v);
+            for (int step = 0; step < radius; step++) {
+                List<Integer> next = new ArrayList<>();
+                for (int v : frontier) {
+                    graph.forEachNeighbour(v, u -> {
+                        if (!region[u]) {
+                            region[u] = true;
+                            next.add(u);
+                        }
+                    });
+                }
+                frontier = next;
+            }
+            boolean[] released = new boolean[kept.size()];
+            for (int v = 0; v < n; v++) {
+                if (region[v] && owner[v] != -1) released[owner[v]] = true;
+            }
+
+            List<int[]> fixed = new ArrayList<>();
+            List<Integer> subVertices = new ArrayList<>();
+            for (int t = 0; t < kept.size(); t++) {
+                if (released[t]) {
+                    for (int v : kept.get(t)) subVertices.add(v);
+                } else {
+                    fixed.add(kept.get(t));
+                }
+            }
+            for (int v = 0; v < n; v++) if (free[v]) subVertices.add(v);
+            if (fixed.isEmpty()) {
+                return null; // Окрестность охватила весь граф - это уже полный поиск
+            }
+
+            int[] mapping = subVertices.stream().mapToInt(Integer::intValue).sorted().toArray();
+            List<int[]> local = base.solve(graph.induced(mapping), control);
+            if (control.isCancelled()) {
+                return null;
+            }
+            if (local != null) {
+                for (int[] t : local) {
+                    fixed.add(new int[]{mapping[t[0]], mapping[t[1]], mapping[t[2]]});
+                }
+                return fixed;
+            }
+        }
+        return null;
+    }
+}
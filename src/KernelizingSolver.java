@@ -0,0 +1,164 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+// Предварительная обработка перед перебором:
+//  1. граф отвергается сразу, если какая-то вершина не входит ни в один треугольник
+//     или размер какой-то компоненты связности не кратен 3;
+//  2. вершина, входящая ровно в один треугольник среди оставшихся вершин, обязана взять его -
+//     такие треугольники фиксируются, пока находятся новые;
+//  3. оставшийся граф делится на компоненты связности, и каждая решается отдельно, параллельно
+public class KernelizingSolver implements TrianglePartitionSolver {
+    private final TrianglePartitionSolver base;
+
+    public KernelizingSolver(TrianglePartitionSolver base) {
+        this.base = base;
+    }
+
+    public TrianglePartitionSolver getBase() {
+        return base;
+    }
+
+    @Override
+    public List<int[]> solve(BitAdjacencyMatrix graph, SearchControl control) {
+        int n = graph.size();
+        if (n % 3 != 0) {
+            return null;
+        }
+        long[] alive = new long[graph.wordsPerRow()]; // Вершины, ещё не покрытые треугольниками
+        for (int v = 0; v < n; v++) {
+            alive[v >>> 6] |= 1L << v;
+        }
+
+        for (int v = 0; v < n; v++) {
+            if (!graph.inAnyTriangle(v)) return null;
+        }
+        for (int[] component : graph.components(alive)) {
+            if (component.length % 3 != 0) return null;
+        }
+
+        // Распространяем вынужденные треугольники
+        List<int[]> forced = new ArrayList<>();
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int v = 0; v < n; v++) queue.add(v);
+        int[] only = new int[3];
+        while (!queue.isEmpty()) {
+            int v = queue.poll();
+            if ((alive[v >>> 6] & (1L << v)) == 0) continue;
+            int count = aliveTriangles(graph, alive, v, only);
+            if (count == 0) {
+                return null; // Вершину больше нечем покрыть
+            }
+            if (count == 1) {
+                int[] t = only.clone();
+                Arrays.sort(t);
+                forced.add(t);
+                for (int u : t) alive[u >>> 6] &= ~(1L << u);
+                // Соседи взятых вершин могли потерять треугольники - проверяем их заново
+                for (int u : t) {
+                    graph.forEachNeighbour(u, w -> {
+                        if ((alive[w >>> 6] & (1L << w)) != 0) queue.add(w);
+                    });
+                }
+            }
+        }
+
+        List<int[]> components = graph.components(alive);
+        for (int[] component : components) {
+            if (component.length % 3 != 0) return null;
+        }
+        if (forced.isEmpty() && components.size() == 1) {
+            return base.solve(graph, control); // Сокращать нечего
+        }
+
+        List<int[]> result = new ArrayList<>(forced);
+        List<List<int[]>> parts = solveComponents(graph, components, control);
+        if (parts == null) {
+            return null;
+        }
+        for (int c = 0; c < components.size(); c++) {
+            int[] mapping = components.get(c);
+            for (int[] t : parts.get(c)) {
+                result.add(new int[]{mapping[t[0]], mapping[t[1]], mapping[t[2]]});
+            }
+        }
+        // Если сокращение покрыло весь граф, базовый решатель не вызывался и об отмене не узнал
+        return control.isCancelled() ? null : result;
+    }
+
+    // Решаем компоненты параллельно; если хотя бы одна не разбивается, остальные отменяются
+    private List<List<int[]>> solveComponents(BitAdjacencyMatrix graph, List<int[]> components, SearchControl control) {
+        if (components.size() == 1) {
+            List<int[]> part = base.solve(graph.induced(components.get(0)), control);
+            return part == null ? null : List.of(part);
+        }
+
+        SearchControl group = control.child();
+        List<CompletableFuture<List<int[]>>> futures = new ArrayList<>();
+        for (int[] component : components) {
+            SearchControl own = group.child();
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                List<int[]> part;
+                try {
+                    part = base.solve(graph.induced(component), own);
+                } catch (RuntimeException | Error e) {
+                    group.cancel(); // Сбой решателя - ответа для графа не будет
+                    throw e;
+                }
+                if (part == null) {
+                    group.cancel(); // Разбиения нет - остальные компоненты можно не решать
+                }
+                return part;
+            }));
+        }
+
+        List<List<int[]>> parts = new ArrayList<>();
+        boolean failed = false;
+        RuntimeException error = null;
+        for (CompletableFuture<List<int[]>> future : futures) {
+            try {
+                List<int[]> part = future.join();
+                failed |= part == null;
+                parts.add(part);
+            } catch (CompletionException e) {
+                // Ждём остальные компоненты (они уже отменены), затем бросаем первую ошибку как есть
+                if (error == null) {
+                    error = e.getCause() instanceof RuntimeException cause ? cause : e;
+                }
+            }
+        }
+        if (error != null) {
+            throw error;
+        }
+        return failed ? null : parts;
+    }
+
+    // Считаем треугольники вершины v среди живых вершин, но не больше двух;
+    // первый найденный записываем в found
+    private static int aliveTriangles(BitAdjacencyMatrix graph, long[] alive, int v, int[] found) {
+        int count = 0;
+        int words = graph.wordsPerRow();
+        for (int wu = 0; wu < words; wu++) {
+            for (long nu = graph.word(v, wu) & alive[wu]; nu != 0; nu &= nu - 1) {
+                int u = (wu << 6) + Long.numberOfTrailingZeros(nu);
+                // Третья вершина w > u, чтобы каждый треугольник считался один раз
+                for (int ww = u >>> 6; ww < words; ww++) {
+                    long common = graph.word(v, ww) & graph.word(u, ww) & alive[ww];
+                    if (ww == u >>> 6) common &= -1L << u << 1;
+                    if (common == 0) continue;
+                    if (count == 0) {
+                        found[0] = v;
+                        found[1] = u;
+                        found[2] = (ww << 6) + Long.numberOfTrailingZeros(common);
+                    }
+                    count += Long.bitCount(common);
+                    if (count >= 2) return count;
+                }
+            }
+        }
+        return count;
+    }
+}
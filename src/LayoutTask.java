@@ -0,0 +1,27 @@
+import javafx.concurrent.Task;
+
+// Фоновая силовая раскладка. После каждой итерации положения публикуются через updateValue:
+// JavaFX сам объединяет частые обновления, поэтому экран обновляется не чаще раза за кадр,
+// а граф "оживает", пока раскладка сходится
+public class LayoutTask extends Task<double[]> {
+    private final ForceLayout layout;
+    private final long startNanos = System.nanoTime();
+
+    public LayoutTask(ForceLayout layout) {
+        this.layout = layout;
+    }
+
+    @Override
+    protected double[] call() {
+        while (!isCancelled() && layout.step()) {
+            updateValue(layout.positions());
+            updateMessage(String.format("Раскладка: итерация %d, %.1f с",
+                    layout.iterations(), (System.nanoTime() - startNanos) / 1e9));
+        }
+        double[] positions = layout.positions();
+        updateValue(positions);
+        updateMessage(String.format("Раскладка %s: %d итераций, %.1f с", layout.isConverged() ? "сошлась" : "остановлена",
+                layout.iterations(), (System.nanoTime() - startNanos) / 1e9));
+        return positions;
+    }
+}
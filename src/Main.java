@@ -1,35 +1,105 @@
-import java.io.*;
-import java.lang.ProcessBuilder;
-
+import javafx.animation.AnimationTimer;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
 import javafx.application.Application;
+import javafx.concurrent.Task;
+import javafx.concurrent.Worker;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
+import javafx.scene.input.KeyCode;
 import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.Pane;
+import javafx.scene.layout.StackPane;
 import javafx.scene.layout.VBox;
 import javafx.scene.paint.Color;
-import javafx.scene.shape.Circle;
-import javafx.scene.shape.Line;
+import javafx.scene.shape.Rectangle;
+import javafx.stage.FileChooser;
 import javafx.stage.Stage;
+import javafx.util.Duration;
 
+import java.io.File;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.file.Path;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ForkJoinPool;
 
 public class Main extends Application {
 
-    private Circle selectedVertex = null; // Для хранения выбранной вершины
     private Pane graphPane; // Панель для размещения вершин и ребер
-    private List<Circle> vertices = new ArrayList<>(); // Список вершин
-    private List<EdgeInfo> edges = new ArrayList<>(); // Список ребер
-    private double vertexSize = 10; // Начальный размер вершин
-    private Stack<GraphState> undoStack = new Stack<>(); // Стэк для сохранения предыдущего состояния графа
-    private Stack<GraphState> redoStack = new Stack<>(); // Стэк для возвращения в последнее состояние графа
+    private GraphView view; // Отображение модели: узлы сцены или холст для больших графов
+    private final int canvasThreshold = Integer.getInteger("render.canvasThreshold", 5000); // Число элементов, с которого включается холст
+    private final Set<Integer> selection = new LinkedHashSet<>(); // Вершины, выделенные для группового перетаскивания
+    private double dragTargetX, dragTargetY; // Последнее положение мыши при перетаскивании
+    private boolean dragPending = false; // Положение мыши изменилось, но вершины ещё не передвинуты
+    // Передвигаем вершины не чаще раза за кадр, сколько бы событий мыши ни пришло
+    private final AnimationTimer dragPulse = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            applyDrag();
+        }
+    };
+    private Rectangle rubberBand = null; // Рамка выделения
+    private double rubberBandX, rubberBandY; // Угол рамки, с которого её начали тянуть
+    private final GraphModel model = new GraphModel(); // Вершины и рёбра графа; вершины и рёбра задаются номерами
+    private final EditHistory history = new EditHistory(Long.getLong("history.maxBytes", 64L << 20)); // История действий (не больше 64 МБ по умолчанию)
+    private final TrianglePartitionSolver baseSolver = createSolver(); // Решатель, выполняющий перебор
+    private final IncrementalTriangleSolver incrementalSolver =
+            new IncrementalTriangleSolver(new KernelizingSolver(baseSolver)); // Решатель, восстанавливающий прошлое разбиение
+    private final CachingTriangleSolver solver = new CachingTriangleSolver(incrementalSolver, 256); // Решатель задачи о разбиении на треугольники с кэшем
+    private final SolveService solveService = new SolveService(solver); // Поиск на виртуальных потоках; свой у окна, закрывается в stop()
+    private final Path solutionCacheFile = Path.of(System.getProperty("user.home"), ".graph-triangulation", "solutions.cache");
+    private SolveTask solveTask = null; // Текущий фоновый поиск решения
+    private int graphVersion = 0; // Номер версии графа, увеличивается при каждом изменении
+    private Button createMatrixButton;
+    private Button packingButton;
+    private PackingTask packingTask = null; // Текущий поиск наибольшего набора треугольников
+    private final TrianglePackingSolver packingSolver = new TrianglePackingSolver(); // На всех ядрах
+    private Button previousPartitionButton;
+    private Button nextPartitionButton;
+    private Button countPartitionsButton;
+    private Task<?> partitionTask = null; // Поиск следующего разбиения или подсчёт разбиений
+    private SearchControl partitionControl = null; // Управление перебором разбиений
+    private Iterator<List<int[]>> partitionWalker = null; // Ленивый перебор всех разбиений текущего графа
+    private SearchControl partitionWalkerControl = null;
+    private int partitionVersion = -1; // Версия графа, для которой идёт перебор
+    private final List<List<int[]>> shownPartitions = new ArrayList<>(); // Последние показанные разбиения
+    private long firstShownNumber = 1; // Номер первого из них среди всех разбиений
+    private int partitionIndex = -1; // Текущее разбиение в shownPartitions
+    private static final int PARTITION_WINDOW = 100; // Сколько разбиений можно пролистать назад
+    private Button cancelSolveButton;
+    private Label solveStatus; // Ход поиска: узлы, скорость, время
+    private Timeline solveProgress; // Периодически обновляет solveStatus
+    private final EditorMetrics metrics = new EditorMetrics(); // Замеры для панели метрик
+    private final GraphEditor editor = new GraphEditor(model, history, metrics); // Действия пользователя над графом
+    private ToggleButton traceButton; // Запись действий для TraceReplay
+    private TriangleCoverage coverage = null; // Проверка покрытия треугольниками, пока включена
+    private Label coverageStatus; // Число треугольников, вершин без них и компонент, не кратных 3
+    private long shownTriangles = -1; // Числа, показанные в coverageStatus
+    private int shownUncovered = -1, shownBadComponents = -1;
+    // Перекрашиваем вершины и обновляем числа покрытия раз за кадр, сколько бы правок ни было
+    private final AnimationTimer coveragePulse = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            refreshCoverage();
+        }
+    };
+    private Label metricsOverlay; // Панель метрик поверх графа
+    private Timeline metricsRefresh; // Обновляет панель, пока она видна
+    private ToggleButton layoutButton;
+    private LayoutTask layoutTask = null; // Текущая силовая раскладка
+    private int[] layoutVertices; // Вершины раскладки в порядке её массивов
+    private double[] layoutFrom; // Положения до раскладки (x, y подряд)
+    private double[] layoutApplied; // Последние положения, выставленные раскладкой
+    private int[][] lastTriangles = new int[0][]; // Треугольники последнего решения (номера вершин), раскладка стягивает их
+    private static final double TRIANGLE_PULL = 3; // Во сколько раз пара из одного треугольника притягивается сильнее ребра
 
     @Override
     public void start(Stage primaryStage) {
@@ -38,31 +108,101 @@ public class Main extends Application {
 
         // Панель для графа
         graphPane = new Pane();
-        root.setCenter(graphPane);
+        // Панель метрик лежит поверх графа и не перехватывает мышь
+        metricsOverlay = new Label();
+        metricsOverlay.setMouseTransparent(true);
+        metricsOverlay.setVisible(false);
+        metricsOverlay.setPadding(new Insets(6));
+        metricsOverlay.setStyle("-fx-background-color: rgba(255, 255, 255, 0.85); -fx-font-family: monospace;");
+        StackPane.setAlignment(metricsOverlay, Pos.TOP_RIGHT);
+        StackPane graphArea = new StackPane(graphPane, metricsOverlay);
+        root.setCenter(graphArea);
+        metricsRefresh = new Timeline(new KeyFrame(Duration.millis(500), e -> refreshMetrics()));
+        metricsRefresh.setCycleCount(Timeline.INDEFINITE);
+        view = new GraphView(model, graphPane, metrics, canvasThreshold);
+        model.addListener(new GraphModel.Listener() {
+            @Override
+            public void vertexAdded(int vertex) {
+                incrementalSolver.vertexAdded();
+            }
+
+            @Override
+            public void vertexRemoved(int vertex, int index, int lastIndex) {
+                incrementalSolver.vertexRemoved(index, lastIndex); // Переносим номер в сохранённом разбиении
+                selection.remove(vertex);
+            }
+
+            @Override
+            public void verticesSwapped(int index, int lastIndex) {
+                incrementalSolver.verticesSwapped(index, lastIndex);
+            }
+
+            @Override
+            public void reset() {
+                incrementalSolver.reset();
+                selection.clear();
+            }
+        });
+        // Правка графа останавливает раскладку (раскладка попадает в историю раньше правки)
+        // и меняет версию графа, по которой отбрасываются устаревшие решения
+        editor.setBeforeEdit(this::stopLayout);
+        editor.setAfterEdit(() -> {
+            graphVersion++;
+            view.updateRenderMode();
+        });
+        solver.load(solutionCacheFile);
 
         // Кнопка для решения задачи о разбиении графа
-        Button createMatrixButton = new Button("Показать решение");
+        createMatrixButton = new Button("Показать решение");
         createMatrixButton.setOnAction(event -> {
             // Проверка кратности количества вершин 3
-            if (vertices.size() % 3 != 0) {
+            if (model.vertexCount() % 3 != 0) {
                 Alert alert = new Alert(Alert.AlertType.WARNING); // переменная для обовещения об ошибке
                 alert.setTitle("Ошибка"); // заголовок
                 alert.setHeaderText("Некорректное количество вершин");
                 alert.setContentText("Количество вершин должно быть кратно 3!\n"
-                        + "Текущее количество: " + vertices.size());
+                        + "Текущее количество: " + model.vertexCount());
                 alert.showAndWait();
                 return; // Прерываем выполнение
             }
 
             // Если проверка пройдена, продолжаем
-            writeMatrixToFile(createAdjacencyMatrix(vertices), "javaOut.txt");
-            openExeAndFindSolution();
+            findSolution();
         });
 
 
+        // Кнопка для отмены поиска решения
+        cancelSolveButton = new Button("Отмена");
+        cancelSolveButton.setDisable(true);
+        cancelSolveButton.setOnAction(event -> {
+            if (solveTask != null) {
+                solveTask.cancel();
+            }
+            if (packingTask != null) {
+                packingTask.cancel();
+            }
+            if (partitionTask != null) {
+                partitionControl.cancel();
+                partitionTask.cancel();
+            }
+        });
+
+        // Кнопки для просмотра всех разбиений по очереди и их подсчёта
+        previousPartitionButton = new Button("◀");
+        previousPartitionButton.setOnAction(event -> previousPartition());
+        nextPartitionButton = new Button("▶");
+        nextPartitionButton.setOnAction(event -> nextPartition());
+        countPartitionsButton = new Button("Число разбиений");
+        countPartitionsButton.setOnAction(event -> countPartitions());
+
+        // Кнопка для поиска наибольшего набора треугольников, когда разбиения нет или его долго искать
+        packingButton = new Button("Лучшая упаковка");
+        packingButton.setOnAction(event -> findPacking());
+        solveStatus = new Label();
+
         // Кнопка для очищения экрана
         Button cleanScene = new Button("Очистка экрана");
-        cleanScene.setOnAction(event -> clearScene());
+        cleanScene.setOnAction(event -> editor.clear());
 
 
         // Кнопка для вывода справки
@@ -76,23 +216,71 @@ public class Main extends Application {
 
         // Кнопка для установления размера вершин
         Button vertexSizeButton = new Button("Выбрать размер вершины");
-        vertexSizeButton.setOnAction(event -> vertexSize = chooseVertexSize());
+        vertexSizeButton.setOnAction(event -> chooseVertexSize());
 
         // Кнопки для возврашения к предыдущему и последнему состоянию графа
         Button undoButton = new Button("←");
-        undoButton.setOnAction(event -> undo());
+        undoButton.setOnAction(event -> editor.undo());
 
         Button redoButton = new Button("→");
-        redoButton.setOnAction(event -> redo());
+        redoButton.setOnAction(event -> editor.redo());
+
+        // Кнопка для показа панели метрик
+        ToggleButton metricsButton = new ToggleButton("Метрики");
+        metricsButton.setOnAction(event -> showMetrics(metricsButton.isSelected()));
+
+        // Кнопка для автоматической раскладки графа; повторное нажатие останавливает раскладку
+        layoutButton = new ToggleButton("Раскладка");
+        layoutButton.setOnAction(event -> {
+            if (layoutButton.isSelected()) {
+                startLayout();
+            } else {
+                stopLayout();
+            }
+        });
+
+        // Кнопка для проверки покрытия треугольниками на лету: вершины без треугольника и компоненты,
+        // не кратные 3, подсвечиваются; повторное нажатие выключает проверку
+        ToggleButton coverageButton = new ToggleButton("Покрытие");
+        coverageButton.setOnAction(event -> showCoverage(coverageButton.isSelected()));
+        coverageStatus = new Label();
+
+        // Кнопка для записи действий в файл; повторное нажатие заканчивает запись
+        traceButton = new ToggleButton("Запись");
+        traceButton.setOnAction(event -> {
+            if (traceButton.isSelected()) {
+                startTrace(primaryStage);
+            } else {
+                stopTrace();
+            }
+        });
+
+        // Кнопки для сохранения графа в файл и загрузки из файла
+        Button openButton = new Button("Открыть");
+        openButton.setOnAction(event -> openGraph(primaryStage));
+
+        Button saveButton = new Button("Сохранить");
+        saveButton.setOnAction(event -> saveGraph(primaryStage));
 
 
         // Всплывающие уведомления при наведении на кнопку
         createMatrixButton.setTooltip(new Tooltip("Кликни на кнопку, \nчтобы увидеть \nна какие треугольники\n разбивается граф"));
+        previousPartitionButton.setTooltip(new Tooltip("Предыдущее разбиение"));
+        nextPartitionButton.setTooltip(new Tooltip("Следующее разбиение"));
+        countPartitionsButton.setTooltip(new Tooltip("Посчитать все разбиения графа на треугольники"));
+        packingButton.setTooltip(new Tooltip("Найти за заданное время как можно больше\nнепересекающихся треугольников"));
         cleanScene.setTooltip(new Tooltip("Кликни на кнопку, \nчтобы очистить экран\nот рёбер и вершин"));
         helpButton.setTooltip(new Tooltip("Кликни на кнопку, \nчтобы посмотреть \nна справочный матриал"));
         vertexSizeButton.setTooltip(new Tooltip("Кликни на кнопку, \nчтобы изменить размер вершин"));
         undoButton.setTooltip(new Tooltip("Отменить последнее действие"));
         redoButton.setTooltip(new Tooltip("Вернуть отмененное действие"));
+        cancelSolveButton.setTooltip(new Tooltip("Остановить поиск решения"));
+        openButton.setTooltip(new Tooltip("Загрузить граф из файла\n(*.graph, список рёбер или DIMACS)"));
+        saveButton.setTooltip(new Tooltip("Сохранить граф в файл *.graph"));
+        layoutButton.setTooltip(new Tooltip("Расставить вершины силовой раскладкой;\nтреугольники последнего решения стягиваются"));
+        metricsButton.setTooltip(new Tooltip("Показать время операций редактора\nи последнего поиска решения"));
+        coverageButton.setTooltip(new Tooltip("Подсвечивать вершины без треугольника (красным)\nи компоненты, размер которых не кратен 3 (оранжевым)"));
+        traceButton.setTooltip(new Tooltip("Записать действия в файл " + EditTrace.EXTENSION + "\nдля замеров командой java TraceReplay;\nистория действий очищается"));
 
 
         // Создаем контейнер для кнопок
@@ -100,137 +288,83 @@ public class Main extends Application {
         topToolbar.setPadding(new Insets(10)); // Устанавливаем дополнения для вставок
         topToolbar.getChildren().addAll( // Добавляем кнопки в контейнер
                 createMatrixButton,
+                previousPartitionButton,
+                nextPartitionButton,
+                countPartitionsButton,
+                packingButton,
+                cancelSolveButton,
                 cleanScene,
                 vertexSizeButton,
                 undoButton,
                 redoButton,
-                helpButton
+                openButton,
+                saveButton,
+                layoutButton,
+                metricsButton,
+                coverageButton,
+                traceButton,
+                helpButton,
+                coverageStatus,
+                solveStatus
         );
+        topToolbar.setAlignment(Pos.CENTER_LEFT);
         root.setTop(topToolbar); // Добавляем в основной контейнер
 
 
 
+        // Перетаскивание и выделение обрабатывает панель: вершину под курсором находим по сетке,
+        // поэтому одинаково работают и узлы сцены, и режим холста
+        graphPane.setOnMousePressed(this::startDrag);
+        graphPane.setOnMouseDragged(event -> {
+            if (editor.isDragging()) {
+                dragTargetX = event.getX();
+                dragTargetY = event.getY();
+                dragPending = true; // Вершины передвинет dragPulse в ближайшем кадре
+            } else if (rubberBand != null) {
+                rubberBand.setX(Math.min(rubberBandX, event.getX()));
+                rubberBand.setY(Math.min(rubberBandY, event.getY()));
+                rubberBand.setWidth(Math.abs(event.getX() - rubberBandX));
+                rubberBand.setHeight(Math.abs(event.getY() - rubberBandY));
+            }
+        });
+        graphPane.setOnMouseReleased(event -> {
+            if (editor.isDragging()) {
+                finishDrag();
+            } else if (rubberBand != null) {
+                finishRubberBand();
+            }
+        });
+
         // Обработчик кликов по экрану
         graphPane.setOnMouseClicked(event -> {
+            if (!event.isStillSincePress() || event.isShiftDown()) {
+                return; // Это было перетаскивание или выделение, а не клик
+            }
             if (event.getButton() == MouseButton.PRIMARY) { // Если нажата левая кнопка мыши
-                Circle vertex = findVertexAt(event.getX(), event.getY(), vertices);
-                if (vertex == null) {
-                    saveState(); // Добавляем состояние графа в стэк undo
-                    // Создаем новую вершину (круг) в месте клика
-                    vertex = new Circle(event.getX(), event.getY(), vertexSize); // (x, y, радиус)
-                    vertices.add(vertex); // Добавляем вершину в список
-                    graphPane.getChildren().add(vertex); // Добавляем вершину в панель графа(выводим на экран)
-                    enableVertexDragging(vertex); // Добавляем возможность передвигать вершину
-                }
+                editor.addVertexAt(event.getX(), event.getY()); // Новая вершина, если место свободно
             } else if (event.getButton() == MouseButton.SECONDARY) { // Если нажата правая кнопка мыши
-                // Удаление вершины, если она есть в месте клика
-                Circle vertexToDelete = findVertexAt(event.getX(), event.getY(), vertices);
-                if (vertexToDelete != null) {
-                    deleteVertex(vertexToDelete);
-                }
+                editor.deleteVertexAt(event.getX(), event.getY()); // Удаление вершины, если она есть в месте клика
             } else if(event.getButton() == MouseButton.MIDDLE) { // Если нажато колесико мыши
-                Circle vertex = findVertexAt(event.getX(), event.getY(), vertices); // Сохраняем вершину в месте клика
-                if (selectedVertex == null) {
-                    // Если вершина не выбрана, выбираем текущую
-                    selectedVertex = vertex;
-                    System.out.println("Вершина выбрана: " + vertex);
-                } else {
-                    saveState();
-                    // Если вершина уже выбрана, создаем ребро между выбранной и текущей вершиной
-                    // Находим индексы выбранных вершин в списке вершин
-                    int startIndex = vertices.indexOf(selectedVertex);
-                    int endIndex = vertices.indexOf(vertex);
-                    if(startIndex != endIndex){
-                        Line edge = new Line( // Cоздаём линию
-                            selectedVertex.getCenterX(), selectedVertex.getCenterY(),
-                            vertex.getCenterX(), vertex.getCenterY()
-                        );
-                        edges.add(new EdgeInfo(startIndex, endIndex,edge)); // Добавляем ребро в список
-                        graphPane.getChildren().add(edge); // Выводим ребра на экран
-                        System.out.println("Ребро создано между " + selectedVertex + " и " + vertex);
-                    }
-
-                    selectedVertex = null; // Сбрасываем выбор вершины
-                }
+                // Первый клик выбирает вершину, второй создаёт ребро между выбранной и текущей вершиной
+                editor.pickVertex(event.getX(), event.getY());
             }
         });
 
 
         // Создаем сцену и отображаем ее
         Scene scene = new Scene(root, 800, 600);
+        scene.setOnKeyPressed(event -> {
+            if (event.getCode() == KeyCode.ESCAPE) {
+                clearSelection();
+            }
+        });
         primaryStage.setTitle("Interactive Graph with Matrix");
         primaryStage.setScene(scene);
         primaryStage.show();
     }
 
-    // Методы для работы с историей
-    // Начало
-
-    // Cохраняем сцену
-    private void saveState() {
-        undoStack.push(new GraphState(vertices, edges));
-        redoStack.clear();
-    }
-
-    // Востанавливаем сцену
-    private void restoreState(GraphState state) {
-        clearSceneWithoutSaving();
-
-        // Восстанавливаем вершины
-        for (GraphState.VertexData vData : state.verticesData) {
-            Circle vertex = new Circle(vData.x, vData.y, vData.radius);
-            vertices.add(vertex);
-            graphPane.getChildren().add(vertex);
-            enableVertexDragging(vertex);
-        }
-
-        // Восстанавливаем ребра
-        for (GraphState.EdgeData eData : state.edgesData) {
-            if (eData.startIndex < vertices.size() && eData.endIndex < vertices.size()) {
-                Circle start = vertices.get(eData.startIndex);
-                Circle end = vertices.get(eData.endIndex);
-                Line line = new Line(
-                        start.getCenterX(),
-                        start.getCenterY(),
-                        end.getCenterX(),
-                        end.getCenterY()
-                );
-                line.setStroke(eData.color);
-                line.setStrokeWidth(2);
-                edges.add(new EdgeInfo(eData.startIndex, eData.endIndex, line));
-                graphPane.getChildren().add(line);
-            }
-        }
-    }
-
-    // Очищаем сцену без сохранения в истории
-    private void clearSceneWithoutSaving() {
-        graphPane.getChildren().removeAll(edges.stream()
-                .map(EdgeInfo::getLine)
-                .collect(Collectors.toList()));
-        edges.clear();
-        graphPane.getChildren().removeAll(vertices);
-        vertices.clear();
-    }
-
-    // Обработчики для кнопок
-    private void undo() { // назад
-        if (!undoStack.isEmpty()) {
-            redoStack.push(new GraphState(vertices, edges));
-            restoreState(undoStack.pop());
-        }
-    }
-
-    private void redo() { // вперёд
-        if (!redoStack.isEmpty()) {
-            undoStack.push(new GraphState(vertices, edges));
-            restoreState(redoStack.pop());
-        }
-    }
-    // Конец
-
     // Функция для выбора размера вершин
-    private double chooseVertexSize() {
+    private void chooseVertexSize() {
         // Создаем диалоговое окно
         Dialog<Double> dialog = new Dialog<>();
         dialog.setTitle("Выбор размера вершин");
@@ -241,7 +375,7 @@ public class Main extends Application {
         dialog.getDialogPane().getButtonTypes().addAll(applyButtonType, ButtonType.CANCEL);
 
         // Создаем слайдер
-        Slider slider = new Slider(5, 30, vertexSize);
+        Slider slider = new Slider(5, 30, editor.getVertexSize());
         slider.setShowTickLabels(true);
         slider.setShowTickMarks(true);
         slider.setMajorTickUnit(5);
@@ -261,132 +395,221 @@ public class Main extends Application {
             }
             return null;
         });
-        saveState();
         // Показываем окно и обрабатываем результат
         Optional<Double> result = dialog.showAndWait();
-        if (result.isPresent()) {
-            double newSize = result.get();
-            // Обновляем размер всех существующих вершин
-            for (Circle vertex : vertices) {
-                vertex.setRadius(newSize);
-            }
-            return newSize;
-        }
-        return vertexSize; // Возвращаем текущий размер, если изменение отменено
+        result.ifPresent(editor::setVertexSize);
     }
 
-    // Очищаем сцену с сохранением в истории
-    private void clearScene(){
-        saveState();
-        for(EdgeInfo edge : edges){
-            graphPane.getChildren().removeAll(edge.getLine());
+    // Показываем или прячем панель метрик
+    private void showMetrics(boolean show) {
+        metricsOverlay.setVisible(show);
+        if (show) {
+            refreshMetrics();
+            metricsRefresh.play();
+        } else {
+            metricsRefresh.stop();
         }
-        edges.clear();
-        graphPane.getChildren().removeAll(vertices);
-        vertices.clear();
     }
 
-    // Метод для включения перемещения вершины
-    private void enableVertexDragging(Circle vertex) {
-        final double[] offsetX = new double[1];
-        final double[] offsetY = new double[1];
+    private void refreshMetrics() {
+        metricsOverlay.setText(metrics.format(model.vertexCount(), model.edgeCount(), history));
+    }
 
-        vertex.setOnMousePressed(event -> {
-            // Запоминаем смещение курсора относительно центра вершины
-            offsetX[0] = vertex.getCenterX() - event.getSceneX();
-            offsetY[0] = vertex.getCenterY() - event.getSceneY();
-        });
+    private void showCoverage(boolean show) {
+        if (show) {
+            coverage = new TriangleCoverage(model); // Полный подсчёт один раз, дальше - по правкам
+            view.setCoverage(coverage);
+            shownTriangles = -1;
+            refreshCoverage();
+            coveragePulse.start();
+        } else {
+            coveragePulse.stop();
+            view.setCoverage(null);
+            coverage.detach();
+            coverage = null;
+            coverageStatus.setText("");
+        }
+    }
+
+    private void refreshCoverage() {
+        view.refreshCoverage();
+        long triangles = coverage.getTriangleCount();
+        int uncovered = coverage.getUncovered(), badComponents = coverage.getBadComponents();
+        if (triangles == shownTriangles && uncovered == shownUncovered && badComponents == shownBadComponents) return;
+        shownTriangles = triangles;
+        shownUncovered = uncovered;
+        shownBadComponents = badComponents;
+        coverageStatus.setText("Треугольников: " + triangles + ", без треугольника: " + uncovered
+                + ", компонент не кратных 3: " + badComponents);
+    }
 
-        vertex.setOnMouseDragged(event -> {
-            // Перемещаем вершину
-            double newX = event.getSceneX() + offsetX[0];
-            double newY = event.getSceneY() + offsetY[0];
-            vertex.setCenterX(newX);
-            vertex.setCenterY(newY);
+    // Методы для работы с файлами
+    // Начало
 
-            // Обновляем связанные ребра
-            updateConnectedEdges(vertex);
-            event.consume();
-        });
+    private void saveGraph(Stage stage) {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Сохранение графа");
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Граф", "*" + GraphFile.EXTENSION));
+        File file = chooser.showSaveDialog(stage);
+        if (file == null) return;
+        Path path = file.toPath();
+        if (!path.getFileName().toString().endsWith(GraphFile.EXTENSION)) {
+            path = path.resolveSibling(path.getFileName() + GraphFile.EXTENSION);
+        }
+        try {
+            GraphFile.save(model, path);
+        } catch (IOException e) {
+            showFileError("Не удалось сохранить граф", e);
+        }
     }
 
-    // Метод для обновления связанных ребер
-    private void updateConnectedEdges(Circle vertex) {
-        int vertexIndex = vertices.indexOf(vertex);
-        for (EdgeInfo edge : edges) {
-            if (edge.getStartIndex() == vertexIndex) {
-                // Обновляем начало ребра
-                Line line = edge.getLine();
-                line.setStartX(vertex.getCenterX());
-                line.setStartY(vertex.getCenterY());
-            }
-            if (edge.getEndIndex() == vertexIndex) {
-                // Обновляем конец ребра
-                Line line = edge.getLine();
-                line.setEndX(vertex.getCenterX());
-                line.setEndY(vertex.getCenterY());
+    private void openGraph(Stage stage) {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Загрузка графа");
+        chooser.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("Граф", "*" + GraphFile.EXTENSION),
+                new FileChooser.ExtensionFilter("DIMACS", "*.col", "*.dimacs", "*.clq"),
+                new FileChooser.ExtensionFilter("Список рёбер", "*.txt", "*.edges", "*.el", "*.*"));
+        File file = chooser.showOpenDialog(stage);
+        if (file == null) return;
+        String name = file.getName().toLowerCase(Locale.ROOT);
+        try {
+            if (name.endsWith(GraphFile.EXTENSION)) {
+                loadGraph(GraphFile.load(file.toPath()));
+            } else if (name.endsWith(".col") || name.endsWith(".dimacs") || name.endsWith(".clq")) {
+                loadGraph(GraphImporter.readDimacs(file.toPath()));
+            } else {
+                loadGraph(GraphImporter.readEdgeList(file.toPath()));
             }
+        } catch (IOException e) {
+            showFileError("Не удалось загрузить граф", e);
         }
     }
 
-    // Функция для удаления вершины и связанных с ней рёбер
-    private void deleteVertex(Circle vertex) {
-        saveState();
-        // Удаляем все ребра, связанные с этой вершиной
-        int vertexIndex = vertices.indexOf(vertex);
+    // Начинаем запись действий в выбранный файл
+    private void startTrace(Stage stage) {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Запись действий");
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Запись действий", "*" + EditTrace.EXTENSION));
+        File file = chooser.showSaveDialog(stage);
+        if (file == null) {
+            traceButton.setSelected(false);
+            return;
+        }
+        Path path = file.toPath();
+        if (!path.getFileName().toString().endsWith(EditTrace.EXTENSION)) {
+            path = path.resolveSibling(path.getFileName() + EditTrace.EXTENSION);
+        }
+        try {
+            editor.setRecorder(new EditTrace.Recorder(path));
+        } catch (IOException e) {
+            traceButton.setSelected(false);
+            showFileError("Не удалось начать запись", e);
+        }
+    }
 
-        List<EdgeInfo> edgesToRemove = new ArrayList<>(); // Новый список для ребёр, которые мы хотим удалить
-        for (EdgeInfo edge : edges) {
-            if (edge.getStartIndex() == vertexIndex || edge.getEndIndex() == vertexIndex) {
-                edgesToRemove.add(edge);
-            }
+    private void stopTrace() {
+        EditTrace.Recorder recorder = editor.getRecorder();
+        if (recorder == null) return;
+        editor.setRecorder(null);
+        try {
+            recorder.close();
+            solveStatus.setText(String.format("Записано действий: %,d", recorder.getEntries()));
+        } catch (IOException e) {
+            showFileError("Не удалось записать действия", e);
         }
+    }
 
-        edges.removeAll(edgesToRemove); // Удаляем рёбра из нового списка
-        graphPane.getChildren().removeAll(edgesToRemove.stream().map(EdgeInfo::getLine).collect(Collectors.toList()));
+    private void showFileError(String header, IOException e) {
+        Alert alert = new Alert(Alert.AlertType.ERROR);
+        alert.setTitle("Ошибка");
+        alert.setHeaderText(header);
+        alert.setContentText(e.getMessage());
+        alert.showAndWait();
+    }
 
-        // Удаляем вершину
-        vertices.remove(vertex);
-        graphPane.getChildren().remove(vertex);
+    // Заменяем граф загруженным. История очищается: отменять загрузку по шагам бессмысленно
+    // loaded - модель без подписчиков; редактор подменит текущую одним вызовом
+    private void loadGraph(GraphModel loaded) {
+        if (solveTask != null) {
+            solveTask.cancel();
+        }
+        dragPulse.stop();
+        editor.load(loaded, editor.getVertexSize());
+    }
+    // Конец
 
-        // Обновляем индексы в оставшихся ребрах
-        for (EdgeInfo edge : edges) {
-            int start = edge.getStartIndex();
-            int end = edge.getEndIndex();
+    // Методы для перетаскивания и выделения вершин
+    // Начало
 
-            if (start > vertexIndex) {
-                edge.setStartIndex(start - 1);
-            }
-            if (end > vertexIndex) {
-                edge.setEndIndex(end - 1);
+    // Нажатие левой кнопки: на вершине начинаем перетаскивание (всего выделения, если вершина выделена),
+    // с Shift на вершине - добавляем её в выделение или убираем, с Shift на пустом месте - тянем рамку
+    private void startDrag(MouseEvent event) {
+        if (event.getButton() != MouseButton.PRIMARY) return;
+        int vertex = editor.findVertexAt(event.getX(), event.getY());
+        if (event.isShiftDown()) {
+            if (vertex >= 0) {
+                setSelected(vertex, !selection.contains(vertex));
+            } else {
+                rubberBandX = event.getX();
+                rubberBandY = event.getY();
+                rubberBand = new Rectangle(rubberBandX, rubberBandY, 0, 0);
+                rubberBand.setFill(Color.DODGERBLUE.deriveColor(0, 1, 1, 0.15));
+                rubberBand.setStroke(Color.DODGERBLUE);
+                rubberBand.setMouseTransparent(true);
+                graphPane.getChildren().add(rubberBand);
             }
+            return;
         }
-        System.out.println("Вершина удалена: " + vertex);
+        if (vertex < 0) return;
+
+        int[] dragVertices = selection.contains(vertex)
+                ? selection.stream().mapToInt(Integer::intValue).toArray()
+                : new int[]{vertex};
+        editor.beginDrag(event.getX(), event.getY(), dragVertices); // Заодно останавливает раскладку
+        dragTargetX = event.getX();
+        dragTargetY = event.getY();
+        dragPending = false;
+        dragPulse.start();
     }
 
-    // Метод для создания матрицы смежности
-    private List<List<Integer>> createAdjacencyMatrix(List<Circle> vertices) {
-        int size = vertices.size();
-        List<List<Integer>> adjacencyMatrix = new ArrayList<>();
-
-        // Инициализация матрицы смежности
-        for (int i = 0; i < size; i++) {
-            adjacencyMatrix.add(new ArrayList<>(Collections.nCopies(size, 0)));
-        }
+    // Передвигаем вершины в последнее положение мыши (вызывается раз за кадр)
+    private void applyDrag() {
+        if (!dragPending) return;
+        dragPending = false;
+        editor.dragTo(dragTargetX, dragTargetY);
+    }
 
-        // Заполняем матрицу смежности
-        for (EdgeInfo edge : edges) {
-            int i = edge.getStartIndex();
-            int j = edge.getEndIndex();
+    // Заканчиваем перетаскивание; всё перемещение записывается в историю одним действием
+    private void finishDrag() {
+        applyDrag();
+        dragPulse.stop();
+        editor.endDrag();
+    }
 
-            adjacencyMatrix.get(i).set(j, 1);
-            adjacencyMatrix.get(j).set(i, 1); // Если граф неориентированный
+    // Выделяем вершины, центры которых попали в рамку
+    private void finishRubberBand() {
+        graphPane.getChildren().remove(rubberBand);
+        int[] inside = editor.verticesIn(rubberBand.getX(), rubberBand.getY(),
+                rubberBand.getX() + rubberBand.getWidth(), rubberBand.getY() + rubberBand.getHeight());
+        rubberBand = null;
+        for (int vertex : inside) {
+            setSelected(vertex, true);
         }
+    }
 
+    private void setSelected(int vertex, boolean selected) {
+        if (selected ? selection.add(vertex) : selection.remove(vertex)) {
+            view.setHighlighted(vertex, selected);
+        }
+    }
 
-        return adjacencyMatrix;
-
+    private void clearSelection() {
+        for (int vertex : new ArrayList<>(selection)) {
+            setSelected(vertex, false);
+        }
     }
+    // Конец
 
     // Метод для отображения справки
     private void showHelp() {
@@ -401,6 +624,8 @@ public class Main extends Application {
                - Левый клик на пустом месте создает новую вершину.
             2. Перемещение вершин:
                - Зажмите левую кнопку мыши на вершине и перетащите её.
+               - Shift + клик по вершине добавляет её в выделение, Shift + перетаскивание на пустом месте
+                 выделяет рамкой. Перетаскивание выделенной вершины двигает всё выделение, Esc снимает выделение.
             3. Создание ребер:
                - Средний клик (колесо мыши) на одной вершине, затем на другой создает ребро.
             4. Удаление вершин:
@@ -410,155 +635,421 @@ public class Main extends Application {
             6. Разбиение графа на треугольники:
                - Нажмите кнопку "Показать решение", чтобы разбить граф на треугольники, ребра которого окрашиваются в случайные цвета.
                ВНИМАНИЕ! Количество вершин должно быть кратно 3 .
+               - Поиск идёт в фоне, его ход виден на панели; кнопка "Отмена" останавливает поиск.
             7. Изменение размера вершин:
                - Кнопка открывает слайдер для выбора радиуса вершин (от 5 до 30 пикселей).
             8. История действий (кнопки "<-" и "->"):
-               - "<-" отменяет последнее действие(удаление, создание, изменение размера вершин, решение)
+               - "<-" отменяет последнее действие(удаление, создание, перемещение, изменение размера вершин, решение)
                - "->" возвращает отменённое действие
+            9. Раскладка:
+               - Кнопка "Раскладка" расставляет вершины силовой раскладкой, граф движется, пока она сходится.
+                 Треугольники последнего решения стягиваются. Повторное нажатие или любая правка останавливает раскладку.
+            10. Запись действий:
+               - Кнопка "Запись" сохраняет все действия с графом в файл *.gtrace, повторное нажатие заканчивает запись.
+                 Команда java TraceReplay файл.gtrace воспроизводит запись без окна и показывает время действий.
+            11. Покрытие:
+               - Кнопка "Покрытие" при каждой правке показывает число треугольников, красным - вершины,
+                 не входящие ни в один треугольник, оранжевым - компоненты, размер которых не кратен 3.
+                 Пока такие вершины есть, разбиения нет, и решение можно не запускать.
             """;
 
         alert.setContentText(helpText);
         alert.showAndWait();
     }
 
-    // Записываем матрицу в текстовый фаил javaOut
-    private void writeMatrixToFile(List<List<Integer>> matrix, String filePath) {
-        try {
-            BufferedWriter writer = new BufferedWriter(new FileWriter(filePath));
-
-            // Формируем данные матрицы
-            for (List<Integer> row : matrix) {
-                for (int value : row) {
-                    writer.write(value + " ");
-                }
-                writer.newLine();
+    // Запускаем поиск решения в фоновом потоке; интерфейс остаётся отзывчивым
+    private void findSolution() {
+        if (isSearching()) {
+            return; // Поиск уже идёт
+        }
+        long buildStart = System.nanoTime();
+        BitAdjacencyMatrix matrix = editor.adjacencyMatrix();
+        SolveTask task = new SolveTask(solveService, matrix, System.nanoTime() - buildStart);
+        int version = graphVersion;
+        solveTask = task;
+        setSearching(true);
+
+        // Раз в 200 мс показываем количество просмотренных узлов и скорость перебора
+        solveProgress = new Timeline(new KeyFrame(Duration.millis(200), e -> showSolveProgress(task)));
+        solveProgress.setCycleCount(Timeline.INDEFINITE);
+        solveProgress.play();
+
+        task.setOnSucceeded(event -> {
+            finishSolve(task);
+            if (version != graphVersion) {
+                solveStatus.setText("Граф изменился во время поиска, решение отброшено");
+            } else {
+                applySolution(task.getValue());
             }
-            writer.flush();
-            writer.close();
+        });
+        task.setOnCancelled(event -> {
+            finishSolve(task);
+            solveStatus.setText("Поиск отменён");
+        });
+        task.setOnFailed(event -> {
+            finishSolve(task);
+            solveStatus.setText("Ошибка поиска");
+            task.getException().printStackTrace();
+        });
 
-            System.out.println("Матрица успешно записана в файл: " + filePath);
+        Thread.ofVirtual().name("triangle-solver").start(task); // Задача только ждёт ответа сервиса
+    }
 
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+    private void showSolveProgress(SolveTask task) {
+        double seconds = task.getElapsedSeconds();
+        long nodes = task.getNodes();
+        solveStatus.setText(String.format("Поиск: %,d узлов, %,.0f узлов/с, %.1f с",
+                nodes, seconds > 0 ? nodes / seconds : 0.0, seconds));
     }
 
-    // Метод для поиска вершины по координатам
-    private Circle findVertexAt(double x, double y, List<Circle> vertices) {
-        for (Circle vertex : vertices) {
-            // Проверяем, находятся ли координаты внутри круга (вершины)
-            if (Math.sqrt(Math.pow(x - vertex.getCenterX(), 2) + Math.pow(y - vertex.getCenterY(), 2)) <= vertex.getRadius()) {
-                return vertex;
-            }
+    private void finishSolve(SolveTask task) {
+        solveProgress.stop();
+        showSolveProgress(task);
+        solveStatus.setText(solveStatus.getText() + String.format(" (кэш: попаданий %d, промахов %d)",
+                solver.getHits(), solver.getMisses()));
+        List<int[]> result = task.getState() == Worker.State.SUCCEEDED ? task.getValue() : null;
+        metrics.solveFinished(task.getMatrixBuildNanos(), task.getSerializationNanos(), task.getSolveNanos(),
+                task.getNodes(), result == null ? -1 : result.size());
+        solveTask = null;
+        setSearching(false);
+    }
+
+    // Оставляем на экране только рёбра найденных треугольников (выполняется в потоке JavaFX)
+    private void applySolution(List<int[]> triangles) {
+        if (triangles == null) {
+            Alert alert = new Alert(Alert.AlertType.INFORMATION);
+            alert.setTitle("Решение");
+            alert.setHeaderText("Разбиение не найдено");
+            alert.setContentText("Граф нельзя разбить на непересекающиеся треугольники.\n"
+                    + "Кнопка \"Лучшая упаковка\" найдёт как можно больше непересекающихся треугольников");
+            alert.showAndWait();
+            return;
         }
-        return null; // Если вершина не найдена
+        applyTriangles(triangles, true);
     }
 
-    // Запускается скомпилированный с++ код, который решает задачу триангуляции графа
-    private void openExeAndFindSolution(){
+    // Окрашиваем треугольники одним действием истории (см. GraphEditor.applyTriangles)
+    // и запоминаем их для раскладки
+    private void applyTriangles(List<int[]> triangles, boolean removeOthers) {
+        editor.applyTriangles(triangles, removeOthers);
+        rememberTriangles(triangles);
+    }
+
+    // Ищем наибольший набор непересекающихся треугольников за время, заданное пользователем
+    private void findPacking() {
+        if (isSearching()) {
+            return;
+        }
+        TextInputDialog dialog = new TextInputDialog("5");
+        dialog.setTitle("Лучшая упаковка");
+        dialog.setHeaderText("Сколько секунд искать?");
+        Optional<String> answer = dialog.showAndWait();
+        if (answer.isEmpty()) return;
+        double seconds;
         try {
-            saveState();
-            // Запуск исполняемого файла
-            Process process = new ProcessBuilder("Сoursework IT 31").start();
-
-            // Чтение вывода программы
-            BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()));
-
-            // Чтение новой матрицы из С++
-            List<List<Integer>> newMatrix = new ArrayList<>();
-            String line;
-            while ((line = reader.readLine()) != null) {
-                List<Integer> row = new ArrayList<>();
-                String[] values = line.split("\\s+");
-                for (String val : values){
-                    row.add(Integer.parseInt(val));
-                }
-                if (!row.isEmpty()){
-                    newMatrix.add(row);
-                }
+            seconds = Double.parseDouble(answer.get().trim().replace(',', '.'));
+        } catch (NumberFormatException e) {
+            seconds = -1;
+        }
+        if (!(seconds > 0)) {
+            solveStatus.setText("Время поиска должно быть положительным числом");
+            return;
+        }
+
+        PackingTask task = new PackingTask(packingSolver, model.toAdjacencyMatrix(), (long) (seconds * 1000));
+        int version = graphVersion;
+        packingTask = task;
+        setSearching(true);
+        solveStatus.textProperty().bind(task.messageProperty()); // Лучший набор обновляется по ходу поиска
+
+        task.setOnSucceeded(event -> {
+            finishPacking();
+            if (version != graphVersion) {
+                solveStatus.setText("Граф изменился во время поиска, упаковка отброшена");
+            } else {
+                applyTriangles(task.getValue().triangles(), false);
             }
-            // Удаление рёбер, не совпадающих с новой матрицей
-            List<EdgeInfo> toRemove = new ArrayList<>();
-            for (EdgeInfo edge : edges) {
-                int i = edge.getStartIndex();
-                int j = edge.getEndIndex();
-
-                if (i >= newMatrix.size() || j >= newMatrix.size() ||
-                        newMatrix.get(i).get(j) == 0) {
-                    toRemove.add(edge);
-                }
+        });
+        task.setOnCancelled(event -> {
+            finishPacking();
+            // Отменённый поиск всё равно оставляет лучший найденный набор
+            TrianglePackingSolver.Packing best = task.getValue();
+            if (best != null && version == graphVersion) {
+                applyTriangles(best.triangles(), false);
             }
+        });
+        task.setOnFailed(event -> {
+            finishPacking();
+            solveStatus.setText("Ошибка поиска упаковки");
+            task.getException().printStackTrace();
+        });
 
-            graphPane.getChildren().removeAll(
-                    toRemove.stream().map(EdgeInfo::getLine).collect(Collectors.toList())
-            );
-            edges.removeAll(toRemove);
+        Thread thread = new Thread(task, "triangle-packing");
+        thread.setDaemon(true);
+        thread.start();
+    }
 
-            // Находим все треугольники и окрашиваем рёбра
-            colorTriangles(newMatrix);
+    private void finishPacking() {
+        solveStatus.textProperty().unbind();
+        packingTask = null;
+        setSearching(false);
+    }
 
-            process.waitFor();
-            createAdjacencyMatrix(vertices);
+    private boolean isSearching() {
+        return solveTask != null || packingTask != null || partitionTask != null;
+    }
 
-        } catch (IOException | InterruptedException e) {
-            e.printStackTrace();
-        }
+    // Пока идёт поиск, запускать новый нельзя, а отменить текущий можно
+    private void setSearching(boolean searching) {
+        createMatrixButton.setDisable(searching);
+        packingButton.setDisable(searching);
+        previousPartitionButton.setDisable(searching);
+        nextPartitionButton.setDisable(searching);
+        countPartitionsButton.setDisable(searching);
+        cancelSolveButton.setDisable(!searching);
     }
 
-    // Метод для окрашивания треугольников
-    private void colorTriangles(List<List<Integer>> matrix) {
-        Random rand = new Random();
-        List<Integer> visitedVertices = new ArrayList<>(); // Список посещённых вершин
+    // Методы для просмотра всех разбиений
+    // Начало
 
-        for (int i = 0; i < matrix.size(); i++) {
-            if (visitedVertices.contains(i)) {
-                continue; // Пропускаем уже обработанные вершины
-            }
+    // Показываем следующее разбиение; новые разбиения ищутся лениво, по одному, в фоновом потоке
+    private void nextPartition() {
+        if (isSearching()) return;
+        if (partitionVersion != graphVersion) {
+            // Граф изменился - начинаем перебор заново
+            partitionWalker = null;
+            partitionVersion = graphVersion;
+            shownPartitions.clear();
+            firstShownNumber = 1;
+            partitionIndex = -1;
+        }
+        if (partitionIndex + 1 < shownPartitions.size()) {
+            showPartition(++partitionIndex);
+            return;
+        }
 
-            // Находим две вершины, связанные с текущей вершиной
-            List<Integer> connectedVertices = new ArrayList<>();
-            for (int j = 0; j < matrix.size(); j++) {
-                if (matrix.get(i).get(j) == 1 && !visitedVertices.contains(j)) {
-                    connectedVertices.add(j);
-                    if (connectedVertices.size() == 2) {
-                        break; // Нашли две вершины, выходим из цикла
-                    }
+        BitAdjacencyMatrix matrix = partitionWalker == null ? model.toAdjacencyMatrix() : null;
+        int version = graphVersion;
+        if (partitionWalker == null) {
+            partitionWalkerControl = new SearchControl(); // Отмена останавливает весь перебор
+        }
+        SearchControl control = partitionWalkerControl;
+        Task<List<int[]>> task = new Task<>() {
+            @Override
+            protected List<int[]> call() {
+                if (partitionWalker == null) {
+                    partitionWalker = new PartitionEnumerator(matrix).iterator(control);
                 }
+                return partitionWalker.hasNext() ? partitionWalker.next() : null;
+            }
+        };
+        startPartitionTask(task, control, "Поиск следующего разбиения...", () -> {
+            if (version != graphVersion) return;
+            List<int[]> partition = task.getValue();
+            if (partition == null) {
+                solveStatus.setText(shownPartitions.isEmpty() ? "Разбиений нет" : "Больше разбиений нет");
+                return;
+            }
+            shownPartitions.add(partition);
+            if (shownPartitions.size() > PARTITION_WINDOW) {
+                shownPartitions.remove(0);
+                firstShownNumber++;
             }
+            showPartition(partitionIndex = shownPartitions.size() - 1);
+        });
+    }
 
-            // Если нашли две вершины, окрашиваем рёбра
-            if (connectedVertices.size() == 2) {
-                Color color = Color.color(
-                        rand.nextDouble(),
-                        rand.nextDouble(),
-                        rand.nextDouble()
-                );
-
-                // Окрашиваем рёбра треугольника
-                colorEdge(i, connectedVertices.get(0), color);
-                colorEdge(i, connectedVertices.get(1), color);
-                colorEdge(connectedVertices.get(0), connectedVertices.get(1), color);
-
-                // Добавляем вершины в список посещённых
-                visitedVertices.add(i);
-                visitedVertices.add(connectedVertices.get(0));
-                visitedVertices.add(connectedVertices.get(1));
+    private void previousPartition() {
+        if (isSearching() || partitionVersion != graphVersion || partitionIndex <= 0) return;
+        showPartition(--partitionIndex);
+    }
+
+    private void countPartitions() {
+        if (isSearching()) return;
+        BitAdjacencyMatrix matrix = model.toAdjacencyMatrix();
+        int version = graphVersion;
+        SearchControl control = new SearchControl();
+        long start = System.nanoTime();
+        Task<BigInteger> task = new Task<>() {
+            @Override
+            protected BigInteger call() {
+                return PartitionEnumerator.count(matrix, ForkJoinPool.commonPool(), control);
+            }
+        };
+        startPartitionTask(task, control, "Подсчёт разбиений...", () -> {
+            if (version == graphVersion && task.getValue() != null) {
+                solveStatus.setText(String.format("Разбиений: %,d (%.1f с)", task.getValue(),
+                        (System.nanoTime() - start) / 1e9));
             }
+        });
+    }
+
+    private void startPartitionTask(Task<?> task, SearchControl control, String status, Runnable onSucceeded) {
+        partitionTask = task;
+        partitionControl = control;
+        setSearching(true);
+        solveStatus.setText(status);
+        task.setOnSucceeded(event -> {
+            finishPartitionTask();
+            onSucceeded.run();
+        });
+        task.setOnCancelled(event -> {
+            finishPartitionTask();
+            partitionVersion = -1; // Прерванный перебор продолжить нельзя
+            solveStatus.setText("Поиск отменён");
+        });
+        task.setOnFailed(event -> {
+            finishPartitionTask();
+            partitionVersion = -1;
+            solveStatus.setText("Ошибка поиска разбиений");
+            task.getException().printStackTrace();
+        });
+        Thread thread = new Thread(task, "triangle-partitions");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void finishPartitionTask() {
+        partitionTask = null;
+        partitionControl = null;
+        setSearching(false);
+    }
+
+    // Окрашиваем разбиение, не трогая историю: это просмотр, а не изменение графа
+    private void showPartition(int index) {
+        editor.resetEdgeStyles();
+        editor.colorTriangles(shownPartitions.get(index));
+        rememberTriangles(shownPartitions.get(index));
+        solveStatus.setText(String.format("Разбиение №%,d", firstShownNumber + index));
+    }
+    // Конец
+
+    // Параллельный решатель включается параметром -Dsolver.parallelism=N (N > 1),
+    // внешний процесс-решатель - параметром -Dsolver.worker=local (локальный SolverWorker)
+    // или -Dsolver.worker="команда запуска"
+    private static TrianglePartitionSolver createSolver() {
+        String worker = System.getProperty("solver.worker");
+        if (worker != null) {
+            return worker.equals("local")
+                    ? new SolverWorkerClient()
+                    : new SolverWorkerClient(Arrays.asList(worker.trim().split("\\s+")));
         }
+        int parallelism = Integer.getInteger("solver.parallelism", 1);
+        return parallelism > 1 ? new ForkJoinTriangleSolver(parallelism) : new DancingLinksSolver();
     }
 
-    // Вспомогательный метод для окраски конкретного ребра
-    private void colorEdge(int start, int end, Color color) {
-        for (EdgeInfo edge : edges) {
-            if ((edge.getStartIndex() == start && edge.getEndIndex() == end) ||
-                    (edge.getStartIndex() == end && edge.getEndIndex() == start)) {
-                edge.getLine().setStroke(color);
-                edge.getLine().setStrokeWidth(2); // Делаем рёбра толще для наглядности
-                edge.setColor(color);
+    // Сохраняем кэш решений и завершаем процесс-решатель при закрытии окна
+    @Override
+    public void stop() throws Exception {
+        solveService.close();
+        solver.save(solutionCacheFile);
+        EditTrace.Recorder recorder = editor.getRecorder();
+        if (recorder != null) {
+            editor.setRecorder(null);
+            recorder.close();
+        }
+        if (baseSolver instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+        packingSolver.close();
+    }
+
+    // Методы для силовой раскладки
+    // Начало
+
+    // Запускаем раскладку в фоне; рёбра и треугольники передаются в плотной нумерации на момент запуска
+    private void startLayout() {
+        int n = model.vertexCount();
+        if (n < 2 || layoutTask != null) {
+            layoutButton.setSelected(layoutTask != null);
+            return;
+        }
+        int[] ids = new int[n];
+        double[] x = new double[n], y = new double[n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = model.vertexAt(i);
+            x[i] = model.x(ids[i]);
+            y[i] = model.y(ids[i]);
+        }
+        int[] edgeStart = new int[model.edgeCount()], edgeEnd = new int[model.edgeCount()];
+        for (int i = 0; i < edgeStart.length; i++) {
+            int e = model.edgeAt(i);
+            edgeStart[i] = model.indexOf(model.edgeStart(e));
+            edgeEnd[i] = model.indexOf(model.edgeEnd(e));
+        }
+        List<int[]> triangles = new ArrayList<>();
+        for (int[] t : lastTriangles) {
+            int a = model.indexOf(t[0]), b = model.indexOf(t[1]), c = model.indexOf(t[2]);
+            if (a >= 0 && b >= 0 && c >= 0) triangles.add(new int[]{a, b, c});
+        }
+
+        ForceLayout layout = new ForceLayout(x, y, edgeStart, edgeEnd, triangles.toArray(new int[0][]),
+                TRIANGLE_PULL, Math.max(40, 5 * editor.getVertexSize()), ForkJoinPool.commonPool());
+        LayoutTask task = new LayoutTask(layout);
+        layoutTask = task;
+        layoutVertices = ids;
+        layoutFrom = new double[2 * n];
+        for (int i = 0; i < n; i++) {
+            layoutFrom[2 * i] = x[i];
+            layoutFrom[2 * i + 1] = y[i];
+        }
+        layoutApplied = null;
+
+        // Кадры приходят не чаще раза за кадр JavaFX; после остановки раскладки их игнорируем
+        task.valueProperty().addListener((obs, oldValue, positions) -> {
+            if (task == layoutTask && positions != null) {
+                editor.setPositions(layoutVertices, positions);
+                layoutApplied = positions;
             }
+        });
+        task.messageProperty().addListener((obs, oldValue, message) -> {
+            if (!solveStatus.textProperty().isBound()) {
+                solveStatus.setText(message);
+            }
+        });
+        task.setOnSucceeded(event -> {
+            if (task == layoutTask) finishLayout();
+        });
+        task.setOnFailed(event -> {
+            if (task == layoutTask) finishLayout();
+            solveStatus.setText("Ошибка раскладки");
+            task.getException().printStackTrace();
+        });
+
+        Thread thread = new Thread(task, "force-layout");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void stopLayout() {
+        if (layoutTask != null) {
+            layoutTask.cancel();
+            finishLayout();
         }
     }
 
+    // Вся раскладка записывается в историю одним действием
+    private void finishLayout() {
+        layoutTask = null;
+        layoutButton.setSelected(false);
+        int[] moved = layoutVertices;
+        double[] from = layoutFrom, to = layoutApplied;
+        layoutVertices = null;
+        layoutFrom = layoutApplied = null;
+        if (to == null) return;
+        editor.placeVertices(moved, from, to);
+    }
+
+    // Запоминаем треугольники по постоянным номерам вершин: плотные номера меняются при удалениях
+    private void rememberTriangles(List<int[]> triangles) {
+        lastTriangles = new int[triangles.size()][];
+        for (int t = 0; t < triangles.size(); t++) {
+            int[] triangle = triangles.get(t);
+            lastTriangles[t] = new int[]{model.vertexAt(triangle[0]), model.vertexAt(triangle[1]), model.vertexAt(triangle[2])};
+        }
+    }
+    // Конец
+
     public static void main(String[] args) {
         launch(args);
     }
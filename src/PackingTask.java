@@ -0,0 +1,43 @@
+import javafx.concurrent.Task;
+
+// Фоновый поиск наибольшего набора непересекающихся треугольников с ограничением времени.
+// Каждое улучшение публикуется через updateValue/updateMessage, поэтому интерфейс
+// показывает лучший набор и разрыв до верхней границы, пока поиск ещё идёт
+public class PackingTask extends Task<TrianglePackingSolver.Packing> {
+    private final TrianglePackingSolver solver;
+    private final BitAdjacencyMatrix graph; // Снимок графа на момент запуска
+    private final long budgetMillis;
+    private final SearchControl control = new SearchControl();
+    private final long startNanos = System.nanoTime();
+
+    public PackingTask(TrianglePackingSolver solver, BitAdjacencyMatrix graph, long budgetMillis) {
+        this.solver = solver;
+        this.graph = graph;
+        this.budgetMillis = budgetMillis;
+    }
+
+    @Override
+    protected TrianglePackingSolver.Packing call() {
+        TrianglePackingSolver.Packing packing = solver.solve(graph, budgetMillis, control, this::publish);
+        publish(packing);
+        return packing;
+    }
+
+    private void publish(TrianglePackingSolver.Packing packing) {
+        updateValue(packing);
+        updateMessage(describe(packing, (System.nanoTime() - startNanos) / 1e9));
+    }
+
+    public static String describe(TrianglePackingSolver.Packing packing, double seconds) {
+        int bound = packing.upperBound();
+        double gap = bound > 0 ? 100.0 * (bound - packing.size()) / bound : 0;
+        return String.format("Упаковка: %d треугольников, верхняя граница %d (разрыв %.1f%%)%s, %.1f с",
+                packing.size(), bound, gap, packing.isOptimal() ? " - оптимум" : "", seconds);
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        control.cancel();
+        return super.cancel(mayInterruptIfRunning);
+    }
+}
@@ -0,0 +1,277 @@
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+// Перебор всех разбиений графа на треугольники. Дерево поиска строится так:
+// вершина с наименьшим номером среди непокрытых выбирает треугольник, все вершины которого
+// больше неё. Поэтому каждое разбиение встречается ровно один раз.
+//  - iterator()/stream() выдают разбиения по одному, по требованию: хранится только текущий путь
+//    в дереве, память не зависит от числа разбиений;
+//  - count() считает разбиения, не создавая их: граф раскладывается на компоненты связности
+//    (число разбиений - произведение чисел по компонентам, одинаковые компоненты считаются один раз),
+//    верхние уровни дерева делятся между потоками, а одинаковые множества непокрытых вершин,
+//    до которых поиск доходит разными путями, считаются один раз
+public class PartitionEnumerator {
+    private static final int SPLIT_DEPTH = 4; // До этой глубины ветви могут становиться отдельными задачами
+    private static final int MEMO_LIMIT = 1 << 20; // Наибольшее число запомненных состояний
+    private static final int MEMO_MIN_REMAINING = 6; // Меньшие остатки дешевле пересчитать
+
+    private final int n;
+    private final List<int[]> triangles;
+    private final int[][] byLowest; // Номера треугольников, сгруппированные по наименьшей вершине
+
+    public PartitionEnumerator(BitAdjacencyMatrix graph) {
+        this.n = graph.size();
+        this.triangles = graph.triangles();
+        int[] counts = new int[n];
+        for (int[] t : triangles) counts[t[0]]++;
+        byLowest = new int[n][];
+        for (int v = 0; v < n; v++) byLowest[v] = new int[counts[v]];
+        for (int t = triangles.size() - 1; t >= 0; t--) {
+            int v = triangles.get(t)[0];
+            byLowest[v][--counts[v]] = t;
+        }
+    }
+
+    public Iterator<List<int[]>> iterator(SearchControl control) {
+        return new Walker(control);
+    }
+
+    public Stream<List<int[]>> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator(new SearchControl()),
+                Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.IMMUTABLE), false);
+    }
+
+    // Число разбиений; null, если подсчёт отменён
+    public static BigInteger count(BitAdjacencyMatrix graph, ForkJoinPool pool, SearchControl control) {
+        if (graph.size() % 3 != 0) {
+            return BigInteger.ZERO;
+        }
+        BigInteger total = BigInteger.ONE;
+        Map<String, BigInteger> byFingerprint = new HashMap<>(); // Одинаковые компоненты считаем один раз
+        for (int[] component : graph.components()) {
+            if (component.length % 3 != 0) {
+                return BigInteger.ZERO;
+            }
+            BitAdjacencyMatrix sub = graph.induced(component);
+            String key = sub.fingerprint();
+            BigInteger count = byFingerprint.get(key);
+            if (count == null) {
+                count = new PartitionEnumerator(sub).countConnected(pool, control);
+                if (control.isStopped()) {
+                    return null;
+                }
+                byFingerprint.put(key, count);
+            }
+            if (count.signum() == 0) {
+                return BigInteger.ZERO;
+            }
+            total = total.multiply(count);
+        }
+        return total;
+    }
+
+    private BigInteger countConnected(ForkJoinPool pool, SearchControl control) {
+        if (n == 0) return BigInteger.ONE;
+        Counter counter = new Counter(control);
+        return pool.invoke(counter.new Branch(new long[(n + 63) >>> 6], 0, 0));
+    }
+
+    private static int lowestUncovered(long[] covered) {
+        for (int w = 0; w < covered.length; w++) {
+            if (covered[w] != -1L) {
+                return (w << 6) + Long.numberOfTrailingZeros(~covered[w]);
+            }
+        }
+        return covered.length << 6;
+    }
+
+    private static boolean isFree(long[] covered, int[] t) {
+        return (covered[t[0] >>> 6] & (1L << t[0])) == 0
+                && (covered[t[1] >>> 6] & (1L << t[1])) == 0
+                && (covered[t[2] >>> 6] & (1L << t[2])) == 0;
+    }
+
+    private static void flip(long[] covered, int[] t) {
+        for (int v : t) covered[v >>> 6] ^= 1L << v;
+    }
+
+    // Обход дерева поиска с явным стеком: next() продолжает с того места, где остановился
+    private class Walker implements Iterator<List<int[]>> {
+        private final SearchControl control;
+        private final long[] covered = new long[(n + 63) >>> 6];
+        private final int[] lowest = new int[n / 3 + 1]; // Вершина, выбирающая треугольник на уровне
+        private final int[] cursor = new int[n / 3 + 1]; // Следующий кандидат на уровне
+        private final int[] chosen = new int[n / 3 + 1];
+        private int depth;
+        private List<int[]> pending; // Найденное, но ещё не выданное разбиение
+        private long nodes = 0;
+
+        Walker(SearchControl control) {
+            this.control = control;
+            if (n % 3 != 0) {
+                depth = -1; // Разбиений нет
+            } else if (n == 0) {
+                pending = List.of(); // Единственное разбиение пустого графа
+                depth = -1;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (pending == null) {
+                pending = advance();
+            }
+            return pending != null;
+        }
+
+        @Override
+        public List<int[]> next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            List<int[]> result = pending;
+            pending = null;
+            return result;
+        }
+
+        private List<int[]> advance() {
+            try {
+                while (depth >= 0 && !control.isStopped()) {
+                    int[] list = byLowest[lowest[depth]];
+                    int t = -1;
+                    while (cursor[depth] < list.length) {
+                        int candidate = list[cursor[depth]++];
+                        nodes++;
+                        if (isFree(covered, triangles.get(candidate))) {
+                            t = candidate;
+                            break;
+                        }
+                    }
+                    if (t < 0) {
+                        // Кандидаты уровня кончились - возвращаемся на уровень выше
+                        if (--depth >= 0) flip(covered, triangles.get(chosen[depth]));
+                        continue;
+                    }
+                    flip(covered, triangles.get(t));
+                    chosen[depth++] = t;
+                    if (depth == n / 3) {
+                        List<int[]> partition = new ArrayList<>(depth);
+                        for (int d = 0; d < depth; d++) {
+                            partition.add(triangles.get(chosen[d]).clone());
+                        }
+                        flip(covered, triangles.get(chosen[--depth])); // Следующий вызов продолжит этот уровень
+                        return partition;
+                    }
+                    lowest[depth] = lowestUncovered(covered);
+                    cursor[depth] = 0;
+                }
+                return null;
+            } finally {
+                control.addNodes(nodes);
+                nodes = 0;
+            }
+        }
+    }
+
+    // Параллельный подсчёт с общей таблицей уже посчитанных состояний
+    private class Counter {
+        final SearchControl control;
+        final ConcurrentHashMap<Cover, BigInteger> memo = new ConcurrentHashMap<>();
+
+        Counter(SearchControl control) {
+            this.control = control;
+        }
+
+        class Branch extends RecursiveTask<BigInteger> {
+            private final long[] covered;
+            private final int coveredCount;
+            private final int depth;
+
+            Branch(long[] covered, int coveredCount, int depth) {
+                this.covered = covered;
+                this.coveredCount = coveredCount;
+                this.depth = depth;
+            }
+
+            @Override
+            protected BigInteger compute() {
+                // Делим дальше, только пока у потоков мало работы в очереди
+                if (depth >= SPLIT_DEPTH || coveredCount == n || getSurplusQueuedTaskCount() > 2) {
+                    long[] nodes = new long[1];
+                    BigInteger count = countFrom(covered, coveredCount, nodes);
+                    control.addNodes(nodes[0]);
+                    return count;
+                }
+                Cover state = new Cover(covered);
+                BigInteger known = memo.get(state);
+                if (known != null) return known;
+                List<Branch> children = new ArrayList<>();
+                for (int t : byLowest[lowestUncovered(covered)]) {
+                    if (isFree(covered, triangles.get(t))) {
+                        long[] next = covered.clone();
+                        flip(next, triangles.get(t));
+                        children.add(new Branch(next, coveredCount + 3, depth + 1));
+                    }
+                }
+                BigInteger total = BigInteger.ZERO;
+                for (Branch child : invokeAll(children)) {
+                    total = total.add(child.join());
+                }
+                if (!control.isStopped()) {
+                    memo.put(state, total);
+                }
+                return total;
+            }
+        }
+
+        // Последовательный подсчёт; covered меняется на месте и восстанавливается.
+        // Число разбиений может превысить long, поэтому суммы в BigInteger
+        BigInteger countFrom(long[] covered, int coveredCount, long[] nodes) {
+            if (coveredCount == n) return BigInteger.ONE;
+            if (control.isStopped()) return BigInteger.ZERO;
+            boolean memoize = n - coveredCount >= MEMO_MIN_REMAINING;
+            Cover state = memoize ? new Cover(covered.clone()) : null;
+            if (memoize) {
+                BigInteger known = memo.get(state);
+                if (known != null) return known;
+            }
+            BigInteger total = BigInteger.ZERO;
+            for (int t : byLowest[lowestUncovered(covered)]) {
+                nodes[0]++;
+                int[] triangle = triangles.get(t);
+                if (!isFree(covered, triangle)) continue;
+                flip(covered, triangle);
+                total = total.add(countFrom(covered, coveredCount + 3, nodes));
+                flip(covered, triangle);
+            }
+            if (memoize && !control.isStopped() && memo.size() < MEMO_LIMIT) {
+                memo.put(state, total);
+            }
+            return total;
+        }
+    }
+
+    // Множество покрытых вершин как ключ таблицы
+    private record Cover(long[] covered) {
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Cover other && Arrays.equals(covered, other.covered);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(covered);
+        }
+    }
+}
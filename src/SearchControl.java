@@ -0,0 +1,89 @@
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+// Общее состояние одного поиска: флаг остановки (решение найдено или поиск отменён)
+// и счётчик просмотренных узлов дерева перебора. Разделяется между всеми потоками решателя
+public class SearchControl {
+    private final AtomicBoolean stopped = new AtomicBoolean();
+    private volatile boolean cancelled;
+    private volatile Runnable cancelHook; // Действие при отмене, например завершение внешнего процесса
+    private final LongAdder nodes = new LongAdder();
+    private final LongAdder serializationNanos = new LongAdder(); // Время обмена данными с внешним решателем
+    private final SearchControl parent; // Узлы дочернего поиска учитываются и в родительском
+    private final List<SearchControl> children = new CopyOnWriteArrayList<>();
+
+    public SearchControl() {
+        this(null);
+    }
+
+    private SearchControl(SearchControl parent) {
+        this.parent = parent;
+    }
+
+    // Дочерний поиск, например по одной компоненте графа: у него свой флаг остановки,
+    // но отмена родителя отменяет и его
+    public SearchControl child() {
+        SearchControl child = new SearchControl(this);
+        children.add(child);
+        if (cancelled) {
+            child.cancel();
+        }
+        return child;
+    }
+
+    // Останавливаем поиск; возвращает true, если поиск остановлен именно этим вызовом
+    public boolean stop() {
+        return stopped.compareAndSet(false, true);
+    }
+
+    public boolean isStopped() {
+        return stopped.get();
+    }
+
+    // Отмена поиска пользователем: решатели завершаются и возвращают null
+    public void cancel() {
+        cancelled = true;
+        stopped.set(true);
+        Runnable hook = cancelHook;
+        if (hook != null) {
+            hook.run();
+        }
+        for (SearchControl child : children) {
+            child.cancel();
+        }
+    }
+
+    // Устанавливаем (или снимаем, передав null) действие, выполняемое при отмене
+    public void onCancel(Runnable hook) {
+        cancelHook = hook;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    // Добавляем узлы, просмотренные потоком с момента прошлого вызова
+    public void addNodes(long count) {
+        nodes.add(count);
+        if (parent != null) {
+            parent.addNodes(count);
+        }
+    }
+
+    public long getNodes() {
+        return nodes.sum();
+    }
+
+    public void addSerializationNanos(long nanos) {
+        serializationNanos.add(nanos);
+        if (parent != null) {
+            parent.addSerializationNanos(nanos);
+        }
+    }
+
+    public long getSerializationNanos() {
+        return serializationNanos.sum();
+    }
+}
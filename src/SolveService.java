@@ -0,0 +1,218 @@
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Сервис поиска разбиений, общий для всех, кто получил один и тот же экземпляр: ограничение одновременных
+// поисков и объединение одинаковых графов действуют только внутри экземпляра. В программе свой сервис
+// у окна редактора (Main, со своим решателем и кэшем) и у каждого запуска BatchSolver.
+// Каждый запрос получает снимок графа (матрица не должна меняться после передачи) и возвращает
+// CompletableFuture с треугольниками или null, если разбиения нет.
+// Поиск идёт на виртуальном потоке; одновременно решается не больше maxConcurrent графов (по умолчанию
+// по числу ядер), остальные ждут семафор, не занимая потоков платформы, поэтому пул настраивать не нужно.
+// Одинаковые графы, которые уже решаются, не решаются повторно: запрос присоединяется к идущему поиску.
+// У каждого запроса свой срок: по его истечении будущее завершается TimeoutException. Поиск отменяется,
+// когда его результат больше никому не нужен (все запросы отменены или просрочены).
+// Решатель вызывается из нескольких потоков сразу и должен это допускать
+public class SolveService implements AutoCloseable {
+    private final TrianglePartitionSolver solver;
+    private final Semaphore permits;
+    private final int maxConcurrent;
+    private final Map<String, Solve> inFlight = new HashMap<>(); // Идущие поиски по отпечатку графа
+    private final AtomicLong solves = new AtomicLong(); // Запущено поисков
+    private final AtomicLong shared = new AtomicLong(); // Запросов, присоединившихся к идущему поиску
+    private volatile boolean closed = false;
+
+    public SolveService(TrianglePartitionSolver solver) {
+        this(solver, Runtime.getRuntime().availableProcessors());
+    }
+
+    public SolveService(TrianglePartitionSolver solver, int maxConcurrent) {
+        if (maxConcurrent < 1) throw new IllegalArgumentException("maxConcurrent должен быть положительным");
+        this.solver = solver;
+        this.maxConcurrent = maxConcurrent;
+        this.permits = new Semaphore(maxConcurrent);
+    }
+
+    // Один поиск, общий для всех одинаковых запросов
+    private final class Solve {
+        final String key;
+        final BitAdjacencyMatrix graph;
+        final SearchControl control = new SearchControl();
+        final CompletableFuture<List<int[]>> result = new CompletableFuture<>();
+        int waiters = 0; // Запросов, ждущих результат (под блокировкой inFlight)
+        volatile long solveNanos; // Время самого поиска без ожидания семафора
+
+        Solve(String key, BitAdjacencyMatrix graph) {
+            this.key = key;
+            this.graph = graph;
+        }
+
+        void run() {
+            // Пока поиск ждёт очереди, отмена прерывает ожидание
+            control.onCancel(Thread.currentThread()::interrupt);
+            boolean acquired = false;
+            try {
+                permits.acquire();
+                acquired = true;
+            } catch (InterruptedException e) {
+                control.cancel();
+            }
+            control.onCancel(null);
+            Thread.interrupted(); // Прерывание могло прийти уже после получения разрешения
+
+            List<int[]> triangles = null;
+            Throwable failure = null;
+            if (acquired && !control.isCancelled()) {
+                long start = System.nanoTime();
+                try {
+                    triangles = solver.solve(graph, control);
+                } catch (RuntimeException | Error e) {
+                    failure = e;
+                } finally {
+                    solveNanos = System.nanoTime() - start;
+                    permits.release();
+                }
+            } else if (acquired) {
+                permits.release();
+            }
+            synchronized (inFlight) {
+                inFlight.remove(key, this);
+            }
+            if (failure != null) {
+                result.completeExceptionally(failure);
+            } else if (control.isCancelled()) {
+                result.completeExceptionally(new CancellationException("Поиск отменён"));
+            } else {
+                result.complete(triangles);
+            }
+        }
+    }
+
+    // Запрос одного источника: его будущее и ход общего поиска
+    public static final class Request {
+        private final CompletableFuture<List<int[]>> result;
+        private final Solve solve;
+        private final boolean joined;
+
+        private Request(CompletableFuture<List<int[]>> result, Solve solve, boolean joined) {
+            this.result = result;
+            this.solve = solve;
+            this.joined = joined;
+        }
+
+        // Треугольники или null, если разбиения нет. Отмена будущего снимает запрос
+        public CompletableFuture<List<int[]>> result() { return result; }
+
+        // true, если запрос присоединился к уже идущему поиску того же графа
+        public boolean isJoined() { return joined; }
+
+        public long getNodes() { return solve.control.getNodes(); }
+        public long getSerializationNanos() { return solve.control.getSerializationNanos(); }
+        public long getSolveNanos() { return solve.solveNanos; }
+    }
+
+    // Поиск без ограничения по времени
+    public Request submit(BitAdjacencyMatrix graph) {
+        return submit(graph, null);
+    }
+
+    // timeout - срок ожидания этого запроса, null - без ограничения
+    public Request submit(BitAdjacencyMatrix graph, Duration timeout) {
+        if (closed) throw new IllegalStateException("Сервис поиска закрыт");
+        String key = graph.fingerprint();
+        Solve solve;
+        boolean joined;
+        synchronized (inFlight) {
+            solve = inFlight.get(key);
+            joined = solve != null;
+            if (!joined) {
+                solve = new Solve(key, graph);
+                inFlight.put(key, solve);
+            }
+            solve.waiters++;
+        }
+        if (joined) {
+            shared.incrementAndGet();
+        } else {
+            solves.incrementAndGet();
+            Thread.ofVirtual().name("triangle-solve").start(solve::run);
+        }
+
+        // Своё будущее у каждого запроса: его отмена или просрочка не трогает остальных
+        CompletableFuture<List<int[]>> result = new CompletableFuture<>();
+        Solve target = solve;
+        target.result.whenComplete((triangles, failure) -> {
+            if (failure != null) {
+                result.completeExceptionally(failure);
+            } else {
+                result.complete(triangles);
+            }
+        });
+        if (timeout != null) {
+            result.orTimeout(Math.max(1, timeout.toMillis()), TimeUnit.MILLISECONDS);
+        }
+        result.whenComplete((triangles, failure) -> {
+            if (failure != null && !target.result.isDone()) {
+                release(target); // Запрос отменён или просрочен, пока поиск ещё идёт
+            }
+        });
+        return new Request(result, target, joined);
+    }
+
+    // Запрос больше не ждёт результат; поиск без ожидающих отменяется
+    private void release(Solve solve) {
+        boolean cancel;
+        synchronized (inFlight) {
+            cancel = --solve.waiters == 0;
+            if (cancel) {
+                inFlight.remove(solve.key, solve);
+            }
+        }
+        if (cancel) {
+            solve.control.cancel();
+        }
+    }
+
+    // Работа помимо поиска разбиений (например, упаковка для графа без разбиения) в пределах того же
+    // ограничения: задача ждёт разрешение наравне с поисками и выполняется в вызывающем потоке
+    public <T> T runLimited(Supplier<T> task) throws InterruptedException {
+        permits.acquire();
+        try {
+            return task.get();
+        } finally {
+            permits.release();
+        }
+    }
+
+    public int getMaxConcurrent() { return maxConcurrent; }
+    public long getSolves() { return solves.get(); }
+    public long getShared() { return shared.get(); }
+
+    // Сколько графов решается или ждёт очереди
+    public int getInFlight() {
+        synchronized (inFlight) {
+            return inFlight.size();
+        }
+    }
+
+    // Новые запросы не принимаются, идущие поиски отменяются
+    @Override
+    public void close() {
+        closed = true;
+        Solve[] running;
+        synchronized (inFlight) {
+            running = inFlight.values().toArray(new Solve[0]);
+            inFlight.clear();
+        }
+        for (Solve solve : running) {
+            solve.control.cancel();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+import javafx.concurrent.Task;
+
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+
+// Фоновая задача поиска разбиения для окна редактора. Передаёт снимок графа в общий SolveService
+// и ждёт результат, поэтому не трогает объекты сцены и может выполняться вне потока JavaFX
+public class SolveTask extends Task<List<int[]>> {
+    private final SolveService service;
+    private final BitAdjacencyMatrix graph; // Снимок графа на момент запуска
+    private final long startNanos = System.nanoTime();
+    private final long matrixBuildNanos; // Время построения снимка графа
+    private volatile SolveService.Request request; // null, пока запрос не отправлен
+
+    public SolveTask(SolveService service, BitAdjacencyMatrix graph, long matrixBuildNanos) {
+        this.service = service;
+        this.graph = graph;
+        this.matrixBuildNanos = matrixBuildNanos;
+    }
+
+    @Override
+    protected List<int[]> call() throws Exception {
+        GraphEvents.Solve event = new GraphEvents.Solve();
+        event.begin();
+        SolveService.Request current = service.submit(graph);
+        request = current;
+        if (isCancelled()) {
+            current.result().cancel(false); // Отмена пришла раньше, чем запрос был отправлен
+        }
+        List<int[]> result = null;
+        try {
+            result = current.result().get();
+        } catch (CancellationException e) {
+            // Результат уже не нужен
+        } catch (ExecutionException e) {
+            if (!(e.getCause() instanceof CancellationException)) {
+                throw e.getCause() instanceof Exception cause ? cause : e;
+            }
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.vertices = graph.size();
+            event.matrixBuildNanos = matrixBuildNanos;
+            event.serializationNanos = current.getSerializationNanos();
+            event.nodes = current.getNodes();
+            event.triangles = result == null ? -1 : result.size();
+            event.cancelled = isCancelled();
+            event.commit();
+        }
+        return result;
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        SolveService.Request current = request;
+        if (current != null) {
+            current.result().cancel(false); // Сервис отменит поиск, если его больше никто не ждёт
+        }
+        return super.cancel(mayInterruptIfRunning);
+    }
+
+    public long getNodes() {
+        SolveService.Request current = request;
+        return current == null ? 0 : current.getNodes();
+    }
+
+    public long getMatrixBuildNanos() {
+        return matrixBuildNanos;
+    }
+
+    public long getSerializationNanos() {
+        SolveService.Request current = request;
+        return current == null ? 0 : current.getSerializationNanos();
+    }
+
+    // Время самого поиска; 0, пока поиск не закончился
+    public long getSolveNanos() {
+        SolveService.Request current = request;
+        return current == null ? 0 : current.getSolveNanos();
+    }
+
+    public double getElapsedSeconds() {
+        return (System.nanoTime() - startNanos) / 1e9;
+    }
+}
@@ -0,0 +1,79 @@
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+// Двоичный протокол обмена с процессом-решателем через stdin/stdout.
+// Запрос:  int n, int m, затем m пар int (концы рёбер, i < j)
+// Ответ:   long узлов перебора, int k (-1 - решения нет), затем k троек int (треугольники)
+public final class SolverProtocol {
+
+    private SolverProtocol() { }
+
+    public static void writeGraph(DataOutputStream out, BitAdjacencyMatrix graph) throws IOException {
+        int n = graph.size();
+        int m = 0;
+        for (int i = 0; i < n; i++) m += graph.degree(i);
+        out.writeInt(n);
+        out.writeInt(m / 2);
+        for (int i = 0; i < n; i++) {
+            // Идём только по битам j > i, чтобы каждое ребро попало в поток один раз
+            for (int w = (i + 1) >>> 6; w < graph.wordsPerRow(); w++) {
+                long word = graph.word(i, w);
+                if (w == (i + 1) >>> 6) word &= -1L << (i + 1);
+                for (; word != 0; word &= word - 1) {
+                    out.writeInt(i);
+                    out.writeInt((w << 6) + Long.numberOfTrailingZeros(word));
+                }
+            }
+        }
+        out.flush();
+    }
+
+    public static BitAdjacencyMatrix readGraph(DataInputStream in) throws IOException {
+        int n = in.readInt();
+        int m = in.readInt();
+        BitAdjacencyMatrix graph = new BitAdjacencyMatrix(n);
+        for (int e = 0; e < m; e++) {
+            int i = in.readInt();
+            int j = in.readInt();
+            if (i < 0 || j < 0 || i >= n || j >= n || i == j) {
+                throw new IOException("Некорректное ребро " + i + " - " + j);
+            }
+            graph.addEdge(i, j);
+        }
+        return graph;
+    }
+
+    public static void writeResult(DataOutputStream out, List<int[]> triangles, long nodes) throws IOException {
+        out.writeLong(nodes);
+        if (triangles == null) {
+            out.writeInt(-1);
+        } else {
+            out.writeInt(triangles.size());
+            for (int[] t : triangles) {
+                out.writeInt(t[0]);
+                out.writeInt(t[1]);
+                out.writeInt(t[2]);
+            }
+        }
+        out.flush();
+    }
+
+    // Читаем ответ; количество узлов перебора добавляется в control
+    public static List<int[]> readResult(DataInputStream in, SearchControl control) throws IOException {
+        control.addNodes(in.readLong());
+        long start = System.nanoTime(); // Ответ пришёл - дальше только чтение данных
+        int count = in.readInt();
+        if (count < 0) {
+            return null;
+        }
+        List<int[]> triangles = new ArrayList<>(count);
+        for (int t = 0; t < count; t++) {
+            triangles.add(new int[]{in.readInt(), in.readInt(), in.readInt()});
+        }
+        control.addSerializationNanos(System.nanoTime() - start);
+        return triangles;
+    }
+}
@@ -0,0 +1,26 @@
+import java.io.*;
+import java.util.List;
+
+// Локальный процесс-решатель, говорящий на протоколе SolverProtocol.
+// Запускается один раз и обслуживает запросы, пока не закроют его stdin.
+// Позволяет проверить путь через внешний решатель там, где нет исполняемого файла на с++
+public class SolverWorker {
+
+    public static void main(String[] args) throws IOException {
+        TrianglePartitionSolver solver = new DancingLinksSolver();
+        DataInputStream in = new DataInputStream(new BufferedInputStream(System.in));
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(System.out));
+
+        while (true) {
+            BitAdjacencyMatrix graph;
+            try {
+                graph = SolverProtocol.readGraph(in);
+            } catch (EOFException e) {
+                return; // Клиент закрыл канал - завершаем работу
+            }
+            SearchControl control = new SearchControl();
+            List<int[]> triangles = solver.solve(graph, control);
+            SolverProtocol.writeResult(out, triangles, control.getNodes());
+        }
+    }
+}
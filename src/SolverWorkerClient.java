@@ -0,0 +1,89 @@
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+
+// Решатель во внешнем долгоживущем процессе. Процесс запускается при первом поиске
+// и переиспользуется для следующих; граф и ответ передаются через pipe в двоичном виде
+// (SolverProtocol), без временных файлов. Отмена поиска завершает процесс,
+// и при следующем поиске он запускается заново
+public class SolverWorkerClient implements TrianglePartitionSolver, AutoCloseable {
+    private final List<String> command; // Команда запуска процесса-решателя
+    private Process process;
+    private DataInputStream in;
+    private DataOutputStream out;
+
+    // Клиент для локального SolverWorker, запускаемого той же JVM
+    public SolverWorkerClient() {
+        this(localWorkerCommand());
+    }
+
+    public SolverWorkerClient(List<String> command) {
+        this.command = command;
+    }
+
+    public static List<String> localWorkerCommand() {
+        List<String> command = new ArrayList<>();
+        command.add(ProcessHandle.current().info().command().orElse("java"));
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(SolverWorker.class.getName());
+        return command;
+    }
+
+    // null - разбиения нет или поиск отменён; сбой процесса-решателя - UncheckedIOException,
+    // чтобы он не выглядел как "разбиения нет"
+    @Override
+    public synchronized List<int[]> solve(BitAdjacencyMatrix graph, SearchControl control) {
+        if (control.isCancelled()) {
+            return null; // Отменённый поиск не трогает общий процесс: им пользуются и другие части графа
+        }
+        try {
+            Process worker = ensureStarted();
+            control.onCancel(worker::destroyForcibly);
+            if (control.isCancelled()) {
+                return null; // Отменили до установки обработчика, граф ещё не передан
+            }
+            long start = System.nanoTime();
+            SolverProtocol.writeGraph(out, graph);
+            control.addSerializationNanos(System.nanoTime() - start);
+            return SolverProtocol.readResult(in, control);
+        } catch (IOException e) {
+            stop(); // Процесс в неизвестном состоянии - при следующем поиске запустим новый
+            if (control.isCancelled()) {
+                return null; // Процесс завершила сама отмена
+            }
+            throw new UncheckedIOException("Процесс-решатель завершился с ошибкой", e);
+        } finally {
+            control.onCancel(null);
+        }
+    }
+
+    private Process ensureStarted() throws IOException {
+        if (process == null || !process.isAlive()) {
+            process = new ProcessBuilder(command)
+                    .redirectError(ProcessBuilder.Redirect.INHERIT)
+                    .start();
+            in = new DataInputStream(new BufferedInputStream(process.getInputStream()));
+            out = new DataOutputStream(new BufferedOutputStream(process.getOutputStream()));
+        }
+        return process;
+    }
+
+    private void stop() {
+        if (process != null) {
+            process.destroyForcibly();
+            process = null;
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (process != null) {
+            try {
+                out.close(); // Закрытый stdin - сигнал процессу завершиться
+            } catch (IOException ignored) {
+            }
+            stop();
+        }
+    }
+}
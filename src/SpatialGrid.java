@@ -0,0 +1,229 @@
+import java.util.Arrays;
+
+// Равномерная сетка над центрами кругов (вершин) для быстрого поиска по координатам.
+// Каждая ячейка - квадрат cellSize x cellSize; поиск смотрит только ячейки рядом с точкой,
+// поэтому время поиска не зависит от общего количества вершин.
+// Круги задаются неотрицательными номерами (номерами вершин модели), данные лежат в массивах по номеру.
+// Непустые ячейки - открытая адресация по ключу ячейки (как кэш цветов в GraphView, но без вытеснения),
+// круги ячейки связаны в список через next/prev, поэтому ни ключи, ни номера не упаковываются в объекты
+public class SpatialGrid {
+    private static final int NONE = -1;
+
+    private final double cellSize;
+    private double maxRadius = 0; // Наибольший радиус среди вставленных кругов
+    private int size = 0;
+
+    // Круги по номеру
+    private double[] x = new double[16], y = new double[16], radius = new double[16];
+    private long[] cellOf = new long[16]; // Ключ ячейки круга
+    private int[] next = new int[16], prev = new int[16]; // Соседи в списке ячейки
+    private boolean[] present = new boolean[16];
+
+    // Таблица ячеек: ключ и первый круг списка; NONE в cellHead - свободный слот
+    private long[] cellKeys = new long[16];
+    private int[] cellHead = new int[16];
+    private int cellCount = 0;
+
+    public SpatialGrid(double cellSize) {
+        this.cellSize = cellSize;
+        Arrays.fill(cellHead, NONE);
+    }
+
+    public void insert(int item, double x, double y, double radius) {
+        if (item >= present.length) growItems(item + 1);
+        if (present[item]) unplace(item);
+        else size++;
+        present[item] = true;
+        place(item, x, y);
+        setRadius(item, radius);
+    }
+
+    public void remove(int item) {
+        if (contains(item)) {
+            unplace(item);
+            present[item] = false;
+            size--;
+        }
+    }
+
+    // Перемещаем центр круга; ячейка меняется, только если центр вышел за её границы
+    public void move(int item, double x, double y) {
+        if (!contains(item)) return;
+        if (cellOf(x, y) != cellOf[item]) {
+            unplace(item);
+            place(item, x, y);
+        } else {
+            this.x[item] = x;
+            this.y[item] = y;
+        }
+    }
+
+    public void setRadius(int item, double radius) {
+        if (contains(item)) {
+            this.radius[item] = radius;
+            maxRadius = Math.max(maxRadius, radius);
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(present, false);
+        Arrays.fill(cellHead, NONE);
+        cellCount = 0;
+        size = 0;
+        maxRadius = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Ближайший круг, внутри которого лежит точка (x, y), или -1.
+    // Сравниваем квадраты расстояний, без извлечения корня
+    public int findAt(double x, double y) {
+        int minCx = cellCoord(x - maxRadius), maxCx = cellCoord(x + maxRadius);
+        int minCy = cellCoord(y - maxRadius), maxCy = cellCoord(y + maxRadius);
+        int best = NONE;
+        double bestDistance = Double.MAX_VALUE;
+        for (int cx = minCx; cx <= maxCx; cx++) {
+            for (int cy = minCy; cy <= maxCy; cy++) {
+                int slot = findCell(key(cx, cy));
+                if (slot < 0) continue;
+                for (int item = cellHead[slot]; item != NONE; item = next[item]) {
+                    double dx = x - this.x[item], dy = y - this.y[item];
+                    double distance = dx * dx + dy * dy;
+                    if (distance <= radius[item] * radius[item] && distance < bestDistance) {
+                        best = item;
+                        bestDistance = distance;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    // Все круги, центры которых лежат в прямоугольнике
+    public int[] query(double minX, double minY, double maxX, double maxY) {
+        int[] result = new int[8];
+        int count = 0;
+        for (int cx = cellCoord(minX); cx <= cellCoord(maxX); cx++) {
+            for (int cy = cellCoord(minY); cy <= cellCoord(maxY); cy++) {
+                int slot = findCell(key(cx, cy));
+                if (slot < 0) continue;
+                for (int item = cellHead[slot]; item != NONE; item = next[item]) {
+                    if (x[item] >= minX && x[item] <= maxX && y[item] >= minY && y[item] <= maxY) {
+                        if (count == result.length) result = Arrays.copyOf(result, 2 * count);
+                        result[count++] = item;
+                    }
+                }
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    private boolean contains(int item) {
+        return item >= 0 && item < present.length && present[item];
+    }
+
+    // Вставляем круг в начало списка его ячейки
+    private void place(int item, double x, double y) {
+        this.x[item] = x;
+        this.y[item] = y;
+        long key = cellOf(x, y);
+        cellOf[item] = key;
+        int slot = findCell(key);
+        if (slot < 0) {
+            if (2 * (cellCount + 1) > cellKeys.length) {
+                growCells();
+                slot = findCell(key);
+            }
+            slot = ~slot;
+            cellKeys[slot] = key;
+            cellCount++;
+        }
+        int head = cellHead[slot];
+        next[item] = head;
+        prev[item] = NONE;
+        if (head != NONE) prev[head] = item;
+        cellHead[slot] = item;
+    }
+
+    private void unplace(int item) {
+        int before = prev[item], after = next[item];
+        if (after != NONE) prev[after] = before;
+        if (before != NONE) {
+            next[before] = after;
+        } else {
+            int slot = findCell(cellOf[item]);
+            cellHead[slot] = after;
+            if (after == NONE) removeCell(slot);
+        }
+    }
+
+    // Слот ячейки в таблице или ~слот, куда её вставлять
+    private int findCell(long key) {
+        int mask = cellKeys.length - 1;
+        for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+            if (cellHead[slot] == NONE) return ~slot;
+            if (cellKeys[slot] == key) return slot;
+        }
+    }
+
+    // Удаление из линейного пробирования со сдвигом следующих ключей назад, без надгробий
+    private void removeCell(int slot) {
+        int mask = cellKeys.length - 1;
+        int hole = slot;
+        for (int s = (slot + 1) & mask; cellHead[s] != NONE; s = (s + 1) & mask) {
+            int home = hash(cellKeys[s]) & mask;
+            // Ключ можно переставить в дыру, если его место не между дырой и текущим слотом
+            if (((s - home) & mask) >= ((s - hole) & mask)) {
+                cellKeys[hole] = cellKeys[s];
+                cellHead[hole] = cellHead[s];
+                hole = s;
+            }
+        }
+        cellHead[hole] = NONE;
+        cellCount--;
+    }
+
+    private void growCells() {
+        long[] oldKeys = cellKeys;
+        int[] oldHead = cellHead;
+        cellKeys = new long[2 * oldKeys.length];
+        cellHead = new int[2 * oldHead.length];
+        Arrays.fill(cellHead, NONE);
+        for (int s = 0; s < oldKeys.length; s++) {
+            if (oldHead[s] == NONE) continue;
+            int slot = ~findCell(oldKeys[s]);
+            cellKeys[slot] = oldKeys[s];
+            cellHead[slot] = oldHead[s];
+        }
+    }
+
+    private void growItems(int minLength) {
+        int length = Math.max(2 * present.length, minLength);
+        x = Arrays.copyOf(x, length);
+        y = Arrays.copyOf(y, length);
+        radius = Arrays.copyOf(radius, length);
+        cellOf = Arrays.copyOf(cellOf, length);
+        next = Arrays.copyOf(next, length);
+        prev = Arrays.copyOf(prev, length);
+        present = Arrays.copyOf(present, length);
+    }
+
+    private int cellCoord(double v) {
+        return (int) Math.floor(v / cellSize);
+    }
+
+    private long cellOf(double x, double y) {
+        return key(cellCoord(x), cellCoord(y));
+    }
+
+    private static long key(int cx, int cy) {
+        return ((long) cx << 32) | (cy & 0xffffffffL);
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
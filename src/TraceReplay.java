@@ -0,0 +1,163 @@
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Консольное воспроизведение записи действий редактора (*.gtrace) без JavaFX.
+// Действия выполняются подряд, без пауз, на GraphEditor с новой моделью и историей - тем же кодом,
+// что работает в редакторе, только без отрисовки. Для каждого вида действия печатаются перцентили
+// времени и выделенная память на действие, затем замеры EditorMetrics (поиск вершины, обновление рёбер,
+// удаление, история). Узлов JavaFX нет, поэтому при перетаскивании концы рёбер переносятся в массив
+// координат EdgeEnds тем же проходом по инцидентным рёбрам, что и GraphView.moveEdgeEnds; работа с узлами
+// сцены (setStartX и т. п.) в замер не входит.
+// Первый прогон - прогрев JIT; при --runs N > 1 в отчёт попадают прогоны со второго.
+// С --coverage к модели подключается TriangleCoverage и после каждого действия забираются её изменения,
+// как это делает кадр редактора, - так видна цена проверки покрытия на каждой правке.
+//
+// Использование: java TraceReplay <запись.gtrace> [--runs N] [--coverage]
+public class TraceReplay {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            System.err.println("Использование: java TraceReplay <запись" + EditTrace.EXTENSION + "> [--runs N] [--coverage]");
+            System.exit(2);
+        }
+        int runs = 5;
+        boolean withCoverage = false;
+        for (int k = 1; k < args.length; k++) {
+            if (args[k].equals("--coverage")) {
+                withCoverage = true;
+            } else if (args[k].equals("--runs") && k + 1 < args.length) {
+                runs = Integer.parseInt(args[++k]);
+            } else {
+                System.err.println("Неизвестный параметр: " + args[k]);
+                System.exit(2);
+            }
+        }
+        if (runs < 1) {
+            System.err.println("Число прогонов должно быть положительным");
+            System.exit(2);
+        }
+
+        List<EditTrace.Entry> trace = EditTrace.read(Path.of(args[0]));
+        System.out.printf(Locale.ROOT, "Записей: %d, прогонов: %d%n", trace.size(), runs);
+        TraceReplay replay = null;
+        for (int run = 0; run < runs; run++) {
+            // Прогрев не учитываем, если есть другие прогоны
+            if (run == 0 || runs > 1 && run == 1) {
+                replay = new TraceReplay(withCoverage);
+            }
+            replay.run(trace);
+        }
+        System.out.print(replay.report());
+    }
+
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private final Map<EditTrace.Op, EditorMetrics.Operation> latencies = new EnumMap<>(EditTrace.Op.class);
+    private final Map<EditTrace.Op, Long> allocated = new EnumMap<>(EditTrace.Op.class); // Байт за все действия вида
+    private final EditorMetrics metrics = new EditorMetrics(); // Общие для всех прогонов отчёта
+    private long totalNanos, totalBytes, totalOps;
+    private int vertices, edges; // Граф после последнего прогона
+    private final boolean withCoverage;
+    private final BitSet coverageChanges = new BitSet();
+    private String coverageSummary = null; // Покрытие после последнего прогона
+
+    private TraceReplay(boolean withCoverage) {
+        this.withCoverage = withCoverage;
+        for (EditTrace.Op op : EditTrace.Op.values()) {
+            latencies.put(op, new EditorMetrics.Operation(op.name()));
+            allocated.put(op, 0L);
+        }
+    }
+
+    // Один прогон записи на новом редакторе
+    private void run(List<EditTrace.Entry> trace) {
+        GraphModel model = new GraphModel();
+        GraphEditor editor = new GraphEditor(model, new EditHistory(Long.getLong("history.maxBytes", 64L << 20)), metrics);
+        model.addListener(new EdgeEnds(model, metrics));
+        TriangleCoverage coverage = withCoverage ? new TriangleCoverage(model) : null;
+        long runStart = System.nanoTime();
+        long runBytes = threads.getCurrentThreadAllocatedBytes();
+        for (EditTrace.Entry entry : trace) {
+            long bytes = threads.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+            EditTrace.apply(entry, editor);
+            if (coverage != null) {
+                coverage.takeChanges(coverageChanges); // Как кадр редактора после правки
+                coverageChanges.clear();
+            }
+            long nanos = System.nanoTime() - start;
+            bytes = threads.getCurrentThreadAllocatedBytes() - bytes;
+            latencies.get(entry.op()).add(nanos);
+            allocated.merge(entry.op(), bytes, Long::sum);
+        }
+        totalNanos += System.nanoTime() - runStart;
+        totalBytes += threads.getCurrentThreadAllocatedBytes() - runBytes;
+        totalOps += trace.size();
+        vertices = model.vertexCount();
+        edges = model.edgeCount();
+        if (coverage != null) {
+            coverageSummary = String.format(Locale.ROOT, "Покрытие: треугольников %d, без треугольника %d, компонент не кратных 3: %d%n",
+                    coverage.getTriangleCount(), coverage.getUncovered(), coverage.getBadComponents());
+        }
+    }
+
+    private String report() {
+        StringBuilder text = new StringBuilder();
+        text.append(String.format(Locale.ROOT, "%-16s %9s %10s %10s %10s %10s %12s%n",
+                "действие", "раз", "p50, мкс", "p90, мкс", "p99, мкс", "макс, мкс", "байт/действие"));
+        for (EditorMetrics.Operation op : latencies.values()) {
+            if (op.getCount() == 0) continue;
+            text.append(String.format(Locale.ROOT, "%-16s %9d %10.1f %10.1f %10.1f %10.1f %12d%n",
+                    op.getName(), op.getCount(), op.percentile(0.5) / 1e3, op.percentile(0.9) / 1e3,
+                    op.percentile(0.99) / 1e3, op.getMaxNanos() / 1e3,
+                    allocated.get(EditTrace.Op.valueOf(op.getName())) / op.getCount()));
+        }
+        double seconds = totalNanos / 1e9;
+        text.append(String.format(Locale.ROOT, "Всего: %,d действий за %.3f с, %,.0f действий/с, выделено %.1f МБ (%.1f МБ/с)%n",
+                totalOps, seconds, totalOps / seconds, totalBytes / 1048576.0, totalBytes / 1048576.0 / seconds));
+        text.append(String.format(Locale.ROOT, "Граф после воспроизведения: вершин %d, рёбер %d%n", vertices, edges));
+        if (coverageSummary != null) {
+            text.append(coverageSummary);
+        }
+        for (EditorMetrics.Operation op : new EditorMetrics.Operation[]{metrics.findVertex, metrics.updateEdges, metrics.deleteVertex, metrics.history}) {
+            text.append(op).append('\n');
+        }
+        return text.toString();
+    }
+
+    // Концы рёбер по номеру (x1, y1, x2, y2) вместо линий GraphView: при сдвиге вершины переносятся
+    // концы её рёбер, время прохода пишется в metrics.updateEdges, как в GraphView.updateConnectedEdges
+    private static final class EdgeEnds implements GraphModel.Listener {
+        private final GraphModel model;
+        private final EditorMetrics metrics;
+        private double[] ends = new double[64];
+
+        EdgeEnds(GraphModel model, EditorMetrics metrics) {
+            this.model = model;
+            this.metrics = metrics;
+        }
+
+        @Override
+        public void vertexChanged(int vertex, double oldX, double oldY, double oldRadius) {
+            double x = model.x(vertex), y = model.y(vertex);
+            if (x == oldX && y == oldY) return;
+            if (ends.length < 4 * model.edgeSlots()) {
+                ends = Arrays.copyOf(ends, Math.max(2 * ends.length, 4 * model.edgeSlots()));
+            }
+            long start = System.nanoTime();
+            for (int h = model.firstIncidence(vertex); h >= 0; h = model.nextIncidence(h)) {
+                int e = GraphModel.incidenceEdge(h);
+                int k = model.edgeStart(e) == vertex ? 4 * e : 4 * e + 2;
+                ends[k] = x;
+                ends[k + 1] = y;
+            }
+            metrics.updateEdges.add(System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,423 @@
+import java.util.Arrays;
+import java.util.BitSet;
+
+// Необходимые условия разбиения, которые держатся в согласии с моделью без вызова решателя:
+// число треугольников у каждой вершины, вершины без треугольников и компоненты связности,
+// размер которых не кратен 3. Подписана на изменения модели, как VertexGrid.
+// Добавление или удаление ребра (a, b) меняет только треугольники с общими соседями a и b:
+// их находим за O(deg a + deg b) пометкой соседей, полного пересчёта нет.
+// Компоненты помечены номерами: при слиянии перенумеровывается меньшая; при удалении ребра без общих
+// соседей у концов два обхода из концов идут по очереди и останавливаются при встрече или когда один
+// закончился - тогда его вершины и есть отделившаяся часть. Оба случая ограничены LOCAL_STEPS шагами:
+// если меньшая компонента больше или концы разорванного ребра связаны только длинным путём (длинный цикл,
+// лестница), компоненты помечаются устаревшими и пересчитываются целиком, O(V + E), при следующем запросе -
+// не чаще раза за кадр, сколько бы таких правок ни было. Треугольники полного пересчёта не требуют никогда.
+// Кратные рёбра считаются одним. Только поток JavaFX (или один поток воспроизведения)
+public final class TriangleCoverage implements GraphModel.Listener {
+    public static final int COVERED = 0; // Вершина в треугольнике и в компоненте с размером, кратным 3
+    public static final int NO_TRIANGLE = 1; // Вершина не входит ни в один треугольник
+    public static final int BAD_COMPONENT = 2; // Размер компоненты вершины не кратен 3
+
+    private static final int CONTINUE = 0, MET = 1, EXHAUSTED = 2; // Шаг обхода Search
+    private static final int LOCAL_STEPS = 4096; // Предел шагов обхода на одну правку компонент
+
+    private final GraphModel model;
+    private int[] triangles = new int[16]; // Треугольников у вершины, по номеру
+    private long triangleCount = 0;
+    private int uncovered = 0; // Вершин без треугольников
+
+    // Пометка соседей: вершина помечена, если mark[v] == stamp
+    private int[] mark = new int[16];
+    private int stamp = 0;
+
+    // Компоненты: номер компоненты у вершины и размер по номеру компоненты
+    private int[] label = new int[16];
+    private int[] labelSize = new int[16];
+    private int[] freeLabels = new int[16];
+    private int labelCount = 0, freeLabelCount = 0;
+    private int badComponents = 0; // Компонент с размером, не кратным 3
+    private boolean componentsStale = false; // Местная проверка не уложилась в предел, нужен пересчёт
+
+    // Встречные обходы при удалении ребра: вершина пройдена обходом, если seen[v] равно его метке
+    private int[] seen = new int[16];
+    private int seenStamp = 0;
+    private final Search searchA = new Search(), searchB = new Search();
+
+    // Изменения для отображения с прошлого takeChanges
+    private final BitSet changed = new BitSet(); // У вершины появился или пропал треугольник
+    private boolean componentsChanged = false; // Изменилась кратность какой-то компоненты
+
+    public TriangleCoverage(GraphModel model) {
+        this.model = model;
+        reset();
+        model.addListener(this);
+    }
+
+    // Отписываемся от модели, когда проверка больше не нужна
+    public void detach() {
+        model.removeListener(this);
+    }
+
+    public long getTriangleCount() { return triangleCount; }
+    public int getUncovered() { return uncovered; }
+    public int trianglesAt(int vertex) { return triangles[vertex]; }
+
+    public int getBadComponents() {
+        refreshComponents();
+        return badComponents;
+    }
+
+    public int componentSize(int vertex) {
+        refreshComponents();
+        return labelSize[label[vertex]];
+    }
+
+    // COVERED, NO_TRIANGLE или BAD_COMPONENT; отсутствие треугольника важнее компоненты
+    public int status(int vertex) {
+        if (triangles[vertex] == 0) return NO_TRIANGLE;
+        refreshComponents();
+        return bad(labelSize[label[vertex]]) ? BAD_COMPONENT : COVERED;
+    }
+
+    // Переносим в into вершины, у которых мог смениться статус; true - сменился у неизвестного числа вершин
+    // (изменилась кратность компоненты), тогда перерисовать нужно все
+    public boolean takeChanges(BitSet into) {
+        refreshComponents();
+        boolean all = componentsChanged;
+        componentsChanged = false;
+        if (!all) into.or(changed);
+        changed.clear();
+        return all;
+    }
+
+    // Изменения модели
+    // Начало
+
+    @Override
+    public void vertexAdded(int vertex) {
+        ensureCapacity(vertex);
+        triangles[vertex] = 0;
+        uncovered++;
+        changed.set(vertex);
+        int component = newLabel();
+        label[vertex] = component;
+        labelSize[component] = 1;
+        badComponents++; // Одна вершина - компонента размера 1
+    }
+
+    @Override
+    public void vertexRemoved(int vertex, int index, int lastIndex) {
+        // Рёбра вершины уже удалены: треугольников у неё нет, и удаление последнего ребра
+        // отделило её в компоненту из одной вершины (или компоненты и так будут пересчитаны)
+        uncovered--;
+        changed.clear(vertex);
+        if (!componentsStale) {
+            freeLabel(label[vertex]);
+            badComponents--;
+        }
+    }
+
+    @Override
+    public void edgeAdded(int edge) {
+        int a = model.edgeStart(edge), b = model.edgeEnd(edge);
+        if (hasOtherEdge(a, b, edge)) return; // Вершины уже были смежны
+        changeTriangles(a, b, 1);
+        if (!componentsStale) {
+            merge(a, b);
+        }
+    }
+
+    @Override
+    public void edgeRemoved(int edge) {
+        int a = model.edgeStart(edge), b = model.edgeEnd(edge);
+        // Ребро уже снято из списков вершин; если осталось кратное, вершины по-прежнему смежны.
+        // Компонента может распасться, только если у a и b не осталось общего соседа
+        if (model.findEdge(a, b) < 0 && changeTriangles(a, b, -1) == 0 && !componentsStale) {
+            splitIfDisconnected(a, b);
+        }
+    }
+
+    // Граф заменён: пересчитываем всё
+    @Override
+    public void reset() {
+        ensureCapacity(model.vertexSlots());
+        triangleCount = 0;
+        for (int i = 0; i < model.vertexCount(); i++) {
+            triangles[model.vertexAt(i)] = 0;
+        }
+        // Каждый треугольник a < b < c находим один раз: у ребра (a, b) ищем общих соседей c > b
+        for (int i = 0; i < model.edgeCount(); i++) {
+            int e = model.edgeAt(i);
+            int a = Math.min(model.edgeStart(e), model.edgeEnd(e)), b = Math.max(model.edgeStart(e), model.edgeEnd(e));
+            if (model.findEdge(a, b) != e) continue; // Не первое из кратных рёбер
+            markNeighbours(a);
+            for (int h = model.firstIncidence(b); h >= 0; h = model.nextIncidence(h)) {
+                int c = model.opposite(GraphModel.incidenceEdge(h), b);
+                if (c > b && mark[c] == stamp) {
+                    mark[c] = stamp - 1; // Кратное ребро (b, c) не считаем дважды
+                    triangles[a]++;
+                    triangles[b]++;
+                    triangles[c]++;
+                    triangleCount++;
+                }
+            }
+        }
+        uncovered = 0;
+        for (int i = 0; i < model.vertexCount(); i++) {
+            if (triangles[model.vertexAt(i)] == 0) uncovered++;
+        }
+        relabelAll();
+        componentsStale = false;
+        changed.clear();
+        componentsChanged = true;
+    }
+    // Конец
+
+    // Треугольники
+    // Начало
+
+    // Ребро (a, b) появилось (delta = 1) или пропало (delta = -1): меняем треугольники с каждым общим соседом.
+    // Возвращаем число общих соседей
+    private int changeTriangles(int a, int b, int delta) {
+        if (model.degree(a) > model.degree(b)) {
+            int t = a;
+            a = b;
+            b = t;
+        }
+        markNeighbours(a);
+        int common = 0;
+        for (int h = model.firstIncidence(b); h >= 0; h = model.nextIncidence(h)) {
+            int c = model.opposite(GraphModel.incidenceEdge(h), b);
+            if (c != a && mark[c] == stamp) {
+                mark[c] = stamp - 1; // Кратное ребро (b, c) не считаем дважды
+                addTriangles(c, delta);
+                common++;
+            }
+        }
+        if (common > 0) {
+            addTriangles(a, delta * common);
+            addTriangles(b, delta * common);
+            triangleCount += (long) delta * common;
+        }
+        return common;
+    }
+
+    private void addTriangles(int vertex, int delta) {
+        int before = triangles[vertex];
+        int after = before + delta;
+        triangles[vertex] = after;
+        if (before == 0 || after == 0) {
+            uncovered += before == 0 ? -1 : 1;
+            changed.set(vertex);
+        }
+    }
+
+    private void markNeighbours(int vertex) {
+        if (++stamp == Integer.MAX_VALUE) { // Метки исчерпаны - начинаем заново
+            Arrays.fill(mark, 0);
+            stamp = 1;
+        }
+        for (int h = model.firstIncidence(vertex); h >= 0; h = model.nextIncidence(h)) {
+            mark[model.opposite(GraphModel.incidenceEdge(h), vertex)] = stamp;
+        }
+    }
+
+    // Есть ли между a и b ребро, кроме edge
+    private boolean hasOtherEdge(int a, int b, int edge) {
+        int from = model.degree(a) <= model.degree(b) ? a : b;
+        int to = from == a ? b : a;
+        for (int h = model.firstIncidence(from); h >= 0; h = model.nextIncidence(h)) {
+            int e = GraphModel.incidenceEdge(h);
+            if (e != edge && model.opposite(e, from) == to) return true;
+        }
+        return false;
+    }
+    // Конец
+
+    // Компоненты связности
+    // Начало
+
+    private static boolean bad(int size) {
+        return size % 3 != 0;
+    }
+
+    // Местная проверка не уложилась в предел: компоненты пересчитаем при следующем запросе
+    private void markComponentsStale() {
+        componentsStale = true;
+        componentsChanged = true;
+    }
+
+    private void refreshComponents() {
+        if (!componentsStale) return;
+        componentsStale = false;
+        relabelAll();
+    }
+
+    // Ребро соединило две компоненты: переносим меньшую в большую обходом только её вершин
+    private void merge(int a, int b) {
+        if (label[a] == label[b]) return;
+        int from = labelSize[label[a]] < labelSize[label[b]] ? a : b;
+        int small = label[from], large = label[from == a ? b : a];
+        if (labelSize[small] > LOCAL_STEPS) {
+            markComponentsStale();
+            return;
+        }
+        int[] queue = searchA.queue;
+        label[from] = large;
+        queue[0] = from;
+        int head = 0, tail = 1;
+        while (head < tail) {
+            int v = queue[head++];
+            for (int h = model.firstIncidence(v); h >= 0; h = model.nextIncidence(h)) {
+                int u = model.opposite(GraphModel.incidenceEdge(h), v);
+                if (label[u] == small) {
+                    label[u] = large;
+                    queue[tail++] = u;
+                }
+            }
+        }
+        boolean smallBad = bad(labelSize[small]), largeBad = bad(labelSize[large]);
+        labelSize[large] += labelSize[small];
+        freeLabel(small);
+        boolean merged = bad(labelSize[large]);
+        badComponents += (merged ? 1 : 0) - (smallBad ? 1 : 0) - (largeBad ? 1 : 0);
+        if (merged != smallBad || merged != largeBad) {
+            componentsChanged = true; // У вершин одной из частей сменилась кратность
+        }
+    }
+
+    // Ребра (a, b) больше нет и общих соседей у концов нет: обходим граф из a и из b по очереди, по одному ребру.
+    // Встретились - компонента цела; один обход закончился раньше - его вершины отделились в новую компоненту.
+    // Стоимость - рёбра, просмотренные до встречи или до конца меньшей части, но не больше LOCAL_STEPS
+    private void splitIfDisconnected(int a, int b) {
+        if (seenStamp >= Integer.MAX_VALUE - 2) { // Метки исчерпаны - начинаем заново
+            Arrays.fill(seen, 0);
+            seenStamp = 0;
+        }
+        int stampA = ++seenStamp, stampB = ++seenStamp;
+        searchA.start(a, stampA);
+        searchB.start(b, stampB);
+        Search part;
+        for (int steps = 0; ; steps++) {
+            if (steps == LOCAL_STEPS) {
+                markComponentsStale();
+                return;
+            }
+            int step = searchA.advance(stampB);
+            if (step == MET) return;
+            if (step == EXHAUSTED) {
+                part = searchA;
+                break;
+            }
+            step = searchB.advance(stampA);
+            if (step == MET) return;
+            if (step == EXHAUSTED) {
+                part = searchB;
+                break;
+            }
+        }
+        int whole = label[a];
+        int split = newLabel();
+        for (int i = 0; i < part.tail; i++) {
+            label[part.queue[i]] = split;
+        }
+        boolean wholeBad = bad(labelSize[whole]);
+        labelSize[whole] -= part.tail;
+        labelSize[split] = part.tail;
+        boolean restBad = bad(labelSize[whole]), splitBad = bad(part.tail);
+        badComponents += (restBad ? 1 : 0) + (splitBad ? 1 : 0) - (wholeBad ? 1 : 0);
+        if (restBad != wholeBad || splitBad != wholeBad) {
+            componentsChanged = true;
+        }
+    }
+
+    // Обход в ширину, который продвигается по одному ребру за шаг
+    private final class Search {
+        int[] queue = new int[16];
+        int head, tail, vertex, half, mark;
+
+        void start(int from, int searchMark) {
+            mark = searchMark;
+            seen[from] = mark;
+            queue[0] = from;
+            head = 0;
+            tail = 1;
+            half = -1;
+        }
+
+        // CONTINUE, MET (дошли до вершины встречного обхода) или EXHAUSTED (вершин больше нет)
+        int advance(int otherMark) {
+            while (half < 0) {
+                if (head == tail) return EXHAUSTED;
+                vertex = queue[head++];
+                half = model.firstIncidence(vertex);
+            }
+            int u = model.opposite(GraphModel.incidenceEdge(half), vertex);
+            half = model.nextIncidence(half);
+            if (seen[u] == otherMark) return MET;
+            if (seen[u] != mark) {
+                seen[u] = mark;
+                queue[tail++] = u;
+            }
+            return CONTINUE;
+        }
+    }
+
+    // Все компоненты заново: O(V + E)
+    private void relabelAll() {
+        labelCount = freeLabelCount = 0;
+        badComponents = 0;
+        int unvisited = newLabel(); // Временная метка ещё не обойдённых вершин
+        for (int i = 0; i < model.vertexCount(); i++) {
+            label[model.vertexAt(i)] = unvisited;
+        }
+        int[] queue = searchA.queue;
+        for (int i = 0; i < model.vertexCount(); i++) {
+            int start = model.vertexAt(i);
+            if (label[start] != unvisited) continue;
+            int component = newLabel();
+            label[start] = component;
+            queue[0] = start;
+            int head = 0, tail = 1;
+            while (head < tail) {
+                int v = queue[head++];
+                for (int h = model.firstIncidence(v); h >= 0; h = model.nextIncidence(h)) {
+                    int u = model.opposite(GraphModel.incidenceEdge(h), v);
+                    if (label[u] == unvisited) {
+                        label[u] = component;
+                        queue[tail++] = u;
+                    }
+                }
+            }
+            labelSize[component] = tail;
+            if (bad(tail)) badComponents++;
+        }
+        freeLabel(unvisited);
+    }
+
+    private int newLabel() {
+        if (freeLabelCount > 0) return freeLabels[--freeLabelCount];
+        if (labelCount == labelSize.length) {
+            labelSize = Arrays.copyOf(labelSize, 2 * labelSize.length);
+            freeLabels = Arrays.copyOf(freeLabels, 2 * freeLabels.length);
+        }
+        return labelCount++;
+    }
+
+    private void freeLabel(int component) {
+        labelSize[component] = 0;
+        freeLabels[freeLabelCount++] = component;
+    }
+    // Конец
+
+    private void ensureCapacity(int vertex) {
+        if (vertex < triangles.length) return;
+        int capacity = Math.max(2 * triangles.length, vertex + 1);
+        triangles = Arrays.copyOf(triangles, capacity);
+        mark = Arrays.copyOf(mark, capacity);
+        label = Arrays.copyOf(label, capacity);
+        seen = Arrays.copyOf(seen, capacity);
+        searchA.queue = new int[capacity];
+        searchB.queue = new int[capacity];
+    }
+}
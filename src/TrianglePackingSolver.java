@@ -0,0 +1,312 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+
+// Поиск наибольшего набора непересекающихся треугольников за ограниченное время.
+// Нужен, когда разбиения нет или точный перебор слишком долог: в любой момент есть лучший
+// найденный набор и верхняя граница, поэтому видно, насколько он далёк от оптимума.
+// Каждый поток строит набор жадно в случайном порядке, улучшает его локальным поиском
+// (убираем один треугольник - ставим два) и затем встряхивает: убирает несколько треугольников
+// и повторяет. Время от времени поток начинает заново.
+// Один поиск ведёт вызывающий поток, остальные - свой пул решателя, который освобождается в close();
+// при parallelism = 1 пула нет и весь поиск идёт в вызывающем потоке
+public class TrianglePackingSolver implements AutoCloseable {
+    private static final int KICKS_PER_RESTART = 200; // Встряхиваний до перезапуска с нуля
+    private static final int KICK_SIZE = 3; // Сколько треугольников убирает встряхивание
+
+    private final int parallelism;
+    private final ForkJoinPool pool; // null при parallelism = 1
+
+    public TrianglePackingSolver() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public TrianglePackingSolver(int parallelism) {
+        this.parallelism = parallelism;
+        this.pool = parallelism > 1 ? new ForkJoinPool(parallelism - 1) : null;
+    }
+
+    // Лучший найденный набор и верхняя граница числа треугольников
+    public record Packing(List<int[]> triangles, int upperBound) {
+        public int size() {
+            return triangles.size();
+        }
+
+        public boolean isOptimal() {
+            return triangles.size() == upperBound;
+        }
+    }
+
+    // Ищем, пока не выйдет время, не сработает control или набор не достигнет верхней границы.
+    // onImprove вызывается из рабочих потоков при каждом улучшении
+    public Packing solve(BitAdjacencyMatrix graph, long budgetMillis, SearchControl control, Consumer<Packing> onImprove) {
+        long deadline = System.nanoTime() + budgetMillis * 1_000_000;
+        int n = graph.size();
+        int[][] triangles = graph.triangles().toArray(new int[0][]);
+
+        // Треугольники каждой вершины
+        int[] count = new int[n];
+        for (int[] t : triangles) {
+            for (int v : t) count[v]++;
+        }
+        int[][] trianglesOf = new int[n][];
+        for (int v = 0; v < n; v++) trianglesOf[v] = new int[count[v]];
+        Arrays.fill(count, 0);
+        for (int t = 0; t < triangles.length; t++) {
+            for (int v : triangles[t]) trianglesOf[v][count[v]++] = t;
+        }
+
+        Best best = new Best(upperBound(graph, trianglesOf), onImprove);
+        if (triangles.length == 0 || best.upperBound == 0) {
+            return best.get();
+        }
+
+        List<CompletableFuture<Void>> workers = new ArrayList<>();
+        for (int w = 1; w < parallelism; w++) {
+            workers.add(CompletableFuture.runAsync(() ->
+                    new Worker(n, triangles, trianglesOf, best, deadline, control).run(), pool));
+        }
+        new Worker(n, triangles, trianglesOf, best, deadline, control).run();
+        for (CompletableFuture<Void> worker : workers) {
+            worker.join();
+        }
+        return best.get();
+    }
+
+    @Override
+    public void close() {
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+
+    // Верхняя граница: в каждой компоненте связности треугольников не больше трети вершин,
+    // входящих хотя бы в один треугольник
+    private static int upperBound(BitAdjacencyMatrix graph, int[][] trianglesOf) {
+        int bound = 0;
+        for (int[] component : graph.components()) {
+            int covered = 0;
+            for (int v : component) {
+                if (trianglesOf[v].length > 0) covered++;
+            }
+            bound += covered / 3;
+        }
+        return bound;
+    }
+
+    // Общий лучший результат всех потоков
+    private static final class Best {
+        final int upperBound;
+        private final Consumer<Packing> onImprove;
+        private volatile Packing packing;
+
+        Best(int upperBound, Consumer<Packing> onImprove) {
+            this.upperBound = upperBound;
+            this.onImprove = onImprove;
+            this.packing = new Packing(List.of(), upperBound);
+        }
+
+        Packing get() {
+            return packing;
+        }
+
+        boolean reachedBound() {
+            return packing.size() >= upperBound;
+        }
+
+        void offer(int[][] triangles, int[] chosen, int size) {
+            if (size <= packing.size()) return; // Быстрая проверка без блокировки
+            Packing improved;
+            synchronized (this) {
+                if (size <= packing.size()) return;
+                List<int[]> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(triangles[chosen[i]].clone());
+                }
+                improved = new Packing(List.copyOf(list), upperBound);
+                packing = improved;
+            }
+            if (onImprove != null) {
+                onImprove.accept(improved);
+            }
+        }
+    }
+
+    // Локальный поиск одного потока
+    private static final class Worker {
+        private final int[][] triangles;
+        private final int[][] trianglesOf;
+        private final Best best;
+        private final long deadline;
+        private final SearchControl control;
+        private final ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        private final int[] owner; // Номер треугольника, покрывающего вершину, или -1
+        private final int[] chosen; // Треугольники текущего набора
+        private final int[] position; // Позиция треугольника в chosen или -1
+        private int size = 0;
+        private final int[] order; // Порядок перебора треугольников при жадном построении
+        private final int[] candidates; // Временный список для шага 1 -> 2
+        private long steps = 0;
+
+        Worker(int n, int[][] triangles, int[][] trianglesOf, Best best, long deadline, SearchControl control) {
+            this.triangles = triangles;
+            this.trianglesOf = trianglesOf;
+            this.best = best;
+            this.deadline = deadline;
+            this.control = control;
+            this.owner = new int[n];
+            this.chosen = new int[n / 3 + 1];
+            this.position = new int[triangles.length];
+            this.order = new int[triangles.length];
+            int maxCandidates = 0;
+            for (int[] list : trianglesOf) maxCandidates = Math.max(maxCandidates, list.length);
+            this.candidates = new int[3 * maxCandidates];
+        }
+
+        void run() {
+            for (int t = 0; t < order.length; t++) order[t] = t;
+            while (!finished()) {
+                Arrays.fill(owner, -1);
+                Arrays.fill(position, -1);
+                size = 0;
+                greedy();
+                improve();
+                best.offer(triangles, chosen, size);
+                int[] current = Arrays.copyOf(chosen, size); // Лучший набор этого запуска
+                for (int kick = 0; kick < KICKS_PER_RESTART && !finished(); kick++) {
+                    kick();
+                    greedy();
+                    improve();
+                    if (size >= current.length) {
+                        current = Arrays.copyOf(chosen, size); // Равный набор тоже принимаем, чтобы не стоять на месте
+                        best.offer(triangles, chosen, size);
+                    } else {
+                        restore(current); // Встряхивание ухудшило набор - возвращаемся
+                    }
+                }
+            }
+            control.addNodes(steps);
+        }
+
+        private boolean finished() {
+            return best.reachedBound() || control.isStopped() || System.nanoTime() >= deadline;
+        }
+
+        // Добавляем треугольники, все вершины которых свободны; вершины с малым числом
+        // треугольников идут первыми - им труднее найти пару позже
+        private void greedy() {
+            for (int i = order.length - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int tmp = order[i]; order[i] = order[j]; order[j] = tmp;
+            }
+            for (int v = 0; v < owner.length; v++) {
+                if (owner[v] >= 0 || trianglesOf[v].length == 0) continue;
+                if (trianglesOf[v].length <= 2) tryAddAny(v);
+            }
+            for (int t : order) {
+                if (isFree(t)) add(t);
+            }
+        }
+
+        private void tryAddAny(int v) {
+            int[] list = trianglesOf[v];
+            int start = random.nextInt(list.length);
+            for (int k = 0; k < list.length; k++) {
+                int t = list[(start + k) % list.length];
+                if (isFree(t)) {
+                    add(t);
+                    return;
+                }
+            }
+        }
+
+        // Шаг локального поиска: убираем треугольник t и ставим вместо него два,
+        // каждый из которых задевает вершины t, а остальные вершины свободны
+        private void improve() {
+            boolean improved = true;
+            while (improved && !finished()) {
+                improved = false;
+                int offset = size > 0 ? random.nextInt(size) : 0;
+                for (int k = 0; k < size && !improved; k++) {
+                    int t = chosen[(offset + k) % size];
+                    improved = swapOneForTwo(t);
+                }
+            }
+        }
+
+        private boolean swapOneForTwo(int t) {
+            int[] removed = triangles[t];
+            int found = 0;
+            for (int v : removed) {
+                for (int c : trianglesOf[v]) {
+                    steps++;
+                    if (c != t && freeExcept(c, t)) candidates[found++] = c;
+                }
+            }
+            for (int i = 0; i < found; i++) {
+                for (int j = i + 1; j < found; j++) {
+                    if (disjoint(triangles[candidates[i]], triangles[candidates[j]])) {
+                        int a = candidates[i], b = candidates[j];
+                        remove(t);
+                        add(a);
+                        add(b);
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        // Убираем несколько случайных треугольников
+        private void kick() {
+            for (int k = 0; k < KICK_SIZE && size > 0; k++) {
+                remove(chosen[random.nextInt(size)]);
+            }
+        }
+
+        private void restore(int[] saved) {
+            while (size > 0) remove(chosen[size - 1]);
+            for (int t : saved) add(t);
+        }
+
+        private boolean isFree(int t) {
+            int[] tr = triangles[t];
+            return owner[tr[0]] < 0 && owner[tr[1]] < 0 && owner[tr[2]] < 0;
+        }
+
+        // Все вершины c свободны или принадлежат треугольнику t
+        private boolean freeExcept(int c, int t) {
+            for (int v : triangles[c]) {
+                if (owner[v] >= 0 && owner[v] != t) return false;
+            }
+            return true;
+        }
+
+        private static boolean disjoint(int[] a, int[] b) {
+            for (int x : a) {
+                if (x == b[0] || x == b[1] || x == b[2]) return false;
+            }
+            return true;
+        }
+
+        private void add(int t) {
+            for (int v : triangles[t]) owner[v] = t;
+            position[t] = size;
+            chosen[size++] = t;
+        }
+
+        private void remove(int t) {
+            for (int v : triangles[t]) owner[v] = -1;
+            int p = position[t];
+            int last = chosen[--size];
+            chosen[p] = last;
+            position[last] = p;
+            position[t] = -1;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+import java.util.List;
+
+// Решатель задачи о разбиении графа на вершинно-непересекающиеся треугольники
+public interface TrianglePartitionSolver {
+
+    // Возвращает список треугольников {a, b, c} (a < b < c), покрывающих каждую вершину ровно один раз,
+    // или null, если такого разбиения не существует
+    default List<int[]> solve(BitAdjacencyMatrix graph) {
+        return solve(graph, new SearchControl());
+    }
+
+    // То же, но с отчётом о ходе поиска и возможностью отмены через control.
+    // После отмены возвращает null
+    List<int[]> solve(BitAdjacencyMatrix graph, SearchControl control);
+}
@@ -0,0 +1,52 @@
+// Поиск вершин модели по координатам. Подписана на изменения модели и держит сетку SpatialGrid
+// в согласии с ней; JavaFX не нужна, поэтому работает и при воспроизведении записи без интерфейса
+public final class VertexGrid implements GraphModel.Listener {
+    private final GraphModel model;
+    private final SpatialGrid grid = new SpatialGrid(32);
+
+    public VertexGrid(GraphModel model) {
+        this.model = model;
+        reset();
+        model.addListener(this);
+    }
+
+    // Ближайшая вершина, внутри которой лежит точка, или -1
+    public int findAt(double x, double y) {
+        return grid.findAt(x, y);
+    }
+
+    // Вершины, центры которых лежат в прямоугольнике
+    public int[] query(double minX, double minY, double maxX, double maxY) {
+        return grid.query(minX, minY, maxX, maxY);
+    }
+
+    @Override
+    public void vertexAdded(int vertex) {
+        grid.insert(vertex, model.x(vertex), model.y(vertex), model.radius(vertex));
+    }
+
+    @Override
+    public void vertexRemoved(int vertex, int index, int lastIndex) {
+        grid.remove(vertex);
+    }
+
+    @Override
+    public void vertexChanged(int vertex, double oldX, double oldY, double oldRadius) {
+        double x = model.x(vertex), y = model.y(vertex), r = model.radius(vertex);
+        if (x != oldX || y != oldY) {
+            grid.move(vertex, x, y);
+        }
+        if (r != oldRadius) {
+            grid.setRadius(vertex, r);
+        }
+    }
+
+    @Override
+    public void reset() {
+        grid.clear();
+        for (int i = 0; i < model.vertexCount(); i++) {
+            int v = model.vertexAt(i);
+            grid.insert(v, model.x(v), model.y(v), model.radius(v));
+        }
+    }
+}